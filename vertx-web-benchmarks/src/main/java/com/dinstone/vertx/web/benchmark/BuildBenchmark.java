@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dinstone.vertx.web.RouteResolver;
+import com.dinstone.vertx.web.RouterBuilder;
+import com.dinstone.vertx.web.annotation.handler.AnnotationRouteResolver;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.Router;
+
+/**
+ * Cost of {@link RouterBuilder#build()} against the number of resources, each resource has 8 annotated methods. The
+ * resources cycle through 4 classes, so {@code build} and {@code resolve} measure builds over resource models already
+ * cached per class; {@code buildCold} loads every resource from its own class loader before each build, so each one
+ * is a distinct class scanned for the first time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuildBenchmark {
+
+    private static final Class<?>[] RESOURCES = { CatalogResource.class, OrderResource.class, UserResource.class,
+            SearchResource.class };
+
+    @Param({ "1", "10", "100" })
+    private int resources;
+
+    private Vertx vertx;
+
+    private Object[] services;
+
+    @Setup
+    public void setup() throws Exception {
+        vertx = Vertx.vertx();
+        services = new Object[resources];
+        for (int i = 0; i < resources; i++) {
+            services[i] = RESOURCES[i % RESOURCES.length].getConstructor().newInstance();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close();
+    }
+
+    @Benchmark
+    public Router build() {
+        RouterBuilder builder = RouterBuilder.create(vertx);
+        for (Object service : services) {
+            builder.handler(service);
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public Router buildCold(ColdResources cold) {
+        RouterBuilder builder = RouterBuilder.create(vertx);
+        for (Object service : cold.services) {
+            builder.handler(service);
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public Router resolve() {
+        Router router = Router.router(vertx);
+        RouteResolver resolver = new AnnotationRouteResolver();
+        for (Object service : services) {
+            Class<?> clazz = service.getClass();
+            for (Method method : clazz.getMethods()) {
+                resolver.process(router, service, clazz, method);
+            }
+        }
+        return router;
+    }
+
+    @State(Scope.Thread)
+    public static class ColdResources {
+
+        private Object[] services;
+
+        @Setup(Level.Invocation)
+        public void setup(BuildBenchmark benchmark) throws Exception {
+            services = new Object[benchmark.resources];
+            for (int i = 0; i < services.length; i++) {
+                ClassLoader loader = new ResourceLoader(BuildBenchmark.class.getClassLoader());
+                Class<?> clazz = loader.loadClass(RESOURCES[i % RESOURCES.length].getName());
+                services[i] = clazz.getConstructor().newInstance();
+            }
+        }
+    }
+
+    /**
+     * Defines the resource classes, and their generated binders, again instead of delegating to its parent.
+     */
+    private static class ResourceLoader extends ClassLoader {
+
+        ResourceLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!isResource(name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+                if (clazz == null) {
+                    byte[] bytes = read(name);
+                    clazz = defineClass(name, bytes, 0, bytes.length);
+                }
+                return clazz;
+            }
+        }
+
+        private static boolean isResource(String name) {
+            for (Class<?> resource : RESOURCES) {
+                if (name.startsWith(resource.getName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private byte[] read(String name) throws ClassNotFoundException {
+            try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                if (in == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                for (int n; (n = in.read(buffer)) > 0;) {
+                    out.write(buffer, 0, n);
+                }
+                return out.toByteArray();
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+    }
+
+}
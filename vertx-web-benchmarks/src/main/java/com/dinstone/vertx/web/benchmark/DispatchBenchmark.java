@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dinstone.vertx.web.RouterBuilder;
+import com.dinstone.vertx.web.annotation.handler.AnnotationRouteResolver;
+import com.dinstone.vertx.web.annotation.handler.MethodInvoker;
+import com.dinstone.vertx.web.annotation.handler.MethodInvokers;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Per call cost of dispatching to an annotated method: the handler {@link RouterBuilder} registers for it, captured
+ * with a decorator, a stub request routed through the built router, the bare exact method handle and lambda invokers,
+ * and a hand written handler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private Vertx vertx;
+
+    private DispatchResource resource;
+
+    private RoutingContext ctx;
+
+    private StubHttpServerRequest request;
+
+    private Router router;
+
+    private Handler<RoutingContext> registered;
+
+    private MethodInvoker exact;
+
+    private MethodInvoker lambda;
+
+    private Handler<RoutingContext> direct;
+
+    @Setup
+    public void setup() throws Exception {
+        vertx = Vertx.vertx();
+        resource = new DispatchResource();
+        ctx = new StubRoutingContext();
+        request = new StubHttpServerRequest(HttpMethod.GET, "/dispatch/count");
+
+        router = RouterBuilder.create(vertx).decorator((method, path, handler) -> {
+            registered = handler;
+            return handler;
+        }).handler(resource).build();
+
+        Method method = DispatchResource.class.getMethod("count", RoutingContext.class);
+        exact = MethodInvokers.exact(resource, AnnotationRouteResolver.getMethodHandle(method));
+        lambda = MethodInvokers.lambda(resource, method);
+        direct = ctx -> resource.count(ctx);
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close();
+    }
+
+    @Benchmark
+    public long registered() {
+        registered.handle(ctx);
+        return resource.getCount();
+    }
+
+    @Benchmark
+    public long routed() {
+        router.accept(request.reset());
+        return resource.getCount();
+    }
+
+    @Benchmark
+    public long exact() throws Throwable {
+        exact.invoke(ctx);
+        return resource.getCount();
+    }
+
+    @Benchmark
+    public long lambda() throws Throwable {
+        lambda.invoke(ctx);
+        return resource.getCount();
+    }
+
+    @Benchmark
+    public long direct() {
+        direct.handle(ctx);
+        return resource.getCount();
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dinstone.vertx.web.RouterBuilder;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+
+/**
+ * Cost of {@code @Produces}/{@code @Consumes} matching, dispatching stub requests through the router in process.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NegotiationBenchmark {
+
+    private Vertx vertx;
+
+    private Router router;
+
+    private StubHttpServerRequest plain;
+
+    private StubHttpServerRequest produces;
+
+    private StubHttpServerRequest producesWeighted;
+
+    private StubHttpServerRequest consumes;
+
+    @Setup
+    public void setup() {
+        vertx = Vertx.vertx();
+        router = RouterBuilder.create(vertx).handler(new NegotiationResource()).build();
+
+        plain = new StubHttpServerRequest(HttpMethod.GET, "/neg/plain");
+        produces = new StubHttpServerRequest(HttpMethod.GET, "/neg/produces").putHeader("Accept",
+            "application/json");
+        producesWeighted = new StubHttpServerRequest(HttpMethod.GET, "/neg/produces").putHeader("Accept",
+            "text/html;q=0.9, application/json;q=0.8, */*;q=0.1");
+        consumes = new StubHttpServerRequest(HttpMethod.POST, "/neg/consumes").putHeader("Content-Type",
+            "application/json");
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close();
+    }
+
+    @Benchmark
+    public int plain() {
+        return dispatch(plain);
+    }
+
+    @Benchmark
+    public int produces() {
+        return dispatch(produces);
+    }
+
+    @Benchmark
+    public int producesWeighted() {
+        return dispatch(producesWeighted);
+    }
+
+    @Benchmark
+    public int consumes() {
+        return dispatch(consumes);
+    }
+
+    private int dispatch(StubHttpServerRequest request) {
+        router.accept(request.reset());
+        return request.response().getStatusCode();
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.benchmark;
+
+import com.dinstone.vertx.web.annotation.Consumes;
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.Path;
+import com.dinstone.vertx.web.annotation.Post;
+import com.dinstone.vertx.web.annotation.Produces;
+
+import io.vertx.ext.web.RoutingContext;
+
+@Path("/neg")
+public class NegotiationResource {
+
+    @Get("/plain")
+    public void plain(RoutingContext ctx) {
+        ctx.response().end();
+    }
+
+    @Get("/produces")
+    @Produces({ "text/plain", "application/xml", "application/json" })
+    public void produces(RoutingContext ctx) {
+        ctx.response().end();
+    }
+
+    @Post("/consumes")
+    @Consumes({ "text/plain", "application/json" })
+    public void consumes(RoutingContext ctx) {
+        ctx.response().end();
+    }
+
+}
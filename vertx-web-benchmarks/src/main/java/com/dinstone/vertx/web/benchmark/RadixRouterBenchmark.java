@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dinstone.vertx.web.router.RouteTree;
+import com.dinstone.vertx.web.router.RouteTreeHandler;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Matching cost of the Vert.x router against the compiled {@link RouteTree}, with half static and half
+ * {@code :param} templates, for the first and the last registered route.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RadixRouterBenchmark {
+
+    @Param({ "10", "100", "1000", "5000" })
+    public int routes;
+
+    private Vertx vertx;
+
+    private Router vertxRouter;
+
+    private Router radixRouter;
+
+    private StubHttpServerRequest first;
+
+    private StubHttpServerRequest last;
+
+    @Setup
+    public void setup() {
+        vertx = Vertx.vertx();
+        vertxRouter = Router.router(vertx);
+        RouteTree.Builder tree = RouteTree.builder();
+
+        Handler<RoutingContext> handler = ctx -> ctx.response().end();
+        for (int i = 0; i < routes; i++) {
+            String template = i % 2 == 0 ? "/api/r" + i + "/items" : "/api/r" + i + "/items/:id";
+            vertxRouter.route(HttpMethod.GET, template).handler(handler);
+            tree.add(HttpMethod.GET, template, handler);
+        }
+        radixRouter = Router.router(vertx);
+        radixRouter.route().handler(new RouteTreeHandler(tree.build()));
+
+        first = new StubHttpServerRequest(HttpMethod.GET, "/api/r0/items");
+        last = new StubHttpServerRequest(HttpMethod.GET, "/api/r" + (routes - 1) + "/items/42");
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close();
+    }
+
+    @Benchmark
+    public int vertxFirst() {
+        return dispatch(vertxRouter, first);
+    }
+
+    @Benchmark
+    public int vertxLast() {
+        return dispatch(vertxRouter, last);
+    }
+
+    @Benchmark
+    public int radixFirst() {
+        return dispatch(radixRouter, first);
+    }
+
+    @Benchmark
+    public int radixLast() {
+        return dispatch(radixRouter, last);
+    }
+
+    private int dispatch(Router router, StubHttpServerRequest request) {
+        router.accept(request.reset());
+        return request.response().getStatusCode();
+    }
+
+}
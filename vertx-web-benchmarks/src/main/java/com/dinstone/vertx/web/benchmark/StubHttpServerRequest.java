@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.benchmark;
+
+import javax.net.ssl.SSLPeerUnverifiedException;
+
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.CaseInsensitiveHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerFileUpload;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.net.SocketAddress;
+
+/**
+ * Request without a connection, for dispatching through a {@code Router} in process.
+ */
+public class StubHttpServerRequest implements HttpServerRequest {
+
+    private final HttpMethod method;
+
+    private final String path;
+
+    private final MultiMap headers = new CaseInsensitiveHeaders();
+
+    private final MultiMap params = new CaseInsensitiveHeaders();
+
+    private final StubHttpServerResponse response = new StubHttpServerResponse();
+
+    public StubHttpServerRequest(HttpMethod method, String path) {
+        this.method = method;
+        this.path = path;
+    }
+
+    public StubHttpServerRequest putHeader(String name, String value) {
+        headers.set(name, value);
+        return this;
+    }
+
+    /**
+     * clears the response and the parameters added by the router, so the request can be dispatched again.
+     */
+    public StubHttpServerRequest reset() {
+        params.clear();
+        response.reset();
+        return this;
+    }
+
+    @Override
+    public HttpServerRequest exceptionHandler(Handler<Throwable> handler) {
+        return this;
+    }
+
+    @Override
+    public HttpServerRequest handler(Handler<Buffer> handler) {
+        return this;
+    }
+
+    @Override
+    public HttpServerRequest pause() {
+        return this;
+    }
+
+    @Override
+    public HttpServerRequest resume() {
+        return this;
+    }
+
+    @Override
+    public HttpServerRequest endHandler(Handler<Void> endHandler) {
+        return this;
+    }
+
+    @Override
+    public HttpVersion version() {
+        return HttpVersion.HTTP_1_1;
+    }
+
+    @Override
+    public HttpMethod method() {
+        return method;
+    }
+
+    @Override
+    public boolean isSSL() {
+        return false;
+    }
+
+    @Override
+    public String uri() {
+        return path;
+    }
+
+    @Override
+    public String path() {
+        return path;
+    }
+
+    @Override
+    public String query() {
+        return null;
+    }
+
+    @Override
+    public StubHttpServerResponse response() {
+        return response;
+    }
+
+    @Override
+    public MultiMap headers() {
+        return headers;
+    }
+
+    @Override
+    public String getHeader(String headerName) {
+        return headers.get(headerName);
+    }
+
+    @Override
+    public String getHeader(CharSequence headerName) {
+        return headers.get(headerName);
+    }
+
+    @Override
+    public MultiMap params() {
+        return params;
+    }
+
+    @Override
+    public String getParam(String paramName) {
+        return params.get(paramName);
+    }
+
+    @Override
+    public SocketAddress remoteAddress() {
+        return null;
+    }
+
+    @Override
+    public SocketAddress localAddress() {
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("removal")
+    public javax.security.cert.X509Certificate[] peerCertificateChain() throws SSLPeerUnverifiedException {
+        return null;
+    }
+
+    @Override
+    public String absoluteURI() {
+        return "http://localhost" + path;
+    }
+
+    @Override
+    public HttpServerRequest bodyHandler(Handler<Buffer> bodyHandler) {
+        return this;
+    }
+
+    @Override
+    public NetSocket netSocket() {
+        return null;
+    }
+
+    @Override
+    public HttpServerRequest setExpectMultipart(boolean expect) {
+        return this;
+    }
+
+    @Override
+    public boolean isExpectMultipart() {
+        return false;
+    }
+
+    @Override
+    public HttpServerRequest uploadHandler(Handler<HttpServerFileUpload> uploadHandler) {
+        return this;
+    }
+
+    @Override
+    public MultiMap formAttributes() {
+        return null;
+    }
+
+    @Override
+    public String getFormAttribute(String attributeName) {
+        return null;
+    }
+
+    @Override
+    public ServerWebSocket upgrade() {
+        return null;
+    }
+
+    @Override
+    public boolean isEnded() {
+        return true;
+    }
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.benchmark;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.CaseInsensitiveHeaders;
+import io.vertx.core.http.HttpServerResponse;
+
+/**
+ * Response without a connection, it only records the status, headers and body size.
+ */
+public class StubHttpServerResponse implements HttpServerResponse {
+
+    private final MultiMap headers = new CaseInsensitiveHeaders();
+
+    private final MultiMap trailers = new CaseInsensitiveHeaders();
+
+    private int statusCode = 200;
+
+    private String statusMessage;
+
+    private boolean chunked;
+
+    private boolean ended;
+
+    private long bytesWritten;
+
+    private Handler<Void> headersEndHandler;
+
+    private Handler<Void> bodyEndHandler;
+
+    public void reset() {
+        headers.clear();
+        trailers.clear();
+        statusCode = 200;
+        statusMessage = null;
+        chunked = false;
+        ended = false;
+        bytesWritten = 0;
+        headersEndHandler = null;
+        bodyEndHandler = null;
+    }
+
+    @Override
+    public HttpServerResponse exceptionHandler(Handler<Throwable> handler) {
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse write(Buffer data) {
+        bytesWritten += data.length();
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse setWriteQueueMaxSize(int maxSize) {
+        return this;
+    }
+
+    @Override
+    public boolean writeQueueFull() {
+        return false;
+    }
+
+    @Override
+    public HttpServerResponse drainHandler(Handler<Void> handler) {
+        return this;
+    }
+
+    @Override
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public HttpServerResponse setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+        return this;
+    }
+
+    @Override
+    public String getStatusMessage() {
+        return statusMessage;
+    }
+
+    @Override
+    public HttpServerResponse setStatusMessage(String statusMessage) {
+        this.statusMessage = statusMessage;
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse setChunked(boolean chunked) {
+        this.chunked = chunked;
+        return this;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return chunked;
+    }
+
+    @Override
+    public MultiMap headers() {
+        return headers;
+    }
+
+    @Override
+    public HttpServerResponse putHeader(String name, String value) {
+        headers.set(name, value);
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse putHeader(CharSequence name, CharSequence value) {
+        headers.set(name, value);
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse putHeader(String name, Iterable<String> values) {
+        headers.set(name, values);
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse putHeader(CharSequence name, Iterable<CharSequence> values) {
+        headers.set(name, values);
+        return this;
+    }
+
+    @Override
+    public MultiMap trailers() {
+        return trailers;
+    }
+
+    @Override
+    public HttpServerResponse putTrailer(String name, String value) {
+        trailers.set(name, value);
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse putTrailer(CharSequence name, CharSequence value) {
+        trailers.set(name, value);
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse putTrailer(String name, Iterable<String> values) {
+        trailers.set(name, values);
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse putTrailer(CharSequence name, Iterable<CharSequence> value) {
+        trailers.set(name, value);
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse closeHandler(Handler<Void> handler) {
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse write(String chunk, String enc) {
+        return write(Buffer.buffer(chunk, enc));
+    }
+
+    @Override
+    public HttpServerResponse write(String chunk) {
+        return write(Buffer.buffer(chunk));
+    }
+
+    @Override
+    public HttpServerResponse writeContinue() {
+        return this;
+    }
+
+    @Override
+    public void end(String chunk) {
+        end(Buffer.buffer(chunk));
+    }
+
+    @Override
+    public void end(String chunk, String enc) {
+        end(Buffer.buffer(chunk, enc));
+    }
+
+    @Override
+    public void end(Buffer chunk) {
+        write(chunk);
+        end();
+    }
+
+    @Override
+    public void end() {
+        if (headersEndHandler != null) {
+            headersEndHandler.handle(null);
+        }
+        ended = true;
+        if (bodyEndHandler != null) {
+            bodyEndHandler.handle(null);
+        }
+    }
+
+    @Override
+    public HttpServerResponse sendFile(String filename, long offset, long length) {
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse sendFile(String filename, long offset, long length,
+            Handler<AsyncResult<Void>> resultHandler) {
+        return this;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public boolean ended() {
+        return ended;
+    }
+
+    @Override
+    public boolean closed() {
+        return false;
+    }
+
+    @Override
+    public boolean headWritten() {
+        return ended;
+    }
+
+    @Override
+    public HttpServerResponse headersEndHandler(Handler<Void> handler) {
+        this.headersEndHandler = handler;
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse bodyEndHandler(Handler<Void> handler) {
+        this.bodyEndHandler = handler;
+        return this;
+    }
+
+    @Override
+    public long bytesWritten() {
+        return bytesWritten;
+    }
+
+}
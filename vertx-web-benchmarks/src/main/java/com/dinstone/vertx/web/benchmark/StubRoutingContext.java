@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.benchmark;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.auth.User;
+import io.vertx.ext.web.Cookie;
+import io.vertx.ext.web.FileUpload;
+import io.vertx.ext.web.Locale;
+import io.vertx.ext.web.Route;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.Session;
+
+/**
+ * Routing context without a connection, for measuring the handler alone.
+ */
+public class StubRoutingContext implements RoutingContext {
+
+    private final Map<String, Object> data = new HashMap<>();
+
+    private String acceptableContentType;
+
+    private int failure;
+
+    @Override
+    public HttpServerRequest request() {
+        return null;
+    }
+
+    @Override
+    public HttpServerResponse response() {
+        return null;
+    }
+
+    @Override
+    public void next() {
+    }
+
+    @Override
+    public void fail(int statusCode) {
+        failure = statusCode;
+    }
+
+    @Override
+    public void fail(Throwable throwable) {
+        failure = 500;
+    }
+
+    @Override
+    public RoutingContext put(String key, Object obj) {
+        data.put(key, obj);
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(String key) {
+        return (T) data.get(key);
+    }
+
+    @Override
+    public Map<String, Object> data() {
+        return data;
+    }
+
+    @Override
+    public Vertx vertx() {
+        return null;
+    }
+
+    @Override
+    public String mountPoint() {
+        return null;
+    }
+
+    @Override
+    public Route currentRoute() {
+        return null;
+    }
+
+    @Override
+    public String normalisedPath() {
+        return null;
+    }
+
+    @Override
+    public Cookie getCookie(String name) {
+        return null;
+    }
+
+    @Override
+    public RoutingContext addCookie(Cookie cookie) {
+        return this;
+    }
+
+    @Override
+    public Cookie removeCookie(String name) {
+        return null;
+    }
+
+    @Override
+    public int cookieCount() {
+        return 0;
+    }
+
+    @Override
+    public Set<Cookie> cookies() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public String getBodyAsString() {
+        return null;
+    }
+
+    @Override
+    public String getBodyAsString(String encoding) {
+        return null;
+    }
+
+    @Override
+    public JsonObject getBodyAsJson() {
+        return null;
+    }
+
+    @Override
+    public JsonArray getBodyAsJsonArray() {
+        return null;
+    }
+
+    @Override
+    public Buffer getBody() {
+        return null;
+    }
+
+    @Override
+    public Set<FileUpload> fileUploads() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Session session() {
+        return null;
+    }
+
+    @Override
+    public User user() {
+        return null;
+    }
+
+    @Override
+    public Throwable failure() {
+        return null;
+    }
+
+    @Override
+    public int statusCode() {
+        return failure == 0 ? -1 : failure;
+    }
+
+    @Override
+    public String getAcceptableContentType() {
+        return acceptableContentType;
+    }
+
+    @Override
+    public int addHeadersEndHandler(Handler<Void> handler) {
+        return 0;
+    }
+
+    @Override
+    public boolean removeHeadersEndHandler(int handlerID) {
+        return false;
+    }
+
+    @Override
+    public int addBodyEndHandler(Handler<Void> handler) {
+        return 0;
+    }
+
+    @Override
+    public boolean removeBodyEndHandler(int handlerID) {
+        return false;
+    }
+
+    @Override
+    public boolean failed() {
+        return failure != 0;
+    }
+
+    @Override
+    public void setBody(Buffer body) {
+    }
+
+    @Override
+    public void setSession(Session session) {
+    }
+
+    @Override
+    public void setUser(User user) {
+    }
+
+    @Override
+    public void clearUser() {
+    }
+
+    @Override
+    public void setAcceptableContentType(String contentType) {
+        this.acceptableContentType = contentType;
+    }
+
+    @Override
+    public void reroute(HttpMethod method, String path) {
+    }
+
+    @Override
+    public List<Locale> acceptableLocales() {
+        return Collections.emptyList();
+    }
+
+}
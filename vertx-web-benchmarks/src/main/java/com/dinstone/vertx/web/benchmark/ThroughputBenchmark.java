@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.benchmark;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dinstone.vertx.web.RouterBuilder;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpServer;
+import io.vertx.ext.web.Router;
+
+/**
+ * End to end requests through a local HTTP server, an annotated route against a hand written one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ThroughputBenchmark {
+
+    private static final int PORT = 8082;
+
+    private Vertx vertx;
+
+    private HttpServer server;
+
+    private HttpClient client;
+
+    @Setup
+    public void setup() throws Exception {
+        vertx = Vertx.vertx();
+        Router router = RouterBuilder.create(vertx).handler(new HelloResource()).build();
+        router.get("/direct/g").handler(ctx -> ctx.response().end("Hello ws!"));
+
+        CountDownLatch latch = new CountDownLatch(1);
+        server = vertx.createHttpServer().requestHandler(router::accept).listen(PORT, ar -> latch.countDown());
+        latch.await();
+
+        client = vertx.createHttpClient(new HttpClientOptions().setKeepAlive(true).setMaxPoolSize(16));
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.close();
+        vertx.close();
+    }
+
+    @Benchmark
+    public int annotated() throws Exception {
+        return get("/hello/g");
+    }
+
+    @Benchmark
+    public int direct() throws Exception {
+        return get("/direct/g");
+    }
+
+    private int get(String uri) throws Exception {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        client.get(PORT, "localhost", uri, res -> res.bodyHandler(body -> future.complete(body.length())))
+            .exceptionHandler(future::completeExceptionally).end();
+        return future.get();
+    }
+
+}
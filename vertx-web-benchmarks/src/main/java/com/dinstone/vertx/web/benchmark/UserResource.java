@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.benchmark;
+
+import com.dinstone.vertx.web.annotation.Delete;
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.Head;
+import com.dinstone.vertx.web.annotation.Patch;
+import com.dinstone.vertx.web.annotation.Path;
+import com.dinstone.vertx.web.annotation.Post;
+import com.dinstone.vertx.web.annotation.Put;
+
+import io.vertx.ext.web.RoutingContext;
+
+@Path("/user")
+public class UserResource {
+
+    @Get("")
+    public void list(RoutingContext ctx) {
+        ctx.response().end();
+    }
+
+    @Get("/:id")
+    public void item(RoutingContext ctx) {
+        ctx.response().end();
+    }
+
+    @Get("/:id/items")
+    public void items(RoutingContext ctx) {
+        ctx.response().end();
+    }
+
+    @Post("")
+    public void create(RoutingContext ctx) {
+        ctx.response().end();
+    }
+
+    @Put("/:id")
+    public void update(RoutingContext ctx) {
+        ctx.response().end();
+    }
+
+    @Delete("/:id")
+    public void delete(RoutingContext ctx) {
+        ctx.response().end();
+    }
+
+    @Patch("/:id")
+    public void patch(RoutingContext ctx) {
+        ctx.response().end();
+    }
+
+    @Head("/:id")
+    public void head(RoutingContext ctx) {
+        ctx.response().end();
+    }
+
+}
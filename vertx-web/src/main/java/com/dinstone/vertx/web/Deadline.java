@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web;
+
+import java.util.concurrent.TimeUnit;
+
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * The time left to a {@link com.dinstone.vertx.web.annotation.Timeout} route to end its response, to bound the calls
+ * it makes. Resource methods get it as a parameter, or from the routing context.
+ */
+public final class Deadline {
+
+    private static final String KEY = Deadline.class.getName();
+
+    private final long expiresAt;
+
+    private Deadline(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public static Deadline after(long duration, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * The deadline of the request, null if its route has no timeout.
+     */
+    public static Deadline of(RoutingContext ctx) {
+        return ctx.get(KEY);
+    }
+
+    /**
+     * Sets the deadline of the request.
+     */
+    public static void set(RoutingContext ctx, Deadline deadline) {
+        ctx.put(KEY, deadline);
+    }
+
+    /**
+     * The time left in the unit, 0 once expired.
+     */
+    public long remaining(TimeUnit unit) {
+        return unit.convert(Math.max(0, expiresAt - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    public long remainingMillis() {
+        return remaining(TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isExpired() {
+        return expiresAt - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[" + remainingMillis() + "ms]";
+    }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import com.dinstone.vertx.web.annotation.handler.AnnotationRouteResolver;
+import com.dinstone.vertx.web.codec.BodyCodec;
+import com.dinstone.vertx.web.eventbus.BusCodecs;
+import com.dinstone.vertx.web.eventbus.BusRequest;
+import com.dinstone.vertx.web.eventbus.BusResponse;
+import com.dinstone.vertx.web.router.LocalRequest;
+import com.dinstone.vertx.web.router.LocalResponse;
+import com.dinstone.vertx.web.router.RouteDefinition;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+
+/**
+ * Exposes annotated resource classes over the event bus: every route gets a consumer at
+ * {@link #address(HttpMethod, String)}, taking a {@link BusRequest} and replying a {@link BusResponse}. Requests are
+ * dispatched in memory through a router built from the same resources, so parameters are bound and results written
+ * as they are for HTTP; in the same JVM messages are passed without copy.
+ */
+public interface EventBusBinder {
+
+    class DefaultEventBusBinder implements EventBusBinder {
+
+        private final Vertx vertx;
+
+        private final RouterBuilder builder;
+
+        private final List<Class<?>> types = new ArrayList<>();
+
+        private final List<MessageConsumer<BusRequest>> consumers = new ArrayList<>();
+
+        public DefaultEventBusBinder(Vertx vertx) {
+            this.vertx = vertx;
+            this.builder = RouterBuilder.create(vertx);
+        }
+
+        @Override
+        public synchronized EventBusBinder handler(Object handler) {
+            if (handler != null) {
+                builder.handler(handler);
+                types.add(handler.getClass());
+            }
+            return this;
+        }
+
+        @Override
+        public synchronized <T> EventBusBinder handler(Class<T> type) {
+            builder.handler(type);
+            types.add(type);
+            return this;
+        }
+
+        @Override
+        public synchronized <T> EventBusBinder handler(Class<T> type, Supplier<? extends T> factory) {
+            builder.handler(type, factory);
+            types.add(type);
+            return this;
+        }
+
+        @Override
+        public EventBusBinder codec(BodyCodec codec) {
+            builder.codec(codec);
+            return this;
+        }
+
+        @Override
+        public synchronized List<MessageConsumer<BusRequest>> bind() {
+            Router router = builder.build();
+            BusCodecs.register(vertx.eventBus());
+
+            Set<String> addresses = new LinkedHashSet<>();
+            for (Class<?> type : types) {
+                for (RouteDefinition route : AnnotationRouteResolver.routes(type)) {
+                    String address = address(route.method(), route.path());
+                    if (addresses.add(address)) {
+                        consumers.add(vertx.eventBus().consumer(address, message -> dispatch(router, route, message)));
+                    }
+                }
+            }
+            return new ArrayList<>(consumers);
+        }
+
+        @Override
+        public synchronized void unbind() {
+            for (MessageConsumer<BusRequest> consumer : consumers) {
+                consumer.unregister();
+            }
+            consumers.clear();
+        }
+
+        private void dispatch(Router router, RouteDefinition route, Message<BusRequest> message) {
+            BusRequest request = message.body();
+            MultiMap headers = MultiMap.caseInsensitiveMultiMap().addAll(request.headers());
+            Buffer body = request.body();
+            if (body.length() > 0) {
+                headers.set(HttpHeaders.CONTENT_LENGTH, Integer.toString(body.length()));
+                String[] consumes = route.consumes();
+                if (!headers.contains(HttpHeaders.CONTENT_TYPE) && consumes != null && consumes.length > 0) {
+                    headers.set(HttpHeaders.CONTENT_TYPE, route.consumes()[0]);
+                }
+            }
+
+            LocalResponse response = new LocalResponse(vertx,
+                r -> message.reply(new BusResponse(r.getStatusCode(), r.headers(), r.body())));
+            router.accept(new LocalRequest(null, vertx.getOrCreateContext(), method(route, body),
+                uri(route.path(), request.params()), headers, body, response));
+        }
+
+        /**
+         * The method of the route, or for a route taking any method POST if the request has a body and GET otherwise.
+         */
+        private static HttpMethod method(RouteDefinition route, Buffer body) {
+            if (route.method() != null) {
+                return route.method();
+            }
+            return body.length() > 0 ? HttpMethod.POST : HttpMethod.GET;
+        }
+
+        /**
+         * Fills the {@code :param} segments of the template, and appends the other parameters as the query.
+         */
+        private static String uri(String template, MultiMap params) {
+            StringBuilder uri = new StringBuilder(template.length() + 16);
+            Set<String> used = new LinkedHashSet<>();
+            String[] segments = template.split("/", -1);
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (i > 0) {
+                    uri.append('/');
+                }
+                String value = segment.startsWith(":") ? params.get(segment.substring(1)) : null;
+                if (value != null) {
+                    used.add(segment.substring(1));
+                    uri.append(encode(value));
+                } else {
+                    uri.append(segment);
+                }
+            }
+
+            char separator = '?';
+            for (String name : params.names()) {
+                if (used.contains(name)) {
+                    continue;
+                }
+                for (String value : params.getAll(name)) {
+                    uri.append(separator).append(encode(name)).append('=').append(encode(value));
+                    separator = '&';
+                }
+            }
+            return uri.toString();
+        }
+
+        private static String encode(String value) {
+            try {
+                return URLEncoder.encode(value, "UTF-8").replace("+", "%20");
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    public static EventBusBinder create(Vertx vertx) {
+        return new DefaultEventBusBinder(vertx);
+    }
+
+    /**
+     * The address of a route: the HTTP method and the path template, as in {@code GET /users/:id}, or {@code *} for a
+     * route taking any method, as in {@code * /users/:id}.
+     */
+    public static String address(HttpMethod method, String path) {
+        return (method == null ? "*" : method.name()) + " " + path;
+    }
+
+    public EventBusBinder handler(Object handler);
+
+    /**
+     * Adds a resource class created with its public no-arg constructor, see {@link #handler(Class, Supplier)}.
+     */
+    public <T> EventBusBinder handler(Class<T> type);
+
+    /**
+     * Adds a resource class with instances created by the factory as its {@link com.dinstone.vertx.web.annotation.Scope}
+     * requires, see {@link RouterBuilder#handler(Class, Supplier)}.
+     */
+    public <T> EventBusBinder handler(Class<T> type, Supplier<? extends T> factory);
+
+    public EventBusBinder codec(BodyCodec codec);
+
+    /**
+     * Registers the consumers of the routes of the resources, and the codecs of the messages.
+     */
+    public List<MessageConsumer<BusRequest>> bind();
+
+    public void unbind();
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web;
+
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+import com.dinstone.vertx.web.annotation.Scope;
+
+/**
+ * Supplies the resource instance serving a request, according to the {@link Scope} of the resource class.
+ */
+public interface ResourceProvider {
+
+    class SingletonProvider implements ResourceProvider {
+
+        private final Object instance;
+
+        public SingletonProvider(Object instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public Class<?> type() {
+            return instance.getClass();
+        }
+
+        @Override
+        public Scope.Type scope() {
+            return Scope.Type.SINGLETON;
+        }
+
+        @Override
+        public Object acquire() {
+            return instance;
+        }
+
+        @Override
+        public void release(Object instance) {
+        }
+    }
+
+    class ThreadLocalProvider implements ResourceProvider {
+
+        private final Class<?> type;
+
+        private final ThreadLocal<Object> instances;
+
+        public ThreadLocalProvider(Class<?> type, Supplier<?> factory) {
+            this.type = type;
+            this.instances = ThreadLocal.withInitial(factory);
+        }
+
+        @Override
+        public Class<?> type() {
+            return type;
+        }
+
+        @Override
+        public Scope.Type scope() {
+            return Scope.Type.PER_EVENT_LOOP;
+        }
+
+        @Override
+        public Object acquire() {
+            return instances.get();
+        }
+
+        @Override
+        public void release(Object instance) {
+        }
+    }
+
+    class PooledProvider implements ResourceProvider {
+
+        private final Class<?> type;
+
+        private final Supplier<?> factory;
+
+        private final int poolSize;
+
+        private final ThreadLocal<ArrayDeque<Object>> pools = ThreadLocal.withInitial(ArrayDeque::new);
+
+        public PooledProvider(Class<?> type, Supplier<?> factory, int poolSize) {
+            this.type = type;
+            this.factory = factory;
+            this.poolSize = poolSize;
+        }
+
+        @Override
+        public Class<?> type() {
+            return type;
+        }
+
+        @Override
+        public Scope.Type scope() {
+            return Scope.Type.POOLED;
+        }
+
+        @Override
+        public Object acquire() {
+            Object instance = pools.get().pollFirst();
+            return instance != null ? instance : factory.get();
+        }
+
+        /**
+         * Resets the instance and keeps it in the pool of the calling thread, unless the pool is full or the reset
+         * failed.
+         */
+        @Override
+        public void release(Object instance) {
+            if (instance instanceof Resettable) {
+                try {
+                    ((Resettable) instance).reset();
+                } catch (RuntimeException e) {
+                    return;
+                }
+            }
+            ArrayDeque<Object> pool = pools.get();
+            if (pool.size() < poolSize) {
+                pool.addFirst(instance);
+            }
+        }
+    }
+
+    public static ResourceProvider singleton(Object instance) {
+        return new SingletonProvider(instance);
+    }
+
+    /**
+     * Creates a provider calling the factory as the {@link Scope} of the type requires, once for singletons.
+     */
+    public static ResourceProvider create(Class<?> type, Supplier<?> factory) {
+        Scope scope = type.getAnnotation(Scope.class);
+        Scope.Type scopeType = scope == null ? Scope.Type.SINGLETON : scope.value();
+        switch (scopeType) {
+        case PER_EVENT_LOOP:
+            return new ThreadLocalProvider(type, factory);
+        case POOLED:
+            return new PooledProvider(type, factory, scope.poolSize());
+        default:
+            return singleton(factory.get());
+        }
+    }
+
+    /**
+     * The resource class, whose annotations define the routes.
+     */
+    public Class<?> type();
+
+    public Scope.Type scope();
+
+    /**
+     * Returns the instance serving a request, called on the thread running the resource method.
+     */
+    public Object acquire();
+
+    /**
+     * Gives back an instance once the response is written, possibly on another thread than the one acquiring it.
+     */
+    public void release(Object instance);
+
+}
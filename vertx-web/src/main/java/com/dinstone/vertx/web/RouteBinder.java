@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web;
+
+import com.dinstone.vertx.web.annotation.handler.ContentNegotiator;
+import com.dinstone.vertx.web.codec.CodecRegistry;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Binds the annotated routes of one resource class without reflection. Implementations are generated at compile time
+ * by {@link com.dinstone.vertx.web.annotation.processor.RouteBinderProcessor} and picked up by {@link RouterBuilder}.
+ */
+public interface RouteBinder<T> {
+
+    String SUFFIX = "_RouteBinder";
+
+    /**
+     * Binds the routes of the instance, results are encoded by the codecs of the registry the route negotiates.
+     */
+    void bind(Router router, T instance, RouteDecorator decorator, CodecRegistry codecs);
+
+    default void bind(Router router, T instance, RouteDecorator decorator) {
+        bind(router, instance, decorator, CodecRegistry.create());
+    }
+
+    public static String binderName(Class<?> clazz) {
+        String name = clazz.getName();
+        int index = name.lastIndexOf('.');
+        String prefix = index < 0 ? "" : name.substring(0, index + 1);
+        return prefix + name.substring(index + 1).replace('$', '_') + SUFFIX;
+    }
+
+    /**
+     * Registers a generated route handler, a null method matches any HTTP method.
+     */
+    public static void route(Router router, RouteDecorator decorator, HttpMethod method, String path,
+            Handler<RoutingContext> handler) {
+        route(router, decorator, method, path, null, null, handler);
+    }
+
+    /**
+     * Registers a generated route handler serving the produces and consumes media types, either may be null.
+     */
+    public static void route(Router router, RouteDecorator decorator, HttpMethod method, String path,
+            String[] produces, String[] consumes, Handler<RoutingContext> handler) {
+        if (decorator != null) {
+            handler = decorator.decorate(method, path, handler);
+        }
+        RouteRegistrar.register(router, decorator, method, path, ContentNegotiator.wrap(produces, consumes, handler));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> RouteBinder<T> lookup(Class<T> clazz) {
+        try {
+            Class<?> binderClass = Class.forName(binderName(clazz), true, clazz.getClassLoader());
+            if (RouteBinder.class.isAssignableFrom(binderClass)) {
+                return (RouteBinder<T>) binderClass.newInstance();
+            }
+        } catch (ClassNotFoundException | LinkageError e) {
+            // no generated binder, fall back to the resolvers
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+        return null;
+    }
+
+}
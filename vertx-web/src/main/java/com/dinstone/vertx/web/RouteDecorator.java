@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Wraps the handler of every annotated route once, when the route is registered.
+ */
+@FunctionalInterface
+public interface RouteDecorator {
+
+    /**
+     * @param method
+     *            the HTTP method of the route, null if the route matches any method
+     * @param path
+     *            the route path template, composed from the class and method {@code @Path}
+     * @param handler
+     *            the route handler
+     * @return the handler to register
+     */
+    Handler<RoutingContext> decorate(HttpMethod method, String path, Handler<RoutingContext> handler);
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web;
+
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Cross-cutting work applied to the routes of the resources naming it in a
+ * {@link com.dinstone.vertx.web.annotation.Filter}. The filters of a route are composed with its handler once, when
+ * the route is bound; a route only calls the hooks its filters override.
+ */
+public interface RouteFilter {
+
+    /**
+     * Called before the resource method, on the event loop.
+     *
+     * @return true to go on, false to stop the request, the filter having ended the response or failed the context
+     */
+    default boolean before(RoutingContext ctx) {
+        return true;
+    }
+
+    /**
+     * Called right before the response headers are written, to add headers or record the outcome.
+     */
+    default void after(RoutingContext ctx) {
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web;
+
+import com.dinstone.vertx.web.router.RouteDefinition;
+
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Hooks around the requests of every annotated route bound reflectively. {@link #begin} is called first, when the
+ * request enters the route before its body is read, and decides whether the interceptor follows the request: the
+ * other hooks are only called with the state it returns, a request no interceptor follows costs a map lookup.
+ *
+ * @param <S>
+ *            the state of a followed request
+ */
+public interface RouteInterceptor<S> {
+
+    /**
+     * @return the state of the request, null to leave it alone
+     */
+    S begin(RoutingContext ctx, RouteDefinition route);
+
+    /**
+     * Called right before the resource method is invoked, with its arguments bound.
+     */
+    default void before(RoutingContext ctx, S state) {
+    }
+
+    /**
+     * Called once the result of the method is available, after a {@code Future} or {@code CompletionStage} result
+     * completes.
+     */
+    default void after(RoutingContext ctx, S state, Object result) {
+    }
+
+    /**
+     * Called if the method throws or its asynchronous result fails.
+     */
+    default void onError(RoutingContext ctx, S state, Throwable error) {
+    }
+
+    /**
+     * Called once the response ends, or its connection closes before.
+     */
+    default void onEnd(RoutingContext ctx, S state) {
+    }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * A {@link RouteDecorator} that also takes over the registration of the annotated route handlers, like the
+ * {@link RouterBuilder} compiling them into one {@link com.dinstone.vertx.web.router.RouteTree}.
+ */
+public interface RouteRegistrar extends RouteDecorator {
+
+    /**
+     * Registers a route handler, already decorated, a null method matches any HTTP method.
+     */
+    void register(HttpMethod method, String path, Handler<RoutingContext> handler);
+
+    /**
+     * Registers the handler with the decorator if it is a registrar, otherwise as a route of the router.
+     */
+    public static void register(Router router, RouteDecorator decorator, HttpMethod method, String path,
+            Handler<RoutingContext> handler) {
+        if (decorator instanceof RouteRegistrar) {
+            ((RouteRegistrar) decorator).register(method, path, handler);
+        } else if (method == null) {
+            router.route(path).handler(handler);
+        } else {
+            router.route(method, path).handler(handler);
+        }
+    }
+
+}
@@ -19,36 +19,110 @@ package com.dinstone.vertx.web;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
+import com.dinstone.vertx.web.annotation.Scope;
 import com.dinstone.vertx.web.annotation.handler.AnnotationRouteResolver;
+import com.dinstone.vertx.web.batch.BatchHandler;
+import com.dinstone.vertx.web.codec.BodyCodec;
+import com.dinstone.vertx.web.codec.CodecRegistry;
+import com.dinstone.vertx.web.metrics.RouteMetrics;
+import com.dinstone.vertx.web.router.RouteDefinition;
+import com.dinstone.vertx.web.router.RouteTable;
+import com.dinstone.vertx.web.router.RouteTree;
+import com.dinstone.vertx.web.router.RouteTreeHandler;
 
+import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
 import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.BodyHandler;
 
 public interface RouterBuilder {
 
     class DefaultRouterBuilder implements RouterBuilder {
 
-        private final List<Object> services = new ArrayList<>();
+        private final List<ResourceProvider> services = new ArrayList<>();
 
         private final List<RouteResolver> resolvers = new ArrayList<>();
 
+        private final List<RouteDecorator> decorators = new ArrayList<>();
+
+        private final RouteRegistrar decorator = new RouteRegistrar() {
+
+            @Override
+            public Handler<RoutingContext> decorate(HttpMethod method, String path, Handler<RoutingContext> handler) {
+                return DefaultRouterBuilder.this.decorate(method, path, handler);
+            }
+
+            @Override
+            public void register(HttpMethod method, String path, Handler<RoutingContext> handler) {
+                DefaultRouterBuilder.this.register(method, path, handler);
+            }
+        };
+
+        private final CodecRegistry codecs = CodecRegistry.create();
+
+        private final AnnotationRouteResolver annotations = new AnnotationRouteResolver(decorator, codecs);
+
         private Router router;
 
+        private RouteMetrics metrics;
+
+        private String metricsPath;
+
+        private String batchPath;
+
+        private boolean intercepted;
+
+        private RouteTree.Builder tree;
+
+        private RouteTreeHandler treeHandler;
+
+        private RouteTable cached;
+
+        private RouteTable table;
+
         public DefaultRouterBuilder(Vertx vertx) {
             router = Router.router(vertx);
-            resolver(new AnnotationRouteResolver());
+            resolver(annotations);
         }
 
         @Override
-        public RouterBuilder handler(Object service) {
+        public synchronized RouterBuilder handler(Object service) {
             if (service != null) {
-                services.add(service);
+                services.add(ResourceProvider.singleton(service));
             }
 
             return this;
         }
 
+        @Override
+        public <T> RouterBuilder handler(Class<T> type) {
+            return handler(type, () -> {
+                try {
+                    return type.newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("can't create an instance of " + type.getName(), e);
+                }
+            });
+        }
+
+        @Override
+        public synchronized <T> RouterBuilder handler(Class<T> type, Supplier<? extends T> factory) {
+            services.add(ResourceProvider.create(type, factory));
+            return this;
+        }
+
+        @Override
+        public synchronized RouterBuilder remove(Object service) {
+            services.removeIf(provider -> provider.scope() == Scope.Type.SINGLETON
+                    ? provider.acquire() == service || provider.type() == service
+                    : provider.type() == service);
+            return this;
+        }
+
         @Override
         public RouterBuilder resolver(RouteResolver resolver) {
             if (resolver != null) {
@@ -58,19 +132,174 @@ public interface RouterBuilder {
         }
 
         @Override
-        public Router build() {
-            for (Object service : services) {
-                process(router, service);
+        public RouterBuilder decorator(RouteDecorator decorator) {
+            if (decorator != null) {
+                this.decorators.add(decorator);
+            }
+            return this;
+        }
+
+        @Override
+        public synchronized RouterBuilder interceptor(RouteInterceptor<?> interceptor) {
+            if (interceptor != null) {
+                annotations.interceptor(interceptor);
+                intercepted = true;
+            }
+            return this;
+        }
+
+        @Override
+        public RouterBuilder filter(RouteFilter filter) {
+            if (filter != null) {
+                annotations.filter(filter);
+            }
+            return this;
+        }
+
+        @Override
+        public RouterBuilder codec(BodyCodec codec) {
+            if (codec != null) {
+                codecs.register(codec);
+            }
+            return this;
+        }
+
+        @Override
+        public RouterBuilder metrics(RouteMetrics metrics) {
+            return metrics(metrics, null);
+        }
+
+        @Override
+        public RouterBuilder metrics(RouteMetrics metrics, String path) {
+            if (metrics != null) {
+                decorator(metrics);
+                this.metrics = metrics;
+                this.metricsPath = path;
+            }
+            return this;
+        }
+
+        @Override
+        public RouterBuilder batch(String path) {
+            this.batchPath = path;
+            return this;
+        }
+
+        @Override
+        public RouterBuilder radix(boolean enabled) {
+            tree = enabled ? RouteTree.builder() : null;
+            return this;
+        }
+
+        @Override
+        public RouterBuilder routeTable(RouteTable table) {
+            this.cached = table;
+            return this;
+        }
+
+        @Override
+        public RouteTable routeTable() {
+            return table;
+        }
+
+        @Override
+        public synchronized Router build() {
+            table = process(true);
+
+            if (tree != null) {
+                treeHandler = new RouteTreeHandler(tree.build());
+                router.route().handler(treeHandler);
+            }
+
+            if (metricsPath != null) {
+                router.get(metricsPath).handler(metrics.handler());
+            }
+
+            if (batchPath != null) {
+                BatchHandler batch = new BatchHandler(router, batchPath);
+                router.post(batchPath).handler(BodyHandler.create().setBodyLimit(batch.bodyLimit()));
+                router.post(batchPath).handler(batch);
             }
 
             return router;
         }
 
-        private void process(Router router, Object service) {
-            final Class<?> clazz = service.getClass();
+        @Override
+        public synchronized RouteTable refresh() {
+            if (treeHandler == null) {
+                throw new IllegalStateException("refresh needs a router built with radix(true)");
+            }
+
+            tree = RouteTree.builder();
+            RouteTable table = process(false);
+            treeHandler.swap(tree.build());
+            this.table = table;
+            return table;
+        }
+
+        private Handler<RoutingContext> decorate(HttpMethod method, String path, Handler<RoutingContext> handler) {
+            for (RouteDecorator decorator : decorators) {
+                handler = decorator.decorate(method, path, handler);
+            }
+            return handler;
+        }
+
+        private void register(HttpMethod method, String path, Handler<RoutingContext> handler) {
+            if (tree != null) {
+                tree.add(method, path, handler);
+            } else if (method == null) {
+                router.route(path).handler(handler);
+            } else {
+                router.route(method, path).handler(handler);
+            }
+        }
+
+        private RouteTable process(boolean scan) {
+            List<RouteDefinition> routes = new ArrayList<>();
+            for (ResourceProvider service : services) {
+                process(service, routes, scan);
+            }
+            return new RouteTable(routes);
+        }
+
+        private void process(ResourceProvider service, List<RouteDefinition> routes, boolean scan) {
+            final Class<?> clazz = service.type();
+            final boolean singleton = service.scope() == Scope.Type.SINGLETON;
+
+            @SuppressWarnings("unchecked")
+            RouteBinder<Object> binder = singleton && !intercepted ? (RouteBinder<Object>) RouteBinder.lookup(clazz)
+                    : null;
+            if (binder != null) {
+                binder.bind(router, service.acquire(), decorator, codecs);
+            } else {
+                List<RouteDefinition> resolved = cached == null ? null : cached.routes(clazz);
+                if (resolved == null) {
+                    resolved = annotations.resolve(clazz);
+                }
+                for (RouteDefinition route : resolved) {
+                    annotations.bind(router, service, route);
+                }
+                routes.addAll(resolved);
+            }
+
+            // custom resolvers register on the router itself, once
+            if (!scan) {
+                return;
+            }
+            List<RouteResolver> scanners = new ArrayList<>();
+            for (RouteResolver resolver : resolvers) {
+                if (!(resolver instanceof AnnotationRouteResolver)) {
+                    scanners.add(resolver);
+                }
+            }
+            if (scanners.isEmpty()) {
+                return;
+            }
+
+            Object instance = service.acquire();
             for (final Method method : clazz.getMethods()) {
-                for (RouteResolver resolver : resolvers) {
-                    resolver.process(router, service, clazz, method);
+                for (RouteResolver resolver : scanners) {
+                    resolver.process(router, instance, clazz, method);
                 }
             }
         }
@@ -84,5 +313,89 @@ public interface RouterBuilder {
 
     public RouterBuilder handler(Object handler);
 
+    /**
+     * Adds a resource class created with its public no-arg constructor, see {@link #handler(Class, Supplier)}.
+     */
+    public <T> RouterBuilder handler(Class<T> type);
+
+    /**
+     * Adds a resource class whose instances are created by the factory as its {@link Scope} requires: once for
+     * singletons, once per thread, or on demand for pooled resources. Custom resolvers bind a single instance.
+     */
+    public <T> RouterBuilder handler(Class<T> type, Supplier<? extends T> factory);
+
+    /**
+     * Removes a resource instance added with {@link #handler(Object)}, or a resource class, its routes are dropped
+     * by the next {@link #refresh()}.
+     */
+    public RouterBuilder remove(Object handler);
+
+    /**
+     * Adds a decorator wrapping every annotated route handler, decorators are applied in the order they are added.
+     */
+    public RouterBuilder decorator(RouteDecorator decorator);
+
+    /**
+     * Adds an interceptor to every annotated route. Resources are then all bound reflectively, generated binders
+     * can't call the interceptors.
+     */
+    public RouterBuilder interceptor(RouteInterceptor<?> interceptor);
+
+    /**
+     * Registers the instance of a filter class named by {@link com.dinstone.vertx.web.annotation.Filter}, for filters
+     * without a public no-arg constructor or with state of their own.
+     */
+    public RouterBuilder filter(RouteFilter filter);
+
+    /**
+     * Registers a codec encoding results and decoding bodies of its media type, in addition to the built-in JSON and
+     * CBOR codecs.
+     */
+    public RouterBuilder codec(BodyCodec codec);
+
+    /**
+     * Records metrics of every annotated route.
+     */
+    public RouterBuilder metrics(RouteMetrics metrics);
+
+    /**
+     * Records metrics of every annotated route, and exposes their JSON snapshot with a GET route on the path.
+     */
+    public RouterBuilder metrics(RouteMetrics metrics, String path);
+
+    /**
+     * Adds a POST route on the path taking a JSON array of sub-requests, dispatched in memory through the router and
+     * answered with the array of their results in one response, see {@link BatchHandler}.
+     */
+    public RouterBuilder batch(String path);
+
+    /**
+     * Dispatches the annotated routes through one compiled radix tree handler instead of one Vert.x route each, the
+     * tree matches templates without regular expressions and tries static segments before parameters.
+     */
+    public RouterBuilder radix(boolean enabled);
+
+    /**
+     * Binds the annotated routes of the classes covered by the table without scanning them, typically a table saved
+     * by a previous start. Classes the table doesn't cover are scanned as usual.
+     */
+    public RouterBuilder routeTable(RouteTable table);
+
+    /**
+     * Returns the annotated routes bound reflectively by the last {@link #build()} or {@link #refresh()}, routes of
+     * classes with a generated binder are not included.
+     */
+    public RouteTable routeTable();
+
     public Router build();
+
+    /**
+     * Rebinds the annotated routes of the current resources into a new radix tree, and atomically swaps it into the
+     * running router. Requests already dispatched complete on the previous routes, routes of custom resolvers are left
+     * as bound by {@link #build()}.
+     *
+     * @throws IllegalStateException
+     *             if the router wasn't built with {@link #radix(boolean)} enabled
+     */
+    public RouteTable refresh();
 }
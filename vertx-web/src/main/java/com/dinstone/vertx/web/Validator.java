@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * The ETag and last modification time of a resource, returned by the validator method of a
+ * {@link com.dinstone.vertx.web.annotation.Conditional} route.
+ */
+public final class Validator {
+
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter
+        .ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+
+    private final String etag;
+
+    private final String lastModified;
+
+    private Validator(String etag, String lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * A strong ETag with the opaque value, quoted if needed.
+     */
+    public static Validator ofEtag(String value) {
+        return new Validator(quote(value), null);
+    }
+
+    public static Validator ofLastModified(long epochMillis) {
+        return new Validator(null, httpDate(epochMillis));
+    }
+
+    public static Validator of(String etag, long lastModifiedMillis) {
+        return new Validator(quote(etag), httpDate(lastModifiedMillis));
+    }
+
+    /**
+     * The quoted ETag, null if none.
+     */
+    public String etag() {
+        return etag;
+    }
+
+    /**
+     * The {@code Last-Modified} HTTP date, null if none.
+     */
+    public String lastModified() {
+        return lastModified;
+    }
+
+    private static String quote(String value) {
+        return value.startsWith("\"") || value.startsWith("W/\"") ? value : '"' + value + '"';
+    }
+
+    private static String httpDate(long epochMillis) {
+        return HTTP_DATE.format(Instant.ofEpochMilli(epochMillis));
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the resource method off the event loop, on the worker pool or on a virtual thread.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface Blocking {
+
+	/**
+	 * same as {@code Route.blockingHandler(handler, ordered)}, ignored on virtual threads.
+	 */
+	boolean ordered() default true;
+
+	/**
+	 * run on a virtual thread when the runtime supports them, otherwise on the worker pool.
+	 */
+	boolean virtual() default false;
+
+	/**
+	 * maximum calls of the route running at the same time, further requests wait for a free slot. 0 is unlimited.
+	 */
+	int maxConcurrency() default 0;
+
+	/**
+	 * maximum requests waiting for a slot when {@link #maxConcurrency()} is set, further requests are answered 503
+	 * with {@code Retry-After}.
+	 */
+	int maxWaiting() default 1000;
+}
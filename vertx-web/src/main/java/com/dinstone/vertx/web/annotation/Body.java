@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds the request body. String, Buffer, JsonObject and JsonArray parameters get the whole body, a
+ * {@code ReadStream<Buffer>} gets the body chunks as they arrive, a {@code ReadStream} of any other type gets the
+ * elements of a top-level JSON array one by one, and a {@code java.io.File} gets the body spooled to a temporary file.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.PARAMETER })
+public @interface Body {
+
+	/**
+	 * maximum body size in bytes, larger requests are rejected with 413. -1 is unlimited.
+	 */
+	long maxSize() default -1;
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves GET requests of the route from a bounded LRU cache of its responses, concurrent misses of a key wait for the
+ * one call of the resource method. The method must return its result, responses other than 200 are not stored.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD })
+public @interface Cacheable {
+
+	/**
+	 * time to live of a response.
+	 */
+	long ttl() default 60;
+
+	TimeUnit unit() default TimeUnit.SECONDS;
+
+	/**
+	 * maximum responses kept, the least recently used one is evicted first.
+	 */
+	int maxEntries() default 1024;
+
+	/**
+	 * request parameters, or headers prefixed with {@code header:}, the response depends on. Responses are keyed by
+	 * the path and these values, or by the full request URI if empty.
+	 */
+	String[] varyBy() default {};
+
+	/**
+	 * store response bodies in direct memory.
+	 */
+	boolean offHeap() default false;
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Compresses the results of the route with the algorithm negotiated from {@code Accept-Encoding}. Responses stored by
+ * {@link Cacheable} keep their compressed variants, so a body is compressed once per algorithm.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface Compress {
+
+	/**
+	 * smallest body compressed, in bytes.
+	 */
+	int minSize() default 1024;
+
+	/**
+	 * supported content codings, {@code gzip} and {@code deflate}, in order of preference. Any other coding fails the
+	 * route at bind time.
+	 */
+	String[] algorithms() default { "gzip", "deflate" };
+}
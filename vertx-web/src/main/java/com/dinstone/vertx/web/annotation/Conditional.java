@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Answers GET and HEAD requests with 304 Not Modified when the {@code If-None-Match} or {@code If-Modified-Since}
+ * validators of the client are still current. Results of the method get a strong ETag hashed from their body, unless
+ * the method or the validator sets one.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD })
+public @interface Conditional {
+
+	/**
+	 * name of a public method of the resource returning the {@code Validator} of the requested resource, bound to the
+	 * request like the resource method and called before it. The resource method doesn't run when the client copy is
+	 * current.
+	 */
+	String validator() default "";
+}
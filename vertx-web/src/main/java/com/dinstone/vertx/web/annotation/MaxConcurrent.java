@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the requests of the route in progress, until their response ends. Requests over the limit are answered 503
+ * with a {@code Retry-After} header right away, instead of queueing like {@link Blocking#maxConcurrency()}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface MaxConcurrent {
+
+	/**
+	 * the limit, the initial limit if adaptive.
+	 */
+	int value();
+
+	/**
+	 * adjusts the limit from the observed latency: the limit shrinks when the latency grows over its minimum, and
+	 * grows while the latency stays flat.
+	 */
+	boolean adaptive() default false;
+
+	/**
+	 * upper bound of an adaptive limit.
+	 */
+	int maxLimit() default 1000;
+}
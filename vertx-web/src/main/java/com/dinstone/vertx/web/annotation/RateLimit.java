@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the request rate of the route with a token bucket, requests over the limit are answered 429 with a
+ * {@code Retry-After} header. On a class, every route of the class gets its own bucket.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface RateLimit {
+
+	/**
+	 * tokens added every period.
+	 */
+	int permits();
+
+	long period() default 1;
+
+	TimeUnit unit() default TimeUnit.SECONDS;
+
+	/**
+	 * bucket size, the requests allowed in a burst. 0 is the number of permits.
+	 */
+	int burst() default 0;
+
+	/**
+	 * the client key with a bucket of its own: {@code remote} for the client address, {@code header:Name} for a
+	 * header, otherwise a request parameter. Empty shares one bucket between all clients.
+	 */
+	String key() default "";
+
+	/**
+	 * maximum client buckets kept, clients beyond share one bucket.
+	 */
+	int maxKeys() default 10000;
+}
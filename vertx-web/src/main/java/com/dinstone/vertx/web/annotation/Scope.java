@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lifecycle of the instances of a resource class added with {@code RouterBuilder.handler(Class, Supplier)}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE })
+public @interface Scope {
+
+	Type value() default Type.SINGLETON;
+
+	/**
+	 * maximum idle instances kept by each thread, for {@link Type#POOLED} resources.
+	 */
+	int poolSize() default 16;
+
+	enum Type {
+		/**
+		 * one instance shared by every request.
+		 */
+		SINGLETON,
+
+		/**
+		 * one instance per event loop or worker thread, never called from two threads.
+		 */
+		PER_EVENT_LOOP,
+
+		/**
+		 * one instance per request, taken from a pool of the calling thread and returned to it, after
+		 * {@code Resettable.reset()}, once the response is written.
+		 */
+		POOLED
+	}
+}
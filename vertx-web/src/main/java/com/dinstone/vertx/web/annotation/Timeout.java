@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Ends the response with {@link #status()} if the route hasn't ended it within {@link #value()} milliseconds of the
+ * request arrival. A method annotation overrides the one of its class. The remaining time is available to the method
+ * as a {@link com.dinstone.vertx.web.Deadline} parameter.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface Timeout {
+
+	/**
+	 * the timeout in milliseconds.
+	 */
+	long value();
+
+	/**
+	 * the status of expired responses, 503 or 504; any other status fails the route at bind time. A response whose head
+	 * is already written has its connection closed instead.
+	 */
+	int status() default 503;
+}
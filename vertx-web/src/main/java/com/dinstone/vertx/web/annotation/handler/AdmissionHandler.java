@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.util.concurrent.TimeUnit;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Admits the requests of a route first, before its body is read: requests over the rate limit are answered 429 and
+ * requests over the concurrency limit 503, both with a {@code Retry-After} header and without calling the route.
+ */
+final class AdmissionHandler implements Handler<RoutingContext> {
+
+	private static final CharSequence RETRY_AFTER = HttpHeaders.createOptimized("Retry-After");
+
+	private final RateLimiter rateLimiter;
+
+	private final ConcurrencyLimiter concurrencyLimiter;
+
+	AdmissionHandler(RateLimiter rateLimiter, ConcurrencyLimiter concurrencyLimiter) {
+		this.rateLimiter = rateLimiter;
+		this.concurrencyLimiter = concurrencyLimiter;
+	}
+
+	@Override
+	public void handle(RoutingContext ctx) {
+		if (rateLimiter != null) {
+			long wait = rateLimiter.acquire(ctx);
+			if (wait > 0) {
+				reject(ctx, 429, wait);
+				return;
+			}
+		}
+
+		if (concurrencyLimiter != null) {
+			if (!concurrencyLimiter.tryAcquire()) {
+				reject(ctx, 503, 0);
+				return;
+			}
+			Release release = new Release(concurrencyLimiter);
+			ctx.addBodyEndHandler(release);
+			ResponseHooks.onClose(ctx, release);
+		}
+
+		ctx.next();
+	}
+
+	static void reject(RoutingContext ctx, int status, long waitNanos) {
+		long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+		ctx.response().setStatusCode(status).putHeader(RETRY_AFTER, Long.toString(seconds)).end();
+	}
+
+	/**
+	 * Releases the slot of a request once, when its response ends or its connection closes.
+	 */
+	private static final class Release implements Handler<Void> {
+
+		private final ConcurrencyLimiter limiter;
+
+		private final long start = System.nanoTime();
+
+		private boolean released;
+
+		Release(ConcurrencyLimiter limiter) {
+			this.limiter = limiter;
+		}
+
+		@Override
+		public void handle(Void event) {
+			if (!released) {
+				released = true;
+				limiter.release(start);
+			}
+		}
+	}
+
+}
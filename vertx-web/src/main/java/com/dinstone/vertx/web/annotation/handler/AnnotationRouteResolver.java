@@ -20,10 +20,24 @@ import java.lang.invoke.CallSite;
 import java.lang.invoke.ConstantCallSite;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import com.dinstone.vertx.web.ResourceProvider;
+import com.dinstone.vertx.web.RouteDecorator;
+import com.dinstone.vertx.web.RouteFilter;
+import com.dinstone.vertx.web.RouteInterceptor;
+import com.dinstone.vertx.web.RouteRegistrar;
 import com.dinstone.vertx.web.RouteResolver;
+import com.dinstone.vertx.web.annotation.Blocking;
+import com.dinstone.vertx.web.annotation.Cacheable;
 import com.dinstone.vertx.web.annotation.Connect;
 import com.dinstone.vertx.web.annotation.Consumes;
 import com.dinstone.vertx.web.annotation.Delete;
@@ -35,9 +49,13 @@ import com.dinstone.vertx.web.annotation.Path;
 import com.dinstone.vertx.web.annotation.Post;
 import com.dinstone.vertx.web.annotation.Produces;
 import com.dinstone.vertx.web.annotation.Put;
+import com.dinstone.vertx.web.annotation.Scope;
+import com.dinstone.vertx.web.codec.CodecRegistry;
+import com.dinstone.vertx.web.router.RouteDefinition;
 
 import io.vertx.core.Handler;
-import io.vertx.ext.web.Route;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 
@@ -45,6 +63,48 @@ public class AnnotationRouteResolver implements RouteResolver {
 
 	private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
 
+	private static final MethodType SCOPED_TYPE = MethodType.methodType(Object.class, Object.class,
+			RoutingContext.class);
+
+	private final RouteDecorator decorator;
+
+	private final CodecRegistry codecs;
+
+	private final List<RouteInterceptor<?>> interceptors = new CopyOnWriteArrayList<>();
+
+	private final ConcurrentMap<Class<?>, RouteFilter> filters = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<RouteDefinition, AdmissionHandler> admissions = new ConcurrentHashMap<>();
+
+	public AnnotationRouteResolver() {
+		this(null);
+	}
+
+	public AnnotationRouteResolver(RouteDecorator decorator) {
+		this(decorator, CodecRegistry.create());
+	}
+
+	public AnnotationRouteResolver(RouteDecorator decorator, CodecRegistry codecs) {
+		this.decorator = decorator;
+		this.codecs = codecs;
+	}
+
+	/**
+	 * Adds an interceptor to the routes bound from now on.
+	 */
+	public AnnotationRouteResolver interceptor(RouteInterceptor<?> interceptor) {
+		interceptors.add(interceptor);
+		return this;
+	}
+
+	/**
+	 * Registers the instance used by the routes naming its class in a {@link com.dinstone.vertx.web.annotation.Filter}.
+	 */
+	public AnnotationRouteResolver filter(RouteFilter filter) {
+		filters.put(filter.getClass(), filter);
+		return this;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -54,96 +114,283 @@ public class AnnotationRouteResolver implements RouteResolver {
 	 */
 	@Override
 	public void process(final Router router, final Object instance, final Class<?> clazz, final Method method) {
+		List<RouteDefinition> routes = ResourceModel.of(clazz).routes().get(method);
+		if (routes != null) {
+			for (RouteDefinition route : routes) {
+				bind(router, ResourceProvider.singleton(instance), route, method);
+			}
+		}
+	}
+
+	/**
+	 * Returns the annotated routes of the class, scanned once per process and class.
+	 */
+	public List<RouteDefinition> resolve(final Class<?> clazz) {
+		return routes(clazz);
+	}
+
+	/**
+	 * Returns the annotated routes of the class, scanned once per process and class.
+	 */
+	public static List<RouteDefinition> routes(final Class<?> clazz) {
+		List<RouteDefinition> routes = new ArrayList<>();
+		for (List<RouteDefinition> methodRoutes : ResourceModel.of(clazz).routes().values()) {
+			routes.addAll(methodRoutes);
+		}
+		return routes;
+	}
+
+	static List<RouteDefinition> resolve(final Class<?> clazz, final Method method) {
+		List<RouteDefinition> routes = new ArrayList<>(1);
+		if (method.getAnnotations().length == 0) {
+			return routes;
+		}
 		String servicePath = getServicePath(clazz);
-		if (isCompatible(method, Get.class, RoutingContext.class)) {
-			MethodHandle methodHandle = getMethodHandle(method, RoutingContext.class);
+		String[] produces = getProduces(clazz, method);
+		String[] consumes = getConsumes(clazz, method);
+		if (isCompatible(method, Get.class)) {
 			String path = servicePath + getAnnotation(method, Get.class).value();
-			Route route = router.get(path).handler(wrap(instance, methodHandle));
-			andRouteBasedContentType(route, clazz, method);
+			routes.add(new RouteDefinition(HttpMethod.GET, path, produces, consumes, clazz, method));
 		}
-		if (isCompatible(method, Post.class, RoutingContext.class)) {
-			MethodHandle methodHandle = getMethodHandle(method, RoutingContext.class);
+		if (isCompatible(method, Post.class)) {
 			String path = servicePath + getAnnotation(method, Post.class).value();
-			Route route = router.post(path).handler(wrap(instance, methodHandle));
-			andRouteBasedContentType(route, clazz, method);
+			routes.add(new RouteDefinition(HttpMethod.POST, path, produces, consumes, clazz, method));
 		}
-		if (isCompatible(method, Put.class, RoutingContext.class)) {
-			MethodHandle methodHandle = getMethodHandle(method, RoutingContext.class);
+		if (isCompatible(method, Put.class)) {
 			String path = servicePath + getAnnotation(method, Put.class).value();
-			Route route = router.put(path).handler(wrap(instance, methodHandle));
-			andRouteBasedContentType(route, clazz, method);
+			routes.add(new RouteDefinition(HttpMethod.PUT, path, produces, consumes, clazz, method));
 		}
-		if (isCompatible(method, Delete.class, RoutingContext.class)) {
-			MethodHandle methodHandle = getMethodHandle(method, RoutingContext.class);
+		if (isCompatible(method, Delete.class)) {
 			String path = servicePath + getAnnotation(method, Delete.class).value();
-			Route route = router.delete(path).handler(wrap(instance, methodHandle));
-			andRouteBasedContentType(route, clazz, method);
+			routes.add(new RouteDefinition(HttpMethod.DELETE, path, produces, consumes, clazz, method));
 		}
-		if (isCompatible(method, Connect.class, RoutingContext.class)) {
-			MethodHandle methodHandle = getMethodHandle(method, RoutingContext.class);
+		if (isCompatible(method, Connect.class)) {
 			String path = servicePath + getAnnotation(method, Connect.class).value();
-			Route route = router.connect(path).handler(wrap(instance, methodHandle));
-			andRouteBasedContentType(route, clazz, method);
+			routes.add(new RouteDefinition(HttpMethod.CONNECT, path, produces, consumes, clazz, method));
 		}
-		if (isCompatible(method, Options.class, RoutingContext.class)) {
-			MethodHandle methodHandle = getMethodHandle(method, RoutingContext.class);
+		if (isCompatible(method, Options.class)) {
 			String path = servicePath + getAnnotation(method, Options.class).value();
-			Route route = router.options(path).handler(wrap(instance, methodHandle));
-			andRouteBasedContentType(route, clazz, method);
+			routes.add(new RouteDefinition(HttpMethod.OPTIONS, path, produces, consumes, clazz, method));
 		}
-		if (isCompatible(method, Head.class, RoutingContext.class)) {
-			MethodHandle methodHandle = getMethodHandle(method, RoutingContext.class);
+		if (isCompatible(method, Head.class)) {
 			String path = servicePath + getAnnotation(method, Head.class).value();
-			Route route = router.head(path).handler(wrap(instance, methodHandle));
-			andRouteBasedContentType(route, clazz, method);
+			routes.add(new RouteDefinition(HttpMethod.HEAD, path, produces, consumes, clazz, method));
 		}
-		if (isCompatible(method, Patch.class, RoutingContext.class)) {
-			MethodHandle methodHandle = getMethodHandle(method, RoutingContext.class);
+		if (isCompatible(method, Patch.class)) {
 			String path = servicePath + getAnnotation(method, Patch.class).value();
-			Route route = router.patch(path).handler(wrap(instance, methodHandle));
-			andRouteBasedContentType(route, clazz, method);
+			routes.add(new RouteDefinition(HttpMethod.PATCH, path, produces, consumes, clazz, method));
 		}
-		if (isCompatible(method, Path.class, RoutingContext.class)) {
-			MethodHandle methodHandle = getMethodHandle(method, RoutingContext.class);
+		if (isCompatible(method, Path.class)) {
 			String path = servicePath + getAnnotation(method, Path.class).value();
-			Route route = router.route(path).handler(wrap(instance, methodHandle));
-			andRouteBasedContentType(route, clazz, method);
+			routes.add(new RouteDefinition(null, path, produces, consumes, clazz, method));
 		}
+		return routes;
 	}
 
-	private static void andRouteBasedContentType(Route route, final Class<?> clazz, final Method method) {
-		if (route != null) {
-			String[] produces = getProduces(clazz, method);
-			String[] consumes = getConsumes(clazz, method);
-			if (produces != null) {
-				for (String contentType : produces) {
-					route.produces(contentType);
-				}
+	/**
+	 * Binds a route resolved earlier, possibly by another process, to the resource instance.
+	 *
+	 * @throws IllegalStateException
+	 *             if the resource class no longer declares the route method
+	 */
+	public void bind(final Router router, final Object instance, final RouteDefinition route) {
+		bind(router, ResourceProvider.singleton(instance), route);
+	}
+
+	/**
+	 * Binds a route to the instances of the provider, a singleton instance is bound once, other scopes acquire an
+	 * instance for every request.
+	 *
+	 * @throws IllegalStateException
+	 *             if the resource class no longer declares the route method
+	 */
+	public void bind(final Router router, final ResourceProvider provider, final RouteDefinition route) {
+		bind(router, provider, route, ResourceModel.of(provider.type()).target(route));
+	}
+
+	private void bind(final Router router, final ResourceProvider provider, final RouteDefinition route,
+			final Method method) {
+		HttpMethod httpMethod = route.method();
+		String path = route.path();
+		String[] produces = route.produces();
+		String[] consumes = route.consumes();
+		ResourceModel.MethodModel model = ResourceModel.of(provider.type()).method(method);
+		ResourceModel.Compiled compiled = model.compile(RouteCodecs.create(codecs, produces, consumes));
+		// the handlers of the route in order, registered once the route handler is built
+		List<Handler<RoutingContext>> handlers = new ArrayList<>(5);
+		InterceptorChain chain = InterceptorChain.create(route, interceptors);
+		if (chain != null) {
+			handlers.add(chain);
+		}
+		// limits are shared by the routers bound by this resolver only
+		Handler<RoutingContext> admission = admissions.computeIfAbsent(route, r -> model.admission());
+		if (admission != null) {
+			handlers.add(admission);
+		}
+		if (model.deadline() != null) {
+			handlers.add(model.deadline());
+		}
+		Handler<RoutingContext> bodyHandler = ArgumentExtractors.bodyHandler(method);
+		if (bodyHandler != null) {
+			handlers.add(bodyHandler);
+		}
+		ResponseOptions options = model.options();
+		Handler<RoutingContext> handler;
+		boolean coalesce = model.coalesce() != null && model.cacheable() == null;
+		if (model.cacheable() != null) {
+			handler = cache(provider, method, compiled.methodHandle, compiled.codecs, model.cacheable(), options,
+				chain);
+		} else if (coalesce) {
+			handler = coalesce(provider, method, compiled.methodHandle, compiled.codecs, options, chain);
+		} else if (provider.scope() == Scope.Type.SINGLETON) {
+			handler = wrap(provider.acquire(), method, compiled.methodHandle, compiled.codecs, options, chain);
+		} else {
+			handler = wrap(provider, method, compiled.methodHandle, compiled.codecs, options, chain);
+		}
+		Method validator = model.validator();
+		if (validator != null) {
+			ResourceModel.Compiled validatorHandle = ResourceModel.of(provider.type()).method(validator)
+				.compile(compiled.codecs);
+			if (validatorHandle.methodHandle == null) {
+				throw new IllegalStateException("Validator signature not compatible! " + validator);
 			}
+			handler = new ConditionalHandler(invoker(provider, validator, validatorHandle.methodHandle, null),
+				handler);
+		}
+		Blocking blocking = model.blocking();
+		if (blocking != null) {
+			handler = new BlockingHandler(handler, blocking);
+		}
+		if (coalesce) {
+			// outside of the worker dispatch, followers wait on the event loop
+			handler = new CoalescingHandler(method, handler);
+		}
+		if (!model.filters().isEmpty()) {
+			handler = FilterChain.wrap(filters(model.filters()), handler);
+		}
+		if (decorator != null) {
+			handler = decorator.decorate(httpMethod, path, handler);
+		}
+		handlers.add(handler);
 
-			if (consumes != null) {
-				for (String contentType : consumes) {
-					route.consumes(contentType);
-				}
+		// negotiated once per request, by the first handler of the route
+		ContentNegotiator negotiator = ContentNegotiator.create(produces, consumes);
+		for (int i = 0; i < handlers.size(); i++) {
+			Handler<RoutingContext> routeHandler = handlers.get(i);
+			if (negotiator != null) {
+				routeHandler = i == 0 ? negotiator.wrap(routeHandler, handlers.size() > 1)
+						: negotiator.reuse(routeHandler);
 			}
+			RouteRegistrar.register(router, decorator, httpMethod, path, routeHandler);
+		}
+	}
+
+	private RouteFilter[] filters(List<Class<? extends RouteFilter>> types) {
+		RouteFilter[] instances = new RouteFilter[types.size()];
+		for (int i = 0; i < instances.length; i++) {
+			instances[i] = filters.computeIfAbsent(types.get(i), type -> {
+				try {
+					return (RouteFilter) type.newInstance();
+				} catch (ReflectiveOperationException e) {
+					throw new IllegalStateException("can't create an instance of filter " + type.getName(), e);
+				}
+			});
 		}
+		return instances;
 	}
 
-	private static Handler<RoutingContext> wrap(final Object instance, final MethodHandle mh) {
+	private static Handler<RoutingContext> wrap(final Object instance, final Method method, final MethodHandle mh,
+			final RouteCodecs codecs, final ResponseOptions options, final InterceptorChain chain) {
+		if (method.getReturnType() != void.class) {
+			final ResultInvoker invoker = intercept(MethodInvokers.result(instance, method, mh), chain);
+			return ctx -> {
+				try {
+					ResultWriter.write(ctx, invoker.invoke(ctx), codecs, options);
+				} catch (ParameterException e) {
+					ctx.fail(e.getStatusCode());
+				} catch (Throwable e) {
+					ctx.fail(e);
+				}
+			};
+		}
+
+		final MethodInvoker created = MethodInvokers.create(instance, method, mh);
+		final MethodInvoker invoker = chain == null ? created : chain.interceptVoid(created);
 		return ctx -> {
 			try {
-				String acceptableContentType = ctx.getAcceptableContentType();
-				if (acceptableContentType != null) {
-					ctx.response().putHeader("Content-Type", acceptableContentType);
-				}
+				invoker.invoke(ctx);
+			} catch (ParameterException e) {
+				ctx.fail(e.getStatusCode());
+			} catch (Throwable e) {
+				ctx.fail(e);
+			}
+		};
+	}
 
-				mh.invoke(instance, ctx);
+	private static Handler<RoutingContext> wrap(final ResourceProvider provider, final Method method,
+			final MethodHandle mh, final RouteCodecs codecs, final ResponseOptions options,
+			final InterceptorChain chain) {
+		final ResultInvoker invoker = intercept(scoped(provider, mh), chain);
+		final boolean result = method.getReturnType() != void.class;
+		return ctx -> {
+			try {
+				Object value = invoker.invoke(ctx);
+				if (result) {
+					ResultWriter.write(ctx, value, codecs, options);
+				}
+			} catch (ParameterException e) {
+				ctx.fail(e.getStatusCode());
 			} catch (Throwable e) {
 				ctx.fail(e);
 			}
 		};
 	}
 
+	private static Handler<RoutingContext> cache(final ResourceProvider provider, final Method method,
+			final MethodHandle mh, final RouteCodecs codecs, final Cacheable cacheable, final ResponseOptions options,
+			final InterceptorChain chain) {
+		Class<?> returnType = method.getReturnType();
+		if (returnType == void.class || ReadStream.class.isAssignableFrom(returnType)) {
+			throw new IllegalStateException("@Cacheable method must return its result " + method);
+		}
+		return new CachingHandler(invoker(provider, method, mh, chain), codecs, cacheable, options);
+	}
+
+	private static Handler<RoutingContext> coalesce(final ResourceProvider provider, final Method method,
+			final MethodHandle mh, final RouteCodecs codecs, final ResponseOptions options,
+			final InterceptorChain chain) {
+		Class<?> returnType = method.getReturnType();
+		if (returnType == void.class || ReadStream.class.isAssignableFrom(returnType)) {
+			throw new IllegalStateException("@Coalesce method must return its result " + method);
+		}
+		return new CoalescingHandler.Leader(invoker(provider, method, mh, chain), codecs, options);
+	}
+
+	private static ResultInvoker invoker(final ResourceProvider provider, final Method method,
+			final MethodHandle mh, final InterceptorChain chain) {
+		return intercept(provider.scope() == Scope.Type.SINGLETON
+				? MethodInvokers.result(provider.acquire(), method, mh) : scoped(provider, mh), chain);
+	}
+
+	private static ResultInvoker intercept(final ResultInvoker invoker, final InterceptorChain chain) {
+		return chain == null ? invoker : chain.interceptResult(invoker);
+	}
+
+	/**
+	 * Acquires an instance from the provider for every call, a pooled instance is released once the response ends.
+	 */
+	private static ResultInvoker scoped(final ResourceProvider provider, final MethodHandle mh) {
+		final MethodHandle target = mh.asType(SCOPED_TYPE);
+		final boolean pooled = provider.scope() == Scope.Type.POOLED;
+		return ctx -> {
+			Object instance = provider.acquire();
+			if (pooled) {
+				ctx.addBodyEndHandler(v -> provider.release(instance));
+			}
+			return (Object) target.invokeExact(instance, ctx);
+		};
+	}
+
 	private static String[] getConsumes(final Class<?> clazz, final Method method) {
 		String[] consumes = null;
 		Consumes defaultSetting = getAnnotation(clazz, Consumes.class);
@@ -172,6 +419,11 @@ public class AnnotationRouteResolver implements RouteResolver {
 		return produces;
 	}
 
+	static Blocking getBlocking(final Class<?> clazz, final Method method) {
+		Blocking apiSetting = getAnnotation(method, Blocking.class);
+		return apiSetting != null ? apiSetting : getAnnotation(clazz, Blocking.class);
+	}
+
 	private static String getServicePath(final Class<?> clazz) {
 		Path routePath = getAnnotation(clazz, Path.class);
 		return routePath == null ? "" : routePath.value();
@@ -208,6 +460,42 @@ public class AnnotationRouteResolver implements RouteResolver {
 		}
 	}
 
+	/**
+	 * Returns a {@code (instance, RoutingContext)} handle that extracts every bound parameter from the context, or
+	 * null if a parameter can't be bound.
+	 */
+	public static MethodHandle getMethodHandle(Method m) {
+		return getMethodHandle(m, RouteCodecs.DEFAULT);
+	}
+
+	static MethodHandle getMethodHandle(Method m, RouteCodecs codecs) {
+		try {
+			MethodHandle[] extractors = ArgumentExtractors.create(m, codecs);
+			if (extractors == null) {
+				return null;
+			}
+
+			MethodHandle methodHandle = MethodHandles.filterArguments(LOOKUP.unreflect(m), 1, extractors);
+			int[] reorder = new int[extractors.length + 1];
+			Arrays.fill(reorder, 1, reorder.length, 1);
+			MethodType type = MethodType.methodType(m.getReturnType(), m.getDeclaringClass(), RoutingContext.class);
+			return MethodHandles.permuteArguments(methodHandle, type, reorder);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	public static boolean isCompatible(Method m, Class<? extends Annotation> annotation) {
+		if (getAnnotation(m, annotation) != null) {
+			if (getMethodHandle(m) != null) {
+				return true;
+			} else {
+				throw new RuntimeException("Method signature not compatible!");
+			}
+		}
+		return false;
+	}
+
 	public static boolean isCompatible(Method m, Class<? extends Annotation> annotation, Class<?>... paramTypes) {
 		if (getAnnotation(m, annotation) != null) {
 			if (getMethodHandle(m, paramTypes) != null) {
@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.io.File;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.dinstone.vertx.web.Deadline;
+import com.dinstone.vertx.web.annotation.Body;
+import com.dinstone.vertx.web.annotation.HeaderParam;
+import com.dinstone.vertx.web.annotation.PathParam;
+import com.dinstone.vertx.web.annotation.QueryParam;
+
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.BodyHandler;
+
+/**
+ * Builds one {@code (RoutingContext)T} extractor per method parameter at route registration, so binding a request
+ * costs no reflection, and int/long/boolean parameters are converted without boxing.
+ */
+public final class ArgumentExtractors {
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private static final String QUERY_KEY = ArgumentExtractors.class.getName() + ".query";
+
+	private static final MethodHandle PARAM = find("param", String.class, String.class, RoutingContext.class);
+
+	private static final MethodHandle QUERY = find("query", String.class, String.class, RoutingContext.class);
+
+	private static final MethodHandle HEADER = find("header", String.class, String.class, RoutingContext.class);
+
+	private static final MethodHandle BODY = find("body", Buffer.class, RoutingContext.class);
+
+	private static final MethodHandle BODY_STRING = find("bodyAsString", String.class, RoutingContext.class);
+
+	private static final MethodHandle BODY_DECODE = find("bodyAs", Object.class, RouteCodecs.class, Class.class,
+			RoutingContext.class);
+
+	private static final MethodHandle BODY_STREAM = find("bodyStream", ReadStream.class, long.class, boolean.class,
+			RoutingContext.class);
+
+	private static final MethodHandle BODY_FILE = find("bodyFile", File.class, RoutingContext.class);
+
+	private static final MethodHandle DEADLINE = find("deadline", Deadline.class, RoutingContext.class);
+
+	private ArgumentExtractors() {
+	}
+
+	/**
+	 * Returns the handler to route before the method to read its {@link Body} parameter, or null if it has none.
+	 */
+	public static Handler<RoutingContext> bodyHandler(Method method) {
+		Class<?>[] types = method.getParameterTypes();
+		Annotation[][] annotations = method.getParameterAnnotations();
+		for (int i = 0; i < types.length; i++) {
+			Body body = find(annotations[i], Body.class);
+			if (body == null) {
+				continue;
+			}
+
+			if (types[i] == ReadStream.class) {
+				return new StreamingBodyHandler(body.maxSize(), false);
+			} else if (types[i] == File.class) {
+				return new StreamingBodyHandler(body.maxSize(), true);
+			}
+			return body.maxSize() < 0 ? BodyHandler.create() : BodyHandler.create().setBodyLimit(body.maxSize());
+		}
+		return null;
+	}
+
+	/**
+	 * Creates the extractors of the method parameters, or returns null if any parameter can't be bound.
+	 */
+	public static MethodHandle[] create(Method method) {
+		return create(method, RouteCodecs.DEFAULT);
+	}
+
+	static MethodHandle[] create(Method method, RouteCodecs codecs) {
+		Class<?>[] types = method.getParameterTypes();
+		Type[] genericTypes = method.getGenericParameterTypes();
+		Annotation[][] annotations = method.getParameterAnnotations();
+
+		MethodHandle[] extractors = new MethodHandle[types.length];
+		for (int i = 0; i < types.length; i++) {
+			extractors[i] = create(types[i], genericTypes[i], annotations[i], codecs);
+			if (extractors[i] == null) {
+				return null;
+			}
+		}
+		return extractors;
+	}
+
+	private static MethodHandle create(Class<?> type, Type genericType, Annotation[] annotations,
+			RouteCodecs codecs) {
+		PathParam pathParam = find(annotations, PathParam.class);
+		if (pathParam != null) {
+			return convert(MethodHandles.insertArguments(PARAM, 0, pathParam.value()), type);
+		}
+
+		QueryParam queryParam = find(annotations, QueryParam.class);
+		if (queryParam != null) {
+			return convert(MethodHandles.insertArguments(QUERY, 0, queryParam.value()), type);
+		}
+
+		HeaderParam headerParam = find(annotations, HeaderParam.class);
+		if (headerParam != null) {
+			return convert(MethodHandles.insertArguments(HEADER, 0, headerParam.value()), type);
+		}
+
+		Body body = find(annotations, Body.class);
+		if (body != null) {
+			if (type == String.class) {
+				return BODY_STRING;
+			} else if (type == Buffer.class) {
+				return BODY;
+			} else if (type == ReadStream.class) {
+				return MethodHandles.insertArguments(BODY_STREAM, 0, body.maxSize(), !isBufferStream(genericType));
+			} else if (type == File.class) {
+				return BODY_FILE;
+			} else if (type.isPrimitive()) {
+				return null;
+			}
+			// JsonObject, JsonArray and any other type the codecs of the route can decode
+			return MethodHandles.insertArguments(BODY_DECODE, 0, codecs, type)
+					.asType(MethodType.methodType(type, RoutingContext.class));
+		}
+
+		if (type == Deadline.class) {
+			return DEADLINE;
+		}
+
+		// for groovy and other languages that do not do type check at compile time
+		if (type.isAssignableFrom(RoutingContext.class)) {
+			return MethodHandles.identity(RoutingContext.class).asType(MethodType.methodType(type, RoutingContext.class));
+		}
+		return null;
+	}
+
+	private static MethodHandle convert(MethodHandle source, Class<?> type) {
+		String name;
+		if (type == String.class) {
+			return source;
+		} else if (type == int.class) {
+			name = "toInt";
+		} else if (type == Integer.class) {
+			name = "toInteger";
+		} else if (type == long.class) {
+			name = "toLong";
+		} else if (type == Long.class) {
+			name = "toLongObject";
+		} else if (type == boolean.class) {
+			name = "toBoolean";
+		} else if (type == Boolean.class) {
+			name = "toBooleanObject";
+		} else {
+			return null;
+		}
+		return MethodHandles.filterReturnValue(source, find(name, type, String.class));
+	}
+
+	private static boolean isBufferStream(Type type) {
+		return type instanceof ParameterizedType && ((ParameterizedType) type).getActualTypeArguments()[0] == Buffer.class;
+	}
+
+	private static MethodHandle find(String name, Class<?> returnType, Class<?>... parameterTypes) {
+		try {
+			return LOOKUP.findStatic(ArgumentExtractors.class, name, MethodType.methodType(returnType, parameterTypes));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends Annotation> T find(Annotation[] annotations, Class<T> annotation) {
+		for (Annotation ann : annotations) {
+			if (ann.annotationType().equals(annotation)) {
+				return (T) ann;
+			}
+		}
+		return null;
+	}
+
+	static Deadline deadline(RoutingContext ctx) {
+		return Deadline.of(ctx);
+	}
+
+	/**
+	 * Reads a path parameter. The routers add the path values after the query ones, so the last value is taken and a
+	 * query parameter of the same name can't override it.
+	 */
+	static String param(String name, RoutingContext ctx) {
+		List<String> values = ctx.request().params().getAll(name);
+		return values.isEmpty() ? null : values.get(values.size() - 1);
+	}
+
+	/**
+	 * Reads a parameter of the query string only, the request params also hold the path params. The query string is
+	 * decoded once per request.
+	 */
+	static String query(String name, RoutingContext ctx) {
+		Map<String, List<String>> query = ctx.get(QUERY_KEY);
+		if (query == null) {
+			String raw = ctx.request().query();
+			query = raw == null ? Collections.emptyMap() : new QueryStringDecoder(raw, false).parameters();
+			ctx.put(QUERY_KEY, query);
+		}
+		List<String> values = query.get(name);
+		return values == null || values.isEmpty() ? null : values.get(0);
+	}
+
+	static String header(String name, RoutingContext ctx) {
+		return ctx.request().getHeader(name);
+	}
+
+	static Buffer body(RoutingContext ctx) {
+		return ctx.getBody();
+	}
+
+	static String bodyAsString(RoutingContext ctx) {
+		return ctx.getBodyAsString();
+	}
+
+	static Object bodyAs(RouteCodecs codecs, Class<?> type, RoutingContext ctx) {
+		Buffer body = ctx.getBody();
+		if (body == null || body.length() == 0) {
+			return null;
+		}
+		try {
+			return codecs.decoder(ctx.request().getHeader("Content-Type")).decode(body, type);
+		} catch (DecodeException e) {
+			throw new ParameterException("invalid body", e);
+		}
+	}
+
+	static ReadStream<?> bodyStream(long maxSize, boolean json, RoutingContext ctx) {
+		return new BodyStream<>(ctx, maxSize, json);
+	}
+
+	static File bodyFile(RoutingContext ctx) {
+		return ctx.get(StreamingBodyHandler.FILE_KEY);
+	}
+
+	static int toInt(String value) {
+		if (value == null || value.isEmpty()) {
+			return 0;
+		}
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new ParameterException("invalid int value '" + value + "'", e);
+		}
+	}
+
+	static Integer toInteger(String value) {
+		return value == null || value.isEmpty() ? null : toInt(value);
+	}
+
+	static long toLong(String value) {
+		if (value == null || value.isEmpty()) {
+			return 0L;
+		}
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new ParameterException("invalid long value '" + value + "'", e);
+		}
+	}
+
+	static Long toLongObject(String value) {
+		return value == null || value.isEmpty() ? null : toLong(value);
+	}
+
+	static boolean toBoolean(String value) {
+		if (value == null || value.isEmpty()) {
+			return false;
+		} else if ("true".equalsIgnoreCase(value)) {
+			return true;
+		} else if ("false".equalsIgnoreCase(value)) {
+			return false;
+		}
+		throw new ParameterException("invalid boolean value '" + value + "'", null);
+	}
+
+	static Boolean toBooleanObject(String value) {
+		return value == null || value.isEmpty() ? null : toBoolean(value);
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dinstone.vertx.web.annotation.Blocking;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Dispatches a route handler to the worker pool or to a virtual thread, optionally limiting how many calls of the
+ * route run at the same time. Requests over the limit wait in a bounded queue, and are answered 503 once it is full.
+ */
+public class BlockingHandler implements Handler<RoutingContext> {
+
+	public static final int DEFAULT_MAX_WAITING = 1000;
+
+	private final Handler<RoutingContext> handler;
+
+	private final boolean ordered;
+
+	private final Executor executor;
+
+	private final int maxConcurrency;
+
+	private final int maxWaiting;
+
+	private final AtomicInteger running = new AtomicInteger();
+
+	private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger waitingCount = new AtomicInteger();
+
+	public BlockingHandler(Handler<RoutingContext> handler, Blocking blocking) {
+		this(handler, blocking.ordered(), blocking.virtual() ? VirtualThreads.EXECUTOR : null, blocking.maxConcurrency(),
+			blocking.maxWaiting());
+	}
+
+	/**
+	 * @param executor
+	 *            the executor running the handler, null for the Vert.x worker pool
+	 */
+	public BlockingHandler(Handler<RoutingContext> handler, boolean ordered, Executor executor, int maxConcurrency) {
+		this(handler, ordered, executor, maxConcurrency, DEFAULT_MAX_WAITING);
+	}
+
+	/**
+	 * @param executor
+	 *            the executor running the handler, null for the Vert.x worker pool
+	 * @param maxWaiting
+	 *            the requests waiting for a slot, further ones are answered 503
+	 */
+	public BlockingHandler(Handler<RoutingContext> handler, boolean ordered, Executor executor, int maxConcurrency,
+			int maxWaiting) {
+		this.handler = handler;
+		this.ordered = ordered;
+		this.executor = executor;
+		this.maxConcurrency = maxConcurrency;
+		this.maxWaiting = maxWaiting;
+	}
+
+	@Override
+	public void handle(RoutingContext ctx) {
+		// dispatch from the event loop context, even when a worker thread releases the slot
+		Context context = ctx.vertx().getOrCreateContext();
+		if (maxConcurrency <= 0 || acquire()) {
+			dispatch(context, ctx);
+			return;
+		}
+
+		if (waitingCount.incrementAndGet() > maxWaiting) {
+			waitingCount.decrementAndGet();
+			AdmissionHandler.reject(ctx, 503, 0);
+			return;
+		}
+		waiting.add(() -> dispatch(context, ctx));
+		// a slot may have been released while queueing
+		if (acquire()) {
+			dispatchNext();
+		}
+	}
+
+	private void dispatch(Context context, RoutingContext ctx) {
+		if (executor == null) {
+			context.<Void> executeBlocking(future -> {
+				try {
+					handler.handle(ctx);
+				} finally {
+					release();
+				}
+				future.complete();
+			}, ordered, ar -> {
+				if (ar.failed()) {
+					ctx.fail(ar.cause());
+				}
+			});
+		} else {
+			executor.execute(() -> {
+				try {
+					handler.handle(ctx);
+				} catch (Throwable e) {
+					context.runOnContext(v -> ctx.fail(e));
+				} finally {
+					release();
+				}
+			});
+		}
+	}
+
+	private boolean acquire() {
+		for (;;) {
+			int current = running.get();
+			if (current >= maxConcurrency) {
+				return false;
+			}
+			if (running.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	private void release() {
+		if (maxConcurrency <= 0) {
+			return;
+		}
+		// hand the slot to a waiting request, or give it back
+		dispatchNext();
+	}
+
+	private void dispatchNext() {
+		for (;;) {
+			Runnable next = waiting.poll();
+			if (next != null) {
+				waitingCount.decrementAndGet();
+				next.run();
+				return;
+			}
+
+			running.decrementAndGet();
+			if (waiting.isEmpty() || !acquire()) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * The virtual thread executor of the runtime, null before Java 21.
+	 */
+	static final class VirtualThreads {
+
+		static final Executor EXECUTOR = create();
+
+		private static Executor create() {
+			try {
+				return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (ReflectiveOperationException e) {
+				return null;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.util.ArrayDeque;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * The request body of a {@code @Body ReadStream} parameter, as chunks or as the elements of a top-level JSON array.
+ * The request stays paused until a handler is set and while the stream is paused. A body over the size limit fails the
+ * route with 413 and malformed JSON with 400 as soon as they are read, the exception handler is notified first.
+ */
+final class BodyStream<T> implements ReadStream<T> {
+
+	private final RoutingContext ctx;
+
+	private final long maxSize;
+
+	private final JsonArrayParser parser;
+
+	private final ArrayDeque<T> queue = new ArrayDeque<>();
+
+	private long size;
+
+	private boolean paused = true;
+
+	private boolean ended;
+
+	private boolean closed;
+
+	private Handler<T> handler;
+
+	private Handler<Void> endHandler;
+
+	private Handler<Throwable> exceptionHandler;
+
+	BodyStream(RoutingContext ctx, long maxSize, boolean json) {
+		this.ctx = ctx;
+		this.maxSize = maxSize;
+		this.parser = json ? new JsonArrayParser(this::offer) : null;
+
+		HttpServerRequest request = ctx.request();
+		request.handler(this::data);
+		request.endHandler(v -> end());
+		request.exceptionHandler(this::error);
+	}
+
+	@Override
+	public ReadStream<T> exceptionHandler(Handler<Throwable> handler) {
+		this.exceptionHandler = handler;
+		return this;
+	}
+
+	@Override
+	public ReadStream<T> handler(Handler<T> handler) {
+		this.handler = handler;
+		return handler == null ? pause() : resume();
+	}
+
+	@Override
+	public ReadStream<T> pause() {
+		if (!paused) {
+			paused = true;
+			ctx.request().pause();
+		}
+		return this;
+	}
+
+	@Override
+	public ReadStream<T> resume() {
+		if (paused && handler != null) {
+			paused = false;
+			drain();
+			if (!paused && !ended) {
+				ctx.request().resume();
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public ReadStream<T> endHandler(Handler<Void> endHandler) {
+		this.endHandler = endHandler;
+		return this;
+	}
+
+	private void data(Buffer chunk) {
+		if (closed) {
+			return;
+		}
+
+		size += chunk.length();
+		if (maxSize >= 0 && size > maxSize) {
+			fail(new ParameterException(413, "request body exceeds " + maxSize + " bytes", null));
+			return;
+		}
+
+		if (parser == null) {
+			offer(chunk);
+		} else {
+			try {
+				parser.handle(chunk);
+			} catch (DecodeException e) {
+				fail(new ParameterException("invalid json body", e));
+				return;
+			}
+		}
+		drain();
+	}
+
+	private void end() {
+		if (closed) {
+			return;
+		}
+
+		if (parser != null) {
+			try {
+				parser.end();
+			} catch (DecodeException e) {
+				fail(new ParameterException("invalid json body", e));
+				return;
+			}
+		}
+		ended = true;
+		drain();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void offer(Object item) {
+		queue.add((T) item);
+	}
+
+	private void drain() {
+		while (!paused && !queue.isEmpty()) {
+			handler.handle(queue.poll());
+		}
+		if (!paused && ended && !closed) {
+			closed = true;
+			if (endHandler != null) {
+				endHandler.handle(null);
+			}
+		}
+	}
+
+	private void error(Throwable cause) {
+		if (!closed) {
+			closed = true;
+			queue.clear();
+			if (exceptionHandler != null) {
+				exceptionHandler.handle(cause);
+			}
+		}
+	}
+
+	private void fail(ParameterException e) {
+		error(e);
+		// the rest of the body is read and dropped
+		ctx.request().resume();
+		StreamingBodyHandler.reject(ctx, e.getStatusCode());
+	}
+
+}
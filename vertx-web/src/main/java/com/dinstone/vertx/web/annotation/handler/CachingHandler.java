@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.dinstone.vertx.web.annotation.Cacheable;
+
+import io.netty.buffer.Unpooled;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Serves a {@link Cacheable} route from its stored responses. A miss calls the resource method once per key, the
+ * requests missing the same key meanwhile get the same response. A stored response keeps its status, body and
+ * representation headers only, headers like Set-Cookie set for the request that rendered it are not replayed.
+ */
+final class CachingHandler implements Handler<RoutingContext> {
+
+	private static final char SEPARATOR = '\0';
+
+	private static final char MISSING = '\1';
+
+	private static final CharSequence[] REPRESENTATION_HEADERS = { HttpHeaders.CONTENT_TYPE, "Content-Language",
+			"Vary", HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED };
+
+	private final ResultInvoker invoker;
+
+	private final RouteCodecs codecs;
+
+	private final long ttl;
+
+	private final String[] params;
+
+	private final String[] headers;
+
+	private final boolean offHeap;
+
+	private final ResponseOptions options;
+
+	private final Map<String, Response> responses;
+
+	private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+
+	CachingHandler(ResultInvoker invoker, RouteCodecs codecs, Cacheable cacheable, ResponseOptions options) {
+		this.invoker = invoker;
+		this.codecs = codecs;
+		this.options = options;
+		this.ttl = cacheable.unit().toNanos(cacheable.ttl());
+		this.offHeap = cacheable.offHeap();
+
+		List<String> params = new ArrayList<>();
+		List<String> headers = new ArrayList<>();
+		for (String vary : cacheable.varyBy()) {
+			if (vary.startsWith("header:")) {
+				headers.add(vary.substring("header:".length()));
+			} else {
+				params.add(vary);
+			}
+		}
+		this.params = params.toArray(new String[params.size()]);
+		this.headers = headers.toArray(new String[headers.size()]);
+
+		final int maxEntries = cacheable.maxEntries();
+		this.responses = new LinkedHashMap<String, Response>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Response> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	@Override
+	public void handle(RoutingContext ctx) {
+		if (ctx.request().method() != HttpMethod.GET) {
+			try {
+				ResultWriter.write(ctx, invoker.invoke(ctx), codecs, options);
+			} catch (ParameterException e) {
+				ctx.fail(e.getStatusCode());
+			} catch (Throwable e) {
+				ctx.fail(e);
+			}
+			return;
+		}
+
+		String key = key(ctx);
+		Response response = lookup(key);
+		if (response != null) {
+			response.write(ctx);
+			return;
+		}
+
+		Flight flight = new Flight();
+		Flight running = flights.putIfAbsent(key, flight);
+		if (running != null) {
+			running.join(ctx);
+			return;
+		}
+		// a leader ending without a result, failed, timed out or closed, releases its waiters
+		ctx.addBodyEndHandler(v -> abandon(key, flight, ctx.response().getStatusCode()));
+		ResponseHooks.onClose(ctx, v -> abandon(key, flight, 503));
+		invoke(ctx, key, flight);
+	}
+
+	/**
+	 * Returns the number of stored responses, expired ones included.
+	 */
+	int size() {
+		synchronized (responses) {
+			return responses.size();
+		}
+	}
+
+	private void invoke(RoutingContext ctx, String key, Flight flight) {
+		Object result;
+		try {
+			result = invoker.invoke(ctx);
+		} catch (Throwable e) {
+			complete(key, flight, null, e);
+			if (e instanceof ParameterException) {
+				ctx.fail(((ParameterException) e).getStatusCode());
+			} else {
+				ctx.fail(e);
+			}
+			return;
+		}
+
+		ResultWriter.await(ctx, result, (value, error) -> {
+			Response response = null;
+			if (error == null) {
+				try {
+					response = render(ctx, value);
+				} catch (RuntimeException e) {
+					error = e;
+				}
+			}
+			complete(key, flight, response, error);
+			if (error != null) {
+				ctx.fail(error);
+			} else {
+				response.write(ctx);
+			}
+		});
+	}
+
+	private Response render(RoutingContext ctx, Object value) {
+		if (value instanceof ReadStream) {
+			throw new IllegalStateException("stream results can't be cached");
+		}
+
+		Buffer body = ResultWriter.encode(ctx, value, codecs);
+		if (offHeap) {
+			ByteBuffer direct = ByteBuffer.allocateDirect(body.length());
+			direct.put(body.getByteBuf().nioBuffer()).flip();
+			body = Buffer.buffer(Unpooled.wrappedBuffer(direct));
+		}
+
+		HttpServerResponse response = ctx.response();
+		if (options != null && options.conditional() && !response.headers().contains(HttpHeaders.ETAG)) {
+			response.putHeader(HttpHeaders.ETAG, Conditionals.etag(body));
+		}
+		return new Response(response.getStatusCode(), representation(response.headers()), body,
+			System.nanoTime() + ttl, options);
+	}
+
+	/**
+	 * Copies the headers describing the body, those that can be shared with other requests.
+	 */
+	static MultiMap representation(MultiMap headers) {
+		MultiMap copy = MultiMap.caseInsensitiveMultiMap();
+		for (CharSequence name : REPRESENTATION_HEADERS) {
+			List<String> values = headers.getAll(name.toString());
+			if (!values.isEmpty()) {
+				copy.add(name.toString(), values);
+			}
+		}
+		return copy;
+	}
+
+	private void complete(String key, Flight flight, Response response, Throwable error) {
+		if (response != null && response.status == 200) {
+			synchronized (responses) {
+				responses.put(key, response);
+			}
+		}
+		if (flights.remove(key, flight)) {
+			flight.complete(response, error);
+		}
+	}
+
+	/**
+	 * Answers the waiters of a flight whose leader ended without a result with the status, nothing is stored.
+	 */
+	private void abandon(String key, Flight flight, int status) {
+		if (flights.remove(key, flight)) {
+			flight.complete(new Response(status, MultiMap.caseInsensitiveMultiMap(), Buffer.buffer(0), 0, null), null);
+		}
+	}
+
+	private Response lookup(String key) {
+		synchronized (responses) {
+			Response response = responses.get(key);
+			if (response == null) {
+				return null;
+			}
+			if (response.expires - System.nanoTime() > 0) {
+				return response;
+			}
+			responses.remove(key);
+			return null;
+		}
+	}
+
+	private String key(RoutingContext ctx) {
+		HttpServerRequest request = ctx.request();
+		StringBuilder key = new StringBuilder(64);
+		if (params.length == 0 && headers.length == 0) {
+			key.append(request.uri());
+		} else {
+			key.append(ctx.normalisedPath());
+			for (String param : params) {
+				append(key, request.getParam(param));
+			}
+			for (String header : headers) {
+				append(key, request.getHeader(header));
+			}
+		}
+		String contentType = ctx.getAcceptableContentType();
+		if (contentType != null) {
+			key.append(SEPARATOR).append(contentType);
+		}
+		return key.toString();
+	}
+
+	private static void append(StringBuilder key, String value) {
+		if (value == null) {
+			key.append(MISSING);
+		} else {
+			key.append(SEPARATOR).append(value);
+		}
+	}
+
+	private static final class Response {
+
+		final int status;
+
+		final MultiMap headers;
+
+		final Buffer body;
+
+		final long expires;
+
+		final ResponseOptions options;
+
+		final Map<String, Buffer> variants;
+
+		Response(int status, MultiMap headers, Buffer body, long expires, ResponseOptions options) {
+			this.status = status;
+			this.headers = headers;
+			this.body = body;
+			this.expires = expires;
+			this.options = options;
+			this.variants = options == null ? null : new ConcurrentHashMap<>(2);
+		}
+
+		void write(RoutingContext ctx) {
+			HttpServerResponse response = ctx.response();
+			if (response.ended()) {
+				return;
+			}
+			response.setStatusCode(status);
+			// keeps the headers of this request
+			for (String name : headers.names()) {
+				response.headers().set(name, headers.getAll(name));
+			}
+			if (options != null) {
+				options.end(ctx, body, variants);
+			} else {
+				response.end(body);
+			}
+		}
+	}
+
+	/**
+	 * One call of the resource method, and the requests waiting for its response.
+	 */
+	private static final class Flight {
+
+		private List<RoutingContext> waiters = new ArrayList<>();
+
+		private List<Context> contexts = new ArrayList<>();
+
+		private Response response;
+
+		private Throwable error;
+
+		void join(RoutingContext ctx) {
+			synchronized (this) {
+				if (waiters != null) {
+					waiters.add(ctx);
+					contexts.add(Vertx.currentContext());
+					return;
+				}
+			}
+			deliver(ctx, response, error);
+		}
+
+		void complete(Response response, Throwable error) {
+			List<RoutingContext> waiters;
+			List<Context> contexts;
+			synchronized (this) {
+				this.response = response;
+				this.error = error;
+				waiters = this.waiters;
+				contexts = this.contexts;
+				this.waiters = null;
+				this.contexts = null;
+			}
+
+			Context current = Vertx.currentContext();
+			for (int i = 0; i < waiters.size(); i++) {
+				RoutingContext ctx = waiters.get(i);
+				Context context = contexts.get(i);
+				if (context == null || context == current) {
+					deliver(ctx, response, error);
+				} else {
+					context.runOnContext(v -> deliver(ctx, response, error));
+				}
+			}
+		}
+
+		private static void deliver(RoutingContext ctx, Response response, Throwable error) {
+			if (error != null) {
+				ctx.fail(error);
+			} else {
+				response.write(ctx);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.dinstone.vertx.web.annotation.Coalesce;
+import com.dinstone.vertx.web.annotation.HeaderParam;
+import com.dinstone.vertx.web.annotation.QueryParam;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Coalesces the identical GET requests of a {@link Coalesce} route: the first request of a key runs the route, the
+ * requests arriving on its event loop meanwhile wait for it and get the same status, representation headers and body.
+ * Flights are kept in a map per event loop thread, so joining one takes no lock.
+ */
+final class CoalescingHandler implements Handler<RoutingContext> {
+
+	private static final char SEPARATOR = '\0';
+
+	private static final String FLIGHT = CoalescingHandler.class.getName();
+
+	private final Handler<RoutingContext> handler;
+
+	private final String[] params;
+
+	private final String[] headers;
+
+	private final ThreadLocal<Map<String, Flight>> flights = ThreadLocal.withInitial(HashMap::new);
+
+	/**
+	 * @param handler
+	 *            the route, ending with a {@link Leader}
+	 * @throws IllegalStateException
+	 *             if the method takes the {@link RoutingContext}, the key can't cover what it reads
+	 */
+	CoalescingHandler(Method method, Handler<RoutingContext> handler) {
+		this.handler = handler;
+
+		List<String> params = new ArrayList<>();
+		List<String> headers = new ArrayList<>();
+		Class<?>[] types = method.getParameterTypes();
+		Annotation[][] annotations = method.getParameterAnnotations();
+		for (int i = 0; i < types.length; i++) {
+			if (types[i].isAssignableFrom(RoutingContext.class)) {
+				throw new IllegalStateException("@Coalesce method can't take the routing context " + method);
+			}
+			for (Annotation annotation : annotations[i]) {
+				if (annotation instanceof QueryParam) {
+					params.add(((QueryParam) annotation).value());
+				} else if (annotation instanceof HeaderParam) {
+					headers.add(((HeaderParam) annotation).value());
+				}
+			}
+		}
+		this.params = params.toArray(new String[params.size()]);
+		this.headers = headers.toArray(new String[headers.size()]);
+	}
+
+	@Override
+	public void handle(RoutingContext ctx) {
+		if (ctx.request().method() != HttpMethod.GET) {
+			handler.handle(ctx);
+			return;
+		}
+
+		String key = key(ctx);
+		Map<String, Flight> running = flights.get();
+		Flight flight = running.get(key);
+		if (flight != null) {
+			flight.waiters.add(ctx);
+			return;
+		}
+
+		Flight leader = new Flight(key, running, ctx.vertx().getOrCreateContext());
+		running.put(key, leader);
+		ctx.put(FLIGHT, leader);
+		// a response the leader didn't record, an error or a 304, is replayed as is
+		ctx.addBodyEndHandler(v -> leader.complete(Response.head(ctx.response())));
+		handler.handle(ctx);
+	}
+
+	private String key(RoutingContext ctx) {
+		HttpServerRequest request = ctx.request();
+		StringBuilder key = new StringBuilder(64);
+		key.append(ctx.normalisedPath());
+		for (String param : params) {
+			key.append(SEPARATOR).append(ArgumentExtractors.query(param, ctx));
+		}
+		for (String header : headers) {
+			key.append(SEPARATOR).append(request.getHeader(header));
+		}
+		key.append(SEPARATOR).append(ctx.getAcceptableContentType());
+		key.append(SEPARATOR).append(request.getHeader(HttpHeaders.IF_NONE_MATCH));
+		key.append(SEPARATOR).append(request.getHeader(HttpHeaders.IF_MODIFIED_SINCE));
+		return key.toString();
+	}
+
+	/**
+	 * Calls the resource method of a coalesced route, and records the response of a leading request for its
+	 * followers.
+	 */
+	static final class Leader implements Handler<RoutingContext> {
+
+		private final ResultInvoker invoker;
+
+		private final RouteCodecs codecs;
+
+		private final ResponseOptions options;
+
+		Leader(ResultInvoker invoker, RouteCodecs codecs, ResponseOptions options) {
+			this.invoker = invoker;
+			this.codecs = codecs;
+			this.options = options;
+		}
+
+		@Override
+		public void handle(RoutingContext ctx) {
+			Object result;
+			try {
+				result = invoker.invoke(ctx);
+			} catch (ParameterException e) {
+				ctx.fail(e.getStatusCode());
+				return;
+			} catch (Throwable e) {
+				ctx.fail(e);
+				return;
+			}
+
+			Flight flight = ctx.get(FLIGHT);
+			if (flight == null) {
+				ResultWriter.write(ctx, result, codecs, options);
+				return;
+			}
+
+			ResultWriter.await(ctx, result, (value, error) -> {
+				if (error != null) {
+					ctx.fail(error);
+					return;
+				}
+
+				Response response;
+				try {
+					response = render(ctx, value);
+				} catch (RuntimeException e) {
+					ctx.fail(e);
+					return;
+				}
+				flight.complete(response);
+				response.write(ctx);
+			});
+		}
+
+		private Response render(RoutingContext ctx, Object value) {
+			if (value instanceof ReadStream) {
+				throw new IllegalStateException("stream results can't be coalesced");
+			}
+
+			Buffer body = ResultWriter.encode(ctx, value, codecs);
+			HttpServerResponse response = ctx.response();
+			if (options != null && options.conditional() && !response.headers().contains(HttpHeaders.ETAG)) {
+				response.putHeader(HttpHeaders.ETAG, Conditionals.etag(body));
+			}
+			return new Response(response.getStatusCode(), CachingHandler.representation(response.headers()), body,
+				options);
+		}
+	}
+
+	private static final class Response {
+
+		final int status;
+
+		final MultiMap headers;
+
+		final Buffer body;
+
+		final ResponseOptions options;
+
+		final Map<String, Buffer> variants;
+
+		Response(int status, MultiMap headers, Buffer body, ResponseOptions options) {
+			this.status = status;
+			this.headers = headers;
+			this.body = body;
+			this.options = options;
+			this.variants = options == null ? null : new ConcurrentHashMap<>(2);
+		}
+
+		/**
+		 * The status and representation headers of an ended response, without its body.
+		 */
+		static Response head(HttpServerResponse response) {
+			return new Response(response.getStatusCode(), CachingHandler.representation(response.headers()),
+				Buffer.buffer(0), null);
+		}
+
+		void write(RoutingContext ctx) {
+			HttpServerResponse response = ctx.response();
+			if (response.ended()) {
+				return;
+			}
+			response.setStatusCode(status);
+			// keeps the headers of this request
+			for (String name : headers.names()) {
+				response.headers().set(name, headers.getAll(name));
+			}
+			if (options != null) {
+				options.end(ctx, body, variants);
+			} else {
+				response.end(body);
+			}
+		}
+	}
+
+	/**
+	 * A running request and the requests waiting for its response, only touched on the event loop of the map holding
+	 * it.
+	 */
+	private static final class Flight {
+
+		final String key;
+
+		final Map<String, Flight> flights;
+
+		final Context context;
+
+		final List<RoutingContext> waiters = new ArrayList<>();
+
+		boolean done;
+
+		Flight(String key, Map<String, Flight> flights, Context context) {
+			this.key = key;
+			this.flights = flights;
+			this.context = context;
+		}
+
+		/**
+		 * Completes the flight on its event loop, the first response wins.
+		 */
+		void complete(Response response) {
+			if (Context.isOnEventLoopThread() && Vertx.currentContext() == context) {
+				finish(response);
+			} else {
+				context.runOnContext(v -> finish(response));
+			}
+		}
+
+		private void finish(Response response) {
+			if (done) {
+				return;
+			}
+			done = true;
+			flights.remove(key, this);
+			for (RoutingContext waiter : waiters) {
+				response.write(waiter);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Negotiates and applies the {@code gzip} and {@code deflate} content codings, with a deflater reused by each thread.
+ */
+final class Compression {
+
+	static final String GZIP = "gzip";
+
+	static final String DEFLATE = "deflate";
+
+	private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+	private static final ThreadLocal<Deflater> RAW = ThreadLocal.withInitial(() -> new Deflater(6, true));
+
+	private static final ThreadLocal<Deflater> ZLIB = ThreadLocal.withInitial(() -> new Deflater(6, false));
+
+	private static final ThreadLocal<byte[]> CHUNKS = ThreadLocal.withInitial(() -> new byte[8192]);
+
+	private Compression() {
+	}
+
+	/**
+	 * Returns the codings of a {@link com.dinstone.vertx.web.annotation.Compress} route in lower case.
+	 *
+	 * @throws IllegalStateException
+	 *             if a coding is neither {@code gzip} nor {@code deflate}
+	 */
+	static String[] algorithms(String[] names) {
+		String[] algorithms = new String[names.length];
+		for (int i = 0; i < names.length; i++) {
+			String name = names[i].trim().toLowerCase(Locale.ENGLISH);
+			if (!name.equals(GZIP) && !name.equals(DEFLATE)) {
+				throw new IllegalStateException("unsupported content coding " + names[i]);
+			}
+			algorithms[i] = name;
+		}
+		return algorithms;
+	}
+
+	/**
+	 * Returns the accepted coding with the highest weight, the first one of the route on a tie, or null if none is
+	 * accepted.
+	 */
+	static String negotiate(String acceptEncoding, String[] algorithms) {
+		if (acceptEncoding == null) {
+			return null;
+		}
+
+		String best = null;
+		float bestWeight = 0;
+		for (String algorithm : algorithms) {
+			float weight = weight(acceptEncoding, algorithm);
+			if (weight > bestWeight) {
+				best = algorithm;
+				bestWeight = weight;
+			}
+		}
+		return best;
+	}
+
+	static Buffer compress(Buffer body, String algorithm) {
+		ByteBuf buf = body.getByteBuf();
+		byte[] input;
+		int offset;
+		int length = buf.readableBytes();
+		if (buf.hasArray()) {
+			input = buf.array();
+			offset = buf.arrayOffset() + buf.readerIndex();
+		} else {
+			input = body.getBytes();
+			offset = 0;
+		}
+
+		boolean gzip = GZIP.equals(algorithm);
+		Deflater deflater = gzip ? RAW.get() : ZLIB.get();
+		Buffer out = Buffer.buffer(length / 4 + 32);
+		if (gzip) {
+			out.appendBytes(GZIP_HEADER);
+		}
+
+		byte[] chunk = CHUNKS.get();
+		deflater.reset();
+		deflater.setInput(input, offset, length);
+		deflater.finish();
+		while (!deflater.finished()) {
+			int n = deflater.deflate(chunk);
+			out.appendBytes(chunk, 0, n);
+		}
+
+		if (gzip) {
+			CRC32 crc = new CRC32();
+			crc.update(input, offset, length);
+			appendIntLE(out, (int) crc.getValue());
+			appendIntLE(out, length);
+		}
+		return out;
+	}
+
+	private static void appendIntLE(Buffer out, int value) {
+		out.appendByte((byte) value).appendByte((byte) (value >>> 8)).appendByte((byte) (value >>> 16))
+			.appendByte((byte) (value >>> 24));
+	}
+
+	/**
+	 * Returns the weight of the coding in the header, or of {@code *} if the coding isn't listed.
+	 */
+	private static float weight(String acceptEncoding, String coding) {
+		float wildcard = 0;
+		for (String entry : acceptEncoding.split(",")) {
+			String[] parts = entry.split(";");
+			String name = parts[0].trim();
+			float weight = 1;
+			for (int i = 1; i < parts.length; i++) {
+				String param = parts[i].trim();
+				if (param.startsWith("q=")) {
+					try {
+						weight = Float.parseFloat(param.substring(2));
+					} catch (NumberFormatException e) {
+						weight = 0;
+					}
+				}
+			}
+			if (name.equalsIgnoreCase(coding)) {
+				return weight;
+			}
+			if (name.equals("*")) {
+				wildcard = weight;
+			}
+		}
+		return wildcard;
+	}
+
+}
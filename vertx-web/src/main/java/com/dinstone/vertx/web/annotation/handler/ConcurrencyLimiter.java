@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dinstone.vertx.web.annotation.MaxConcurrent;
+
+/**
+ * Counts the requests of a {@link MaxConcurrent} route in progress. An adaptive limit follows the gradient between
+ * the minimum and the smoothed latency: it shrinks as requests queue up and grows by about its square root while the
+ * latency stays flat. Latency samples are racy, a lost update only delays the adjustment.
+ */
+final class ConcurrencyLimiter {
+
+	private static final double SMOOTHING = 0.1;
+
+	private static final int MIN_RTT_SAMPLES = 1000;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final boolean adaptive;
+
+	private final int maxLimit;
+
+	private volatile int limit;
+
+	private volatile double smoothedRtt;
+
+	private volatile long minRtt = Long.MAX_VALUE;
+
+	private int samples;
+
+	ConcurrencyLimiter(MaxConcurrent maxConcurrent) {
+		this.limit = maxConcurrent.value();
+		this.adaptive = maxConcurrent.adaptive();
+		this.maxLimit = Math.max(maxConcurrent.maxLimit(), maxConcurrent.value());
+	}
+
+	boolean tryAcquire() {
+		for (;;) {
+			int current = inFlight.get();
+			if (current >= limit) {
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Gives back the slot of a request started at the time.
+	 */
+	void release(long startNanos) {
+		inFlight.decrementAndGet();
+		if (adaptive) {
+			sample(System.nanoTime() - startNanos);
+		}
+	}
+
+	int limit() {
+		return limit;
+	}
+
+	private void sample(long rtt) {
+		if (++samples >= MIN_RTT_SAMPLES) {
+			// forget the minimum now and then, the no-load latency drifts
+			samples = 0;
+			minRtt = rtt;
+		} else if (rtt < minRtt) {
+			minRtt = rtt;
+		}
+
+		double smoothed = smoothedRtt == 0 ? rtt : smoothedRtt * (1 - SMOOTHING) + rtt * SMOOTHING;
+		smoothedRtt = smoothed;
+
+		int current = limit;
+		double gradient = Math.max(0.5, Math.min(1.0, minRtt / smoothed));
+		double target = current * gradient + Math.sqrt(current);
+		limit = (int) Math.max(1, Math.min(maxLimit, Math.round(current * 0.8 + target * 0.2)));
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import com.dinstone.vertx.web.Validator;
+
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Calls the validator method of a {@link com.dinstone.vertx.web.annotation.Conditional} route before the route
+ * handler, and answers 304 without calling the handler when the client copy is current.
+ */
+final class ConditionalHandler implements Handler<RoutingContext> {
+
+	private final ResultInvoker validator;
+
+	private final Handler<RoutingContext> handler;
+
+	ConditionalHandler(ResultInvoker validator, Handler<RoutingContext> handler) {
+		this.validator = validator;
+		this.handler = handler;
+	}
+
+	@Override
+	public void handle(RoutingContext ctx) {
+		if (Conditionals.applies(ctx)) {
+			Validator value;
+			try {
+				value = (Validator) validator.invoke(ctx);
+			} catch (ParameterException e) {
+				ctx.fail(e.getStatusCode());
+				return;
+			} catch (Throwable e) {
+				ctx.fail(e);
+				return;
+			}
+
+			if (value != null) {
+				Conditionals.validators(ctx, value);
+				if (Conditionals.notModified(ctx)) {
+					Conditionals.notModified(ctx.response());
+					return;
+				}
+			}
+		}
+		handler.handle(ctx);
+	}
+
+}
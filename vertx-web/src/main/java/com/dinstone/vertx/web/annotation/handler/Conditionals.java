@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.dinstone.vertx.web.Validator;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Validators of {@link com.dinstone.vertx.web.annotation.Conditional} routes, following RFC 7232.
+ */
+final class Conditionals {
+
+	private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	});
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	private Conditionals() {
+	}
+
+	/**
+	 * Only GET and HEAD responses are answered with 304.
+	 */
+	static boolean applies(RoutingContext ctx) {
+		HttpMethod method = ctx.request().method();
+		return method == HttpMethod.GET || method == HttpMethod.HEAD;
+	}
+
+	/**
+	 * Returns a strong ETag hashing the body in place. Codecs encode a result into one buffer, so the hash is taken
+	 * once the body is complete rather than while it is encoded.
+	 */
+	static String etag(Buffer body) {
+		MessageDigest digest = DIGESTS.get();
+		digest.update(body.getByteBuf().nioBuffer());
+		return '"' + ENCODER.encodeToString(digest.digest()) + '"';
+	}
+
+	static void validators(RoutingContext ctx, Validator validator) {
+		HttpServerResponse response = ctx.response();
+		if (validator.etag() != null) {
+			response.putHeader(HttpHeaders.ETAG, validator.etag());
+		}
+		if (validator.lastModified() != null) {
+			response.putHeader(HttpHeaders.LAST_MODIFIED, validator.lastModified());
+		}
+	}
+
+	/**
+	 * Returns the ETag of a compressed variant, distinct from the ETag of the identity body.
+	 */
+	static String variant(String etag, String encoding) {
+		int end = etag.lastIndexOf('"');
+		return end <= 0 ? etag : etag.substring(0, end) + '-' + encoding + '"';
+	}
+
+	static void notModified(HttpServerResponse response) {
+		response.headers().remove(HttpHeaders.CONTENT_TYPE);
+		response.setStatusCode(304).end();
+	}
+
+	/**
+	 * Compares the validators of the request with the ETag and Last-Modified headers of the response,
+	 * {@code If-Modified-Since} only counts without {@code If-None-Match}.
+	 */
+	static boolean notModified(RoutingContext ctx) {
+		HttpServerRequest request = ctx.request();
+		HttpServerResponse response = ctx.response();
+		String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+		if (ifNoneMatch != null) {
+			String etag = response.headers().get(HttpHeaders.ETAG);
+			return etag != null && matches(ifNoneMatch, etag);
+		}
+
+		String ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+		String lastModified = response.headers().get(HttpHeaders.LAST_MODIFIED);
+		if (ifModifiedSince == null || lastModified == null) {
+			return false;
+		}
+		try {
+			return !parse(lastModified).isAfter(parse(ifModifiedSince));
+		} catch (DateTimeParseException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Weak comparison of an {@code If-None-Match} list with an ETag.
+	 */
+	private static boolean matches(String ifNoneMatch, String etag) {
+		String opaque = opaque(etag);
+		for (String candidate : ifNoneMatch.split(",")) {
+			candidate = candidate.trim();
+			if (candidate.equals("*") || opaque(candidate).equals(opaque)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String opaque(String etag) {
+		return etag.startsWith("W/") ? etag.substring(2) : etag;
+	}
+
+	private static ZonedDateTime parse(String date) {
+		return ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME);
+	}
+
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Content negotiation of one route, compiled from its produces and consumes media types when the route is built
+ * instead of being matched by Vert.x on every request. The outcome for a raw Accept or Content-Type header is kept in
+ * a small {@link HeaderCache}, so the few distinct headers an API sees resolve with one hash lookup and no allocation,
+ * however many others clients send.
+ * Matching follows the Vert.x route matching: the chosen type becomes the acceptable content type and the response
+ * Content-Type, and a request the route can't serve goes on to the next route. A route registered as several
+ * handlers negotiates in the first one, the others reuse its outcome.
+ */
+public final class ContentNegotiator {
+
+	private static final int MAX_CACHED = 32;
+
+	private static final Integer NO_MATCH = -1;
+
+	private static final AtomicLong IDS = new AtomicLong();
+
+	private final String key = ContentNegotiator.class.getName() + "." + IDS.incrementAndGet();
+
+	private final MediaType[] produces;
+
+	private final CharSequence[] contentTypes;
+
+	private final MediaType[] consumes;
+
+	private final boolean consumesMissing;
+
+	private final HeaderCache<Integer> accepted = new HeaderCache<>(MAX_CACHED);
+
+	private final HeaderCache<Boolean> consumed = new HeaderCache<>(MAX_CACHED);
+
+	private ContentNegotiator(String[] produces, String[] consumes) {
+		this.produces = compile(produces);
+		this.consumes = compile(consumes);
+		if (this.produces != null) {
+			contentTypes = new CharSequence[produces.length];
+			for (int i = 0; i < produces.length; i++) {
+				contentTypes[i] = HttpHeaders.createOptimized(this.produces[i].value);
+			}
+		} else {
+			contentTypes = null;
+		}
+		consumesMissing = this.consumes != null && matchContentType(null);
+	}
+
+	/**
+	 * Returns the handler negotiating the content type before calling the route handler, or the route handler if the
+	 * media types are empty.
+	 */
+	public static Handler<RoutingContext> wrap(String[] produces, String[] consumes, Handler<RoutingContext> handler) {
+		ContentNegotiator negotiator = create(produces, consumes);
+		return negotiator == null ? handler : negotiator.wrap(handler, false);
+	}
+
+	/**
+	 * Returns the negotiator of the media types, or null if they are empty.
+	 */
+	public static ContentNegotiator create(String[] produces, String[] consumes) {
+		if ((produces == null || produces.length == 0) && (consumes == null || consumes.length == 0)) {
+			return null;
+		}
+		return new ContentNegotiator(produces, consumes);
+	}
+
+	/**
+	 * Returns the first handler of the route, negotiating before calling the handler, and keeping the outcome in the
+	 * context for the handlers of the route added with {@link #reuse(Handler)} if {@code keep} is true.
+	 */
+	public Handler<RoutingContext> wrap(Handler<RoutingContext> handler, boolean keep) {
+		return ctx -> {
+			boolean accepted = negotiate(ctx);
+			if (keep) {
+				ctx.put(key, accepted);
+			}
+			if (accepted) {
+				handler.handle(ctx);
+			} else {
+				ctx.next();
+			}
+		};
+	}
+
+	/**
+	 * Returns a later handler of the route, calling the handler if the first handler accepted the request.
+	 */
+	public Handler<RoutingContext> reuse(Handler<RoutingContext> handler) {
+		return ctx -> {
+			Boolean accepted = ctx.get(key);
+			if (accepted == null ? negotiate(ctx) : accepted) {
+				handler.handle(ctx);
+			} else {
+				ctx.next();
+			}
+		};
+	}
+
+	boolean negotiate(RoutingContext ctx) {
+		HttpServerRequest request = ctx.request();
+		if (consumes != null) {
+			String contentType = request.headers().get(HttpHeaders.CONTENT_TYPE);
+			if (contentType == null ? !consumesMissing : !consumes(contentType)) {
+				return false;
+			}
+		}
+
+		if (produces != null) {
+			String accept = request.headers().get(HttpHeaders.ACCEPT);
+			int index = accept == null ? 0 : select(accept);
+			if (index < 0) {
+				return false;
+			}
+			ctx.setAcceptableContentType(produces[index].value);
+			ctx.response().putHeader(HttpHeaders.CONTENT_TYPE, contentTypes[index]);
+		}
+		return true;
+	}
+
+	private int select(String accept) {
+		Integer index = accepted.get(accept);
+		if (index == null) {
+			index = matchAccept(accept);
+			accepted.put(accept, index);
+		}
+		return index;
+	}
+
+	private boolean consumes(String contentType) {
+		Boolean matched = consumed.get(contentType);
+		if (matched == null) {
+			matched = matchContentType(contentType);
+			consumed.put(contentType, matched);
+		}
+		return matched;
+	}
+
+	private Integer matchAccept(String accept) {
+		for (MediaType acceptable : sortedAcceptable(accept)) {
+			for (int i = 0; i < produces.length; i++) {
+				if (acceptable.matches(produces[i])) {
+					return i;
+				}
+			}
+		}
+		return NO_MATCH;
+	}
+
+	private boolean matchContentType(String contentType) {
+		MediaType actual = contentType == null ? null : new MediaType(contentType, false);
+		for (MediaType consume : consumes) {
+			if (consume.any || actual != null && consume.matches(actual)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<MediaType> sortedAcceptable(String accept) {
+		List<MediaType> types = new ArrayList<>();
+		for (String item : accept.split(",")) {
+			MediaType type = new MediaType(item, false);
+			if (type.quality > 0) {
+				types.add(type);
+			}
+		}
+		// stable, so types of the same quality keep the order of the header
+		types.sort((a, b) -> Float.compare(b.quality, a.quality));
+		return types;
+	}
+
+	private static MediaType[] compile(String[] mediaTypes) {
+		if (mediaTypes == null || mediaTypes.length == 0) {
+			return null;
+		}
+		MediaType[] compiled = new MediaType[mediaTypes.length];
+		for (int i = 0; i < mediaTypes.length; i++) {
+			compiled[i] = new MediaType(mediaTypes[i], true);
+		}
+		return compiled;
+	}
+
+	/**
+	 * A parsed media type, a type without a slash like {@code json} stands for {@code *}{@code /json}. The types of
+	 * the route are interned, those of request headers are not, so clients can't grow the string table.
+	 */
+	private static final class MediaType {
+
+		final String value;
+
+		final String type;
+
+		final String subtype;
+
+		final boolean any;
+
+		final float quality;
+
+		MediaType(String mediaType, boolean intern) {
+			String[] parts = mediaType.split(";");
+			String base = parts[0].trim().toLowerCase(Locale.ENGLISH);
+			float q = 1;
+			for (int i = 1; i < parts.length; i++) {
+				String param = parts[i].trim();
+				if (param.startsWith("q=")) {
+					try {
+						q = Float.parseFloat(param.substring(2));
+					} catch (NumberFormatException e) {
+						q = 0;
+					}
+				}
+			}
+
+			this.any = base.equals("*") || base.equals("*/*");
+			int slash = base.indexOf('/');
+			String type = slash < 0 ? "*" : base.substring(0, slash);
+			String subtype = slash < 0 ? base : base.substring(slash + 1);
+			this.value = intern ? mediaType.intern() : mediaType;
+			this.type = intern ? type.intern() : type;
+			this.subtype = intern ? subtype.intern() : subtype;
+			this.quality = q;
+		}
+
+		/**
+		 * Returns true if this type, possibly a wildcard, allows the other type.
+		 */
+		boolean matches(MediaType other) {
+			return any || (type.equals("*") || type.equals(other.type))
+					&& (subtype.equals("*") || subtype.equals(other.subtype));
+		}
+	}
+
+}
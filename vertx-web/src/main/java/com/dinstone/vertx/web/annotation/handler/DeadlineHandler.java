@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.dinstone.vertx.web.Deadline;
+import com.dinstone.vertx.web.annotation.Timeout;
+
+import io.netty.util.HashedWheelTimer;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Arms the {@link Timeout} of a request as a single entry of a timer wheel shared by the process, and ends the
+ * response with the timeout status if the route hasn't ended it when it fires, or closes the connection if the route
+ * has already written the head.
+ */
+final class DeadlineHandler implements Handler<RoutingContext> {
+
+	private final long timeout;
+
+	private final int status;
+
+	DeadlineHandler(Timeout timeout) {
+		if (timeout.status() != 503 && timeout.status() != 504) {
+			throw new IllegalStateException("@Timeout status must be 503 or 504, not " + timeout.status());
+		}
+		this.timeout = timeout.value();
+		this.status = timeout.status();
+	}
+
+	@Override
+	public void handle(RoutingContext ctx) {
+		Deadline.set(ctx, Deadline.after(timeout, TimeUnit.MILLISECONDS));
+
+		Context context = ctx.vertx().getOrCreateContext();
+		io.netty.util.Timeout entry = Wheel.TIMER.newTimeout(t -> context.runOnContext(v -> expire(ctx)), timeout,
+			TimeUnit.MILLISECONDS);
+		Handler<Void> cancel = v -> entry.cancel();
+		ctx.addBodyEndHandler(cancel);
+		ResponseHooks.onClose(ctx, cancel);
+
+		ctx.next();
+	}
+
+	private void expire(RoutingContext ctx) {
+		HttpServerResponse response = ctx.response();
+		if (response.ended() || response.closed()) {
+			return;
+		}
+		if (response.headWritten()) {
+			response.close();
+		} else {
+			response.setStatusCode(status).end();
+		}
+	}
+
+	/**
+	 * The shared wheel, ticking every 10 ms on a daemon thread, created on first use.
+	 */
+	private static final class Wheel {
+
+		static final HashedWheelTimer TIMER = new HashedWheelTimer(daemon(), 10, TimeUnit.MILLISECONDS, 512);
+
+		private static ThreadFactory daemon() {
+			return r -> {
+				Thread thread = new Thread(r, "vertx-web-deadline-timer");
+				thread.setDaemon(true);
+				return thread;
+			};
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.dinstone.vertx.web.RouteFilter;
+
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Composes the filters of a route with its handler into one handler, when the route is bound: the {@code before}
+ * hooks the filters override are nested around the handler, their {@code after} hooks folded into one headers end
+ * handler. Filters overriding neither cost nothing.
+ */
+final class FilterChain {
+
+	private FilterChain() {
+	}
+
+	static Handler<RoutingContext> wrap(RouteFilter[] filters, Handler<RoutingContext> handler) {
+		List<RouteFilter> befores = new ArrayList<>();
+		List<RouteFilter> afters = new ArrayList<>();
+		for (RouteFilter filter : filters) {
+			if (overrides(filter, "before")) {
+				befores.add(filter);
+			}
+			if (overrides(filter, "after")) {
+				afters.add(filter);
+			}
+		}
+
+		Handler<RoutingContext> chain = handler;
+		for (int i = befores.size() - 1; i >= 0; i--) {
+			chain = before(befores.get(i), chain);
+		}
+
+		Handler<RoutingContext> after = null;
+		for (int i = afters.size() - 1; i >= 0; i--) {
+			after = after(afters.get(i), after);
+		}
+		if (after != null) {
+			chain = headersEnd(after, chain);
+		}
+		return chain;
+	}
+
+	private static Handler<RoutingContext> before(RouteFilter filter, Handler<RoutingContext> next) {
+		return ctx -> {
+			boolean proceed;
+			try {
+				proceed = filter.before(ctx);
+			} catch (Throwable e) {
+				ctx.fail(e);
+				return;
+			}
+			if (proceed) {
+				next.handle(ctx);
+			}
+		};
+	}
+
+	private static Handler<RoutingContext> after(RouteFilter filter, Handler<RoutingContext> next) {
+		if (next == null) {
+			return filter::after;
+		}
+		return ctx -> {
+			filter.after(ctx);
+			next.handle(ctx);
+		};
+	}
+
+	private static Handler<RoutingContext> headersEnd(Handler<RoutingContext> after, Handler<RoutingContext> next) {
+		return ctx -> {
+			ctx.addHeadersEndHandler(v -> after.handle(ctx));
+			next.handle(ctx);
+		};
+	}
+
+	private static boolean overrides(RouteFilter filter, String hook) {
+		try {
+			return filter.getClass().getMethod(hook, RoutingContext.class).getDeclaringClass() != RouteFilter.class;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bounded cache of the outcome of raw header values, in two generations: values are added to the young one, which
+ * becomes the old one once full, dropping the previous old one. A value found in the old generation moves back to the
+ * young one, so the headers in use survive a burst of distinct ones, and lookups take no lock.
+ */
+final class HeaderCache<V> {
+
+	private final int capacity;
+
+	private volatile ConcurrentHashMap<String, V> young = new ConcurrentHashMap<>();
+
+	private volatile ConcurrentHashMap<String, V> old = new ConcurrentHashMap<>();
+
+	/**
+	 * @param capacity
+	 *            the values kept per generation
+	 */
+	HeaderCache(int capacity) {
+		this.capacity = capacity;
+	}
+
+	V get(String header) {
+		V value = young.get(header);
+		if (value == null) {
+			value = old.get(header);
+			if (value != null) {
+				put(header, value);
+			}
+		}
+		return value;
+	}
+
+	void put(String header, V value) {
+		ConcurrentHashMap<String, V> current = young;
+		current.put(header, value);
+		if (current.size() >= capacity) {
+			rotate(current);
+		}
+	}
+
+	/**
+	 * Returns the number of values kept, at most twice the capacity.
+	 */
+	int size() {
+		return young.size() + old.size();
+	}
+
+	private synchronized void rotate(ConcurrentHashMap<String, V> full) {
+		if (young == full) {
+			old = full;
+			young = new ConcurrentHashMap<>();
+		}
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dinstone.vertx.web.RouteInterceptor;
+import com.dinstone.vertx.web.router.RouteDefinition;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * The {@link RouteInterceptor}s of a route: the first handler of the route begins the request with each of them, the
+ * invokers of the resource method call the hooks of the interceptors following it. Requests no interceptor follows
+ * allocate nothing, the states of the others are kept in their routing context.
+ */
+final class InterceptorChain implements Handler<RoutingContext> {
+
+	private static final AtomicLong IDS = new AtomicLong();
+
+	private final String key = InterceptorChain.class.getName() + "." + IDS.incrementAndGet();
+
+	private final RouteDefinition route;
+
+	private final RouteInterceptor<Object>[] interceptors;
+
+	@SuppressWarnings("unchecked")
+	private InterceptorChain(RouteDefinition route, List<RouteInterceptor<?>> interceptors) {
+		this.route = route;
+		this.interceptors = (RouteInterceptor<Object>[]) interceptors
+			.toArray(new RouteInterceptor<?>[interceptors.size()]);
+	}
+
+	/**
+	 * Returns the chain of the route, or null if there are no interceptors.
+	 */
+	static InterceptorChain create(RouteDefinition route, List<RouteInterceptor<?>> interceptors) {
+		return interceptors.isEmpty() ? null : new InterceptorChain(route, interceptors);
+	}
+
+	@Override
+	public void handle(RoutingContext ctx) {
+		Object[] states = null;
+		for (int i = 0; i < interceptors.length; i++) {
+			Object state = interceptors[i].begin(ctx, route);
+			if (state != null) {
+				if (states == null) {
+					states = new Object[interceptors.length];
+				}
+				states[i] = state;
+			}
+		}
+
+		if (states != null) {
+			ctx.put(key, states);
+			Handler<Void> end = v -> end(ctx);
+			ctx.addBodyEndHandler(end);
+			ResponseHooks.onClose(ctx, end);
+		}
+		ctx.next();
+	}
+
+	ResultInvoker interceptResult(ResultInvoker invoker) {
+		return ctx -> {
+			Object[] states = ctx.get(key);
+			if (states == null) {
+				return invoker.invoke(ctx);
+			}
+
+			before(ctx, states);
+			Object result;
+			try {
+				result = invoker.invoke(ctx);
+			} catch (Throwable e) {
+				onError(ctx, states, e);
+				throw e;
+			}
+			return after(ctx, states, result);
+		};
+	}
+
+	MethodInvoker interceptVoid(MethodInvoker invoker) {
+		return ctx -> {
+			Object[] states = ctx.get(key);
+			if (states == null) {
+				invoker.invoke(ctx);
+				return;
+			}
+
+			before(ctx, states);
+			try {
+				invoker.invoke(ctx);
+			} catch (Throwable e) {
+				onError(ctx, states, e);
+				throw e;
+			}
+			after(ctx, states, null);
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object after(RoutingContext ctx, Object[] states, Object result) {
+		if (result instanceof Future) {
+			Future<Object> intercepted = Future.future();
+			((Future<Object>) result).setHandler(ar -> {
+				if (ar.succeeded()) {
+					after(ctx, states, ar.result());
+					intercepted.complete(ar.result());
+				} else {
+					onError(ctx, states, ar.cause());
+					intercepted.fail(ar.cause());
+				}
+			});
+			return intercepted;
+		} else if (result instanceof CompletionStage) {
+			return ((CompletionStage<Object>) result).whenComplete((value, error) -> {
+				if (error == null) {
+					after(ctx, states, value);
+				} else {
+					onError(ctx, states, error);
+				}
+			});
+		}
+
+		for (int i = 0; i < interceptors.length; i++) {
+			if (states[i] != null) {
+				interceptors[i].after(ctx, states[i], result);
+			}
+		}
+		return result;
+	}
+
+	private void before(RoutingContext ctx, Object[] states) {
+		for (int i = 0; i < interceptors.length; i++) {
+			if (states[i] != null) {
+				interceptors[i].before(ctx, states[i]);
+			}
+		}
+	}
+
+	private void onError(RoutingContext ctx, Object[] states, Throwable error) {
+		for (int i = 0; i < interceptors.length; i++) {
+			if (states[i] != null) {
+				interceptors[i].onError(ctx, states[i], error);
+			}
+		}
+	}
+
+	private void end(RoutingContext ctx) {
+		Object[] states = (Object[]) ctx.data().remove(key);
+		if (states == null) {
+			return;
+		}
+		for (int i = 0; i < interceptors.length; i++) {
+			if (states[i] != null) {
+				interceptors[i].onEnd(ctx, states[i]);
+			}
+		}
+	}
+
+}
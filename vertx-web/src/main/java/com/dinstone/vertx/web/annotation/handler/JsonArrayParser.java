@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Incremental parser of a top-level JSON array. Every element is emitted as soon as its last byte arrived, so only the
+ * element being read is buffered. Objects are emitted as JsonObject, arrays as JsonArray and other values as decoded
+ * by {@link Json}.
+ */
+final class JsonArrayParser {
+
+	private final Handler<Object> handler;
+
+	private Buffer pending;
+
+	private boolean started;
+
+	private boolean finished;
+
+	private boolean expectComma;
+
+	private boolean afterComma;
+
+	private boolean inValue;
+
+	private boolean inString;
+
+	private boolean escape;
+
+	private int depth;
+
+	private byte first;
+
+	JsonArrayParser(Handler<Object> handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * Parses the next chunk of the array, emitting the elements it completes.
+	 */
+	void handle(Buffer chunk) {
+		int start = inValue ? 0 : -1;
+		int length = chunk.length();
+		for (int i = 0; i < length; i++) {
+			byte b = chunk.getByte(i);
+			if (inValue) {
+				if (inString) {
+					if (escape) {
+						escape = false;
+					} else if (b == '\\') {
+						escape = true;
+					} else if (b == '"') {
+						inString = false;
+						if (depth == 0) {
+							emit(chunk, start, i + 1);
+						}
+					}
+					continue;
+				}
+				if (b == '"') {
+					inString = true;
+					continue;
+				}
+				if (b == '{' || b == '[') {
+					depth++;
+					continue;
+				}
+				if ((b == '}' || b == ']') && depth > 0) {
+					if (--depth == 0) {
+						emit(chunk, start, i + 1);
+					}
+					continue;
+				}
+				if (depth > 0 || !(isWhitespace(b) || b == ',' || b == ']' || b == '}')) {
+					continue;
+				}
+				// the byte ends a number or a literal and is parsed as a separator
+				emit(chunk, start, i);
+			}
+
+			if (isWhitespace(b)) {
+				continue;
+			}
+			if (finished) {
+				throw new DecodeException("Unexpected data after the JSON array");
+			}
+			if (!started) {
+				if (b != '[') {
+					throw new DecodeException("Expected a JSON array");
+				}
+				started = true;
+			} else if (b == ']' && !afterComma) {
+				finished = true;
+			} else if (expectComma) {
+				if (b != ',') {
+					throw new DecodeException("Expected ',' or ']' in the JSON array");
+				}
+				expectComma = false;
+				afterComma = true;
+			} else if (b == ',' || b == ']' || b == '}') {
+				throw new DecodeException("Unexpected '" + (char) b + "' in the JSON array");
+			} else {
+				inValue = true;
+				afterComma = false;
+				first = b;
+				start = i;
+				if (b == '"') {
+					inString = true;
+				} else if (b == '{' || b == '[') {
+					depth = 1;
+				}
+			}
+		}
+
+		if (inValue) {
+			Buffer rest = chunk.getBuffer(start, length);
+			pending = pending == null ? rest : pending.appendBuffer(rest);
+		}
+	}
+
+	/**
+	 * Checks that the array was complete, at the end of the body.
+	 */
+	void end() {
+		if (!finished) {
+			throw new DecodeException("Unexpected end of the JSON array");
+		}
+	}
+
+	private void emit(Buffer chunk, int start, int end) {
+		Buffer value = chunk.getBuffer(start, end);
+		if (pending != null) {
+			value = pending.appendBuffer(value);
+			pending = null;
+		}
+		inValue = false;
+		expectComma = true;
+		handler.handle(decode(value.toString()));
+	}
+
+	private Object decode(String text) {
+		if (first == '{') {
+			return new JsonObject(text);
+		} else if (first == '[') {
+			return new JsonArray(text);
+		}
+		return Json.decodeValue(text, Object.class);
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+	}
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Creates {@link MethodInvoker}s that call the resource method with an exact signature, so the JIT can inline it into
+ * the route handler.
+ */
+public final class MethodInvokers {
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private static final MethodType INVOKE_TYPE = MethodType.methodType(void.class, RoutingContext.class);
+
+	private static final MethodType RESULT_TYPE = MethodType.methodType(Object.class, RoutingContext.class);
+
+	private static final Factories INVOKERS = new Factories(MethodInvoker.class, INVOKE_TYPE, false);
+
+	private static final Factories RESULTS = new Factories(ResultInvoker.class, RESULT_TYPE, true);
+
+	private MethodInvokers() {
+	}
+
+	/**
+	 * Spins a lambda for plain {@code m(RoutingContext)} methods, and falls back to an exact method handle for
+	 * everything else.
+	 */
+	public static MethodInvoker create(Object instance, Method method, MethodHandle methodHandle) {
+		MethodInvoker invoker = lambda(instance, method);
+		if (invoker == null) {
+			invoker = exact(instance, methodHandle);
+		}
+		return invoker;
+	}
+
+	/**
+	 * Binds the receiver of a {@code (instance, RoutingContext)} handle and adapts it once to
+	 * {@code (RoutingContext)void}, so every call is an {@code invokeExact}.
+	 */
+	public static MethodInvoker exact(Object instance, MethodHandle methodHandle) {
+		final MethodHandle target = methodHandle.bindTo(instance).asType(INVOKE_TYPE);
+		return ctx -> {
+			target.invokeExact(ctx);
+		};
+	}
+
+	/**
+	 * Returns a {@link LambdaMetafactory} generated invoker calling the method directly, or null if the method is not
+	 * a plain {@code m(RoutingContext)} handler or its class is not visible to the generated code.
+	 */
+	public static MethodInvoker lambda(Object instance, Method method) {
+		MethodHandle factory = factory(INVOKERS, method);
+		if (factory == null) {
+			return null;
+		}
+		try {
+			return (MethodInvoker) factory.invoke(instance);
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Creates an invoker returning the method result, a lambda for plain {@code m(RoutingContext)} methods returning
+	 * an object, an exact method handle adapted to {@code (RoutingContext)Object} otherwise.
+	 */
+	public static ResultInvoker result(Object instance, Method method, MethodHandle methodHandle) {
+		MethodHandle factory = factory(RESULTS, method);
+		if (factory != null) {
+			try {
+				return (ResultInvoker) factory.invoke(instance);
+			} catch (Throwable e) {
+				// use the method handle
+			}
+		}
+
+		final MethodHandle target = methodHandle.bindTo(instance).asType(RESULT_TYPE);
+		return ctx -> {
+			return (Object) target.invokeExact(ctx);
+		};
+	}
+
+	private static MethodHandle factory(Factories factories, Method method) {
+		return factories.get(method.getDeclaringClass()).computeIfAbsent(method, factories::spin).orElse(null);
+	}
+
+	private static boolean isVisible(Class<?> clazz) {
+		try {
+			return Class.forName(clazz.getName(), false, MethodInvokers.class.getClassLoader()) == clazz;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * The lambda factories of the methods of a class, spun once per method and process.
+	 */
+	private static final class Factories extends ClassValue<ConcurrentMap<Method, Optional<MethodHandle>>> {
+
+		private final Class<?> invokerType;
+
+		private final MethodType samType;
+
+		private final boolean result;
+
+		Factories(Class<?> invokerType, MethodType samType, boolean result) {
+			this.invokerType = invokerType;
+			this.samType = samType;
+			this.result = result;
+		}
+
+		@Override
+		protected ConcurrentMap<Method, Optional<MethodHandle>> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+
+		Optional<MethodHandle> spin(Method method) {
+			Class<?> clazz = method.getDeclaringClass();
+			Class<?>[] paramTypes = method.getParameterTypes();
+			if (paramTypes.length != 1 || !paramTypes[0].isAssignableFrom(RoutingContext.class)
+					|| (result && method.getReturnType().isPrimitive()) || !isVisible(clazz)) {
+				return Optional.empty();
+			}
+
+			try {
+				MethodHandle target = MethodHandles.publicLookup().unreflect(method);
+				MethodType instantiatedType = result
+						? MethodType.methodType(method.getReturnType(), RoutingContext.class)
+						: samType;
+				CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "invoke",
+					MethodType.methodType(invokerType, clazz), samType, target, instantiatedType);
+				return Optional.of(callSite.getTarget());
+			} catch (Throwable e) {
+				// not accessible from the generated class, use the method handle
+				return Optional.empty();
+			}
+		}
+	}
+
+}
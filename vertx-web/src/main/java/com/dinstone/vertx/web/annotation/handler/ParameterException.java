@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+/**
+ * Thrown when a request parameter can't be converted to the declared type, the route fails with 400, or with the
+ * given status code, 413 for a body over its size limit.
+ */
+public class ParameterException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int statusCode;
+
+	public ParameterException(String message, Throwable cause) {
+		this(400, message, cause);
+	}
+
+	public ParameterException(int statusCode, String message, Throwable cause) {
+		super(message, cause);
+		this.statusCode = statusCode;
+	}
+
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dinstone.vertx.web.annotation.RateLimit;
+
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Lock-free token buckets of a {@link RateLimit} route, kept as the theoretical arrival time of the next request
+ * (GCRA), one atomic long per bucket.
+ */
+final class RateLimiter {
+
+	private static final String REMOTE = "remote";
+
+	private static final String HEADER = "header:";
+
+	private static final int SWEEP_STEPS = 8;
+
+	private final long interval;
+
+	private final long tolerance;
+
+	private final String header;
+
+	private final String param;
+
+	private final boolean remote;
+
+	private final int maxKeys;
+
+	private final AtomicLong shared = new AtomicLong(System.nanoTime());
+
+	private final ConcurrentHashMap<String, AtomicLong> buckets;
+
+	private final AtomicBoolean sweeping = new AtomicBoolean();
+
+	private Iterator<AtomicLong> cursor;
+
+	RateLimiter(RateLimit rateLimit) {
+		this.interval = Math.max(1, rateLimit.unit().toNanos(rateLimit.period()) / rateLimit.permits());
+		int burst = rateLimit.burst() > 0 ? rateLimit.burst() : rateLimit.permits();
+		this.tolerance = interval * (burst - 1);
+		String key = rateLimit.key();
+		this.remote = REMOTE.equals(key);
+		this.header = key.startsWith(HEADER) ? key.substring(HEADER.length()) : null;
+		this.param = key.isEmpty() || remote || header != null ? null : key;
+		this.maxKeys = rateLimit.maxKeys();
+		this.buckets = key.isEmpty() ? null : new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Takes a token from the bucket of the client, and returns 0, or the nanoseconds until a token is available.
+	 */
+	long acquire(RoutingContext ctx) {
+		AtomicLong bucket = bucket(ctx);
+		long now = System.nanoTime();
+		for (;;) {
+			long tat = bucket.get();
+			long next = Math.max(tat, now) + interval;
+			long wait = next - interval - tolerance - now;
+			if (wait > 0) {
+				return wait;
+			}
+			if (bucket.compareAndSet(tat, next)) {
+				return 0;
+			}
+		}
+	}
+
+	private AtomicLong bucket(RoutingContext ctx) {
+		if (buckets == null) {
+			return shared;
+		}
+
+		String key = key(ctx.request());
+		if (key == null) {
+			return shared;
+		}
+		AtomicLong bucket = buckets.get(key);
+		if (bucket != null) {
+			return bucket;
+		}
+		if (buckets.size() >= maxKeys) {
+			sweep();
+			if (buckets.size() >= maxKeys) {
+				return shared;
+			}
+		}
+		return buckets.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+	}
+
+	private String key(HttpServerRequest request) {
+		if (remote) {
+			SocketAddress address = request.remoteAddress();
+			return address == null ? null : address.host();
+		}
+		return header != null ? request.getHeader(header) : request.getParam(param);
+	}
+
+	/**
+	 * Drops the buckets that are full again, they're the same as new ones. Each sweep visits a few buckets from where
+	 * the last one stopped, so a new key costs the same however many are kept; a thread finding another one sweeping
+	 * doesn't wait.
+	 */
+	private void sweep() {
+		if (!sweeping.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			long now = System.nanoTime();
+			for (int i = 0; i < SWEEP_STEPS; i++) {
+				if (cursor == null || !cursor.hasNext()) {
+					cursor = buckets.values().iterator();
+					if (!cursor.hasNext()) {
+						return;
+					}
+				}
+				if (cursor.next().get() - now <= 0) {
+					cursor.remove();
+				}
+			}
+		} finally {
+			sweeping.set(false);
+		}
+	}
+
+}
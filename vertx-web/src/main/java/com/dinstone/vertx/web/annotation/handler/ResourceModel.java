@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.dinstone.vertx.web.RouteFilter;
+import com.dinstone.vertx.web.Validator;
+import com.dinstone.vertx.web.annotation.Blocking;
+import com.dinstone.vertx.web.annotation.Cacheable;
+import com.dinstone.vertx.web.annotation.Coalesce;
+import com.dinstone.vertx.web.annotation.Compress;
+import com.dinstone.vertx.web.annotation.Conditional;
+import com.dinstone.vertx.web.annotation.Filter;
+import com.dinstone.vertx.web.annotation.MaxConcurrent;
+import com.dinstone.vertx.web.annotation.RateLimit;
+import com.dinstone.vertx.web.annotation.Timeout;
+import com.dinstone.vertx.web.router.RouteDefinition;
+
+/**
+ * Route metadata of a resource class, resolved once per process and shared by every router binding instances of the
+ * class, so deploying a verticle many times only binds handlers to the new instances.
+ */
+final class ResourceModel {
+
+	private static final ClassValue<ResourceModel> MODELS = new ClassValue<ResourceModel>() {
+
+		@Override
+		protected ResourceModel computeValue(Class<?> type) {
+			return new ResourceModel(type);
+		}
+	};
+
+	private final Class<?> clazz;
+
+	private final ConcurrentMap<RouteDefinition, Method> targets = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<Method, MethodModel> methods = new ConcurrentHashMap<>();
+
+	private volatile Map<Method, List<RouteDefinition>> routes;
+
+	private ResourceModel(Class<?> clazz) {
+		this.clazz = clazz;
+	}
+
+	static ResourceModel of(Class<?> clazz) {
+		return MODELS.get(clazz);
+	}
+
+	/**
+	 * Returns the annotated routes of the class by resource method, scanned on first use.
+	 */
+	Map<Method, List<RouteDefinition>> routes() {
+		Map<Method, List<RouteDefinition>> routes = this.routes;
+		if (routes == null) {
+			synchronized (this) {
+				routes = this.routes;
+				if (routes == null) {
+					routes = scan();
+					this.routes = routes;
+				}
+			}
+		}
+		return routes;
+	}
+
+	/**
+	 * Returns the resource method of a route, which may come from a route table rather than a scan.
+	 */
+	Method target(RouteDefinition route) {
+		Method method = targets.get(route);
+		return method != null ? method : targets.computeIfAbsent(route, r -> r.target(clazz));
+	}
+
+	MethodModel method(Method method) {
+		MethodModel model = methods.get(method);
+		return model != null ? model : methods.computeIfAbsent(method, m -> new MethodModel(clazz, m));
+	}
+
+	private Map<Method, List<RouteDefinition>> scan() {
+		Map<Method, List<RouteDefinition>> routes = new LinkedHashMap<>();
+		for (Method method : clazz.getMethods()) {
+			List<RouteDefinition> definitions = AnnotationRouteResolver.resolve(clazz, method);
+			if (!definitions.isEmpty()) {
+				routes.put(method, Collections.unmodifiableList(definitions));
+				for (RouteDefinition definition : definitions) {
+					targets.putIfAbsent(definition, method);
+				}
+			}
+		}
+		return Collections.unmodifiableMap(routes);
+	}
+
+	/**
+	 * The blocking, caching, validation, compression, admission and timeout settings of a resource method, and its
+	 * argument binding handles by codec selection.
+	 */
+	static final class MethodModel {
+
+		private static final int MAX_COMPILED = 8;
+
+		private final Method method;
+
+		private final Blocking blocking;
+
+		private final Cacheable cacheable;
+
+		private final Coalesce coalesce;
+
+		private final Method validator;
+
+		private final ResponseOptions options;
+
+		private final RateLimit rateLimit;
+
+		private final MaxConcurrent maxConcurrent;
+
+		private final DeadlineHandler deadline;
+
+		private final List<Class<? extends RouteFilter>> filters;
+
+		// bound at build time only, the least recently bound codecs go first
+		private final Map<RouteCodecs, Compiled> compiled = new LinkedHashMap<RouteCodecs, Compiled>(4, 0.75f,
+			true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<RouteCodecs, Compiled> eldest) {
+				return size() > MAX_COMPILED;
+			}
+		};
+
+		private MethodModel(Class<?> clazz, Method method) {
+			this.method = method;
+			this.blocking = AnnotationRouteResolver.getBlocking(clazz, method);
+			this.cacheable = AnnotationRouteResolver.getAnnotation(method, Cacheable.class);
+			this.coalesce = AnnotationRouteResolver.getAnnotation(method, Coalesce.class);
+			Conditional conditional = AnnotationRouteResolver.getAnnotation(method, Conditional.class);
+			this.validator = conditional == null || conditional.validator().isEmpty() ? null
+					: validator(clazz, conditional.validator());
+			Compress compress = annotation(clazz, method, Compress.class);
+			this.options = ResponseOptions.create(conditional != null, compress);
+			this.rateLimit = annotation(clazz, method, RateLimit.class);
+			this.maxConcurrent = annotation(clazz, method, MaxConcurrent.class);
+			Timeout timeout = annotation(clazz, method, Timeout.class);
+			this.deadline = timeout == null ? null : new DeadlineHandler(timeout);
+			this.filters = filters(clazz, method);
+		}
+
+		Blocking blocking() {
+			return blocking;
+		}
+
+		Coalesce coalesce() {
+			return coalesce;
+		}
+
+		Cacheable cacheable() {
+			return cacheable;
+		}
+
+		/**
+		 * How results of the method end the response, null if written as they are.
+		 */
+		ResponseOptions options() {
+			return options;
+		}
+
+		/**
+		 * The validator method of a conditional route, null if none.
+		 */
+		Method validator() {
+			return validator;
+		}
+
+		/**
+		 * The {@link Filter}s of the class then of the method, without duplicates.
+		 */
+		List<Class<? extends RouteFilter>> filters() {
+			return filters;
+		}
+
+		/**
+		 * The handler arming the {@link Timeout} of the method, null if none.
+		 */
+		DeadlineHandler deadline() {
+			return deadline;
+		}
+
+		/**
+		 * Returns a new admission handler with limits of its own, or null if the method has no limits.
+		 */
+		AdmissionHandler admission() {
+			if (rateLimit == null && maxConcurrent == null) {
+				return null;
+			}
+			return new AdmissionHandler(rateLimit == null ? null : new RateLimiter(rateLimit),
+				maxConcurrent == null ? null : new ConcurrencyLimiter(maxConcurrent));
+		}
+
+		private static List<Class<? extends RouteFilter>> filters(Class<?> clazz, Method method) {
+			Set<Class<? extends RouteFilter>> filters = new LinkedHashSet<>();
+			for (Filter filter : new Filter[] { AnnotationRouteResolver.getAnnotation(clazz, Filter.class),
+					AnnotationRouteResolver.getAnnotation(method, Filter.class) }) {
+				if (filter != null) {
+					filters.addAll(Arrays.asList(filter.value()));
+				}
+			}
+			return filters.isEmpty() ? Collections.emptyList() : new ArrayList<>(filters);
+		}
+
+		private static <T extends Annotation> T annotation(Class<?> clazz, Method method, Class<T> type) {
+			T annotation = AnnotationRouteResolver.getAnnotation(method, type);
+			return annotation != null ? annotation : AnnotationRouteResolver.getAnnotation(clazz, type);
+		}
+
+		private static Method validator(Class<?> clazz, String name) {
+			for (Method method : clazz.getMethods()) {
+				if (method.getName().equals(name) && method.getReturnType() == Validator.class
+						&& !Modifier.isStatic(method.getModifiers())) {
+					return method;
+				}
+			}
+			throw new IllegalStateException("no public validator method " + name + " in " + clazz.getName());
+		}
+
+		/**
+		 * Returns the handle binding the arguments with the codecs, and the shared instance of the codecs. The handles
+		 * of the last {@value #MAX_COMPILED} distinct codecs are kept, so routers rebuilt with codecs of their own
+		 * don't pile up handles for the life of the process.
+		 */
+		Compiled compile(RouteCodecs codecs) {
+			synchronized (compiled) {
+				Compiled handle = compiled.get(codecs);
+				if (handle == null) {
+					handle = new Compiled(codecs, AnnotationRouteResolver.getMethodHandle(method, codecs));
+					compiled.put(codecs, handle);
+				}
+				return handle;
+			}
+		}
+
+		/**
+		 * Returns the number of codecs with a kept handle.
+		 */
+		int compiledSize() {
+			synchronized (compiled) {
+				return compiled.size();
+			}
+		}
+	}
+
+	static final class Compiled {
+
+		final RouteCodecs codecs;
+
+		final MethodHandle methodHandle;
+
+		private Compiled(RouteCodecs codecs, MethodHandle methodHandle) {
+			this.codecs = codecs;
+			this.methodHandle = methodHandle;
+		}
+	}
+
+}
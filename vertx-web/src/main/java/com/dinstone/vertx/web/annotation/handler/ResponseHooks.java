@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Shares the single close handler of a response between the handlers of a request, route decorators included.
+ */
+public final class ResponseHooks {
+
+	private static final String CLOSE_KEY = ResponseHooks.class.getName() + ".close";
+
+	private ResponseHooks() {
+	}
+
+	/**
+	 * Calls the handler if the connection closes before the response ends.
+	 */
+	public static void onClose(RoutingContext ctx, Handler<Void> handler) {
+		List<Handler<Void>> handlers = ctx.get(CLOSE_KEY);
+		if (handlers == null) {
+			final List<Handler<Void>> all = new ArrayList<>(2);
+			ctx.put(CLOSE_KEY, all);
+			ctx.response().closeHandler(v -> {
+				for (Handler<Void> closeHandler : all) {
+					closeHandler.handle(null);
+				}
+			});
+			handlers = all;
+		}
+		handlers.add(handler);
+	}
+
+}
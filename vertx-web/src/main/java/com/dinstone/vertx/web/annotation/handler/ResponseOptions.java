@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.util.Map;
+
+import com.dinstone.vertx.web.annotation.Compress;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * How a route ends its response with an encoded body: validated against the request for
+ * {@link com.dinstone.vertx.web.annotation.Conditional} routes, compressed for {@link Compress} routes.
+ */
+final class ResponseOptions {
+
+	private static final int MAX_CACHED = 32;
+
+	private static final String IDENTITY = "identity";
+
+	private static final CharSequence VARY = HttpHeaders.createOptimized("Vary");
+
+	private static final CharSequence ACCEPT_ENCODING = HttpHeaders.createOptimized("Accept-Encoding");
+
+	private final boolean conditional;
+
+	private final int minSize;
+
+	private final String[] algorithms;
+
+	private final HeaderCache<String> negotiated = new HeaderCache<>(MAX_CACHED);
+
+	private ResponseOptions(boolean conditional, Compress compress) {
+		this.conditional = conditional;
+		this.minSize = compress == null ? Integer.MAX_VALUE : compress.minSize();
+		this.algorithms = compress == null ? null : Compression.algorithms(compress.algorithms());
+	}
+
+	/**
+	 * Returns null if the route neither validates nor compresses.
+	 */
+	static ResponseOptions create(boolean conditional, Compress compress) {
+		return conditional || compress != null ? new ResponseOptions(conditional, compress) : null;
+	}
+
+	boolean conditional() {
+		return conditional;
+	}
+
+	/**
+	 * Ends the response with the body, or with 304 if the client copy is current. Compressed variants are taken from
+	 * and added to the variants if not null.
+	 */
+	void end(RoutingContext ctx, Buffer body, Map<String, Buffer> variants) {
+		HttpServerResponse response = ctx.response();
+		String encoding = null;
+		if (body.length() >= minSize) {
+			response.putHeader(VARY, ACCEPT_ENCODING);
+			encoding = encoding(ctx.request().getHeader(ACCEPT_ENCODING));
+		}
+
+		if (conditional && Conditionals.applies(ctx)) {
+			String etag = response.headers().get(HttpHeaders.ETAG);
+			if (etag == null) {
+				etag = Conditionals.etag(body);
+			}
+			response.putHeader(HttpHeaders.ETAG, encoding == null ? etag : Conditionals.variant(etag, encoding));
+			if (Conditionals.notModified(ctx)) {
+				Conditionals.notModified(response);
+				return;
+			}
+		}
+
+		if (encoding != null) {
+			final Buffer identity = body;
+			body = variants == null ? Compression.compress(identity, encoding)
+					: variants.computeIfAbsent(encoding, e -> Compression.compress(identity, e));
+			response.putHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+		}
+		response.end(body);
+	}
+
+	private String encoding(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return null;
+		}
+		String encoding = negotiated.get(acceptEncoding);
+		if (encoding == null) {
+			encoding = Compression.negotiate(acceptEncoding, algorithms);
+			if (encoding == null) {
+				encoding = IDENTITY;
+			}
+			negotiated.put(acceptEncoding, encoding);
+		}
+		return encoding == IDENTITY ? null : encoding;
+	}
+
+}
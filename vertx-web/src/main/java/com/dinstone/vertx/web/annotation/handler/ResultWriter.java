@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
+
+import com.dinstone.vertx.web.codec.BodyCodec;
+import com.dinstone.vertx.web.codec.CodecRegistry;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Writes the value returned by a resource method to the response, waiting for {@link Future} and
+ * {@link CompletionStage} results to complete and streaming {@link ReadStream} results. {@link String} and
+ * {@link Buffer} values are written as they are, other values are encoded by the codec of the route.
+ */
+public final class ResultWriter {
+
+	private ResultWriter() {
+	}
+
+	public static void write(RoutingContext ctx, Object result) {
+		write(ctx, result, RouteCodecs.DEFAULT);
+	}
+
+	/**
+	 * Returns the route handler writing the results of the invoker with the codecs the registry has for the produces
+	 * and consumes media types, for generated route binders.
+	 */
+	public static Handler<RoutingContext> handler(CodecRegistry registry, String[] produces, String[] consumes,
+			ResultInvoker invoker) {
+		final RouteCodecs codecs = RouteCodecs.create(registry, produces, consumes);
+		return ctx -> {
+			try {
+				write(ctx, invoker.invoke(ctx), codecs);
+			} catch (Throwable e) {
+				ctx.fail(e);
+			}
+		};
+	}
+
+	static void write(RoutingContext ctx, Object result, RouteCodecs codecs) {
+		write(ctx, result, codecs, null);
+	}
+
+	/**
+	 * Writes the result, ending the response with the options of the route if the result isn't a stream.
+	 */
+	static void write(RoutingContext ctx, Object result, RouteCodecs codecs, ResponseOptions options) {
+		await(ctx, result, (value, error) -> {
+			if (error != null) {
+				ctx.fail(error);
+			} else {
+				end(ctx, value, codecs, options);
+			}
+		});
+	}
+
+	/**
+	 * Calls back on the context of the request once the value of a {@link Future} or {@link CompletionStage} result
+	 * is available, right away for any other result.
+	 */
+	static void await(RoutingContext ctx, Object result, BiConsumer<Object, Throwable> callback) {
+		if (result instanceof Future) {
+			((Future<?>) result).setHandler(ar -> {
+				if (ar.succeeded()) {
+					callback.accept(ar.result(), null);
+				} else {
+					callback.accept(null, ar.cause());
+				}
+			});
+		} else if (result instanceof CompletionStage) {
+			final Context context = ctx.vertx().getOrCreateContext();
+			((CompletionStage<?>) result).whenComplete((value, error) -> {
+				if (Vertx.currentContext() == context) {
+					callback.accept(value, error);
+				} else {
+					context.runOnContext(v -> callback.accept(value, error));
+				}
+			});
+		} else {
+			callback.accept(result, null);
+		}
+	}
+
+	/**
+	 * Encodes a value that isn't a stream as it would be written, setting the Content-Type of the codec if the
+	 * response has none.
+	 */
+	static Buffer encode(RoutingContext ctx, Object value, RouteCodecs codecs) {
+		if (value == null) {
+			return Buffer.buffer(0);
+		} else if (value instanceof Buffer) {
+			return (Buffer) value;
+		} else if (value instanceof String) {
+			return Buffer.buffer((String) value);
+		}
+
+		HttpServerResponse response = ctx.response();
+		String contentType = response.headers().get("Content-Type");
+		BodyCodec codec = codecs.encoder(contentType);
+		Buffer body = codecs.encode(codec, value);
+		if (contentType == null) {
+			response.putHeader("Content-Type", codec.mediaType());
+		}
+		return body;
+	}
+
+	private static void end(RoutingContext ctx, Object value, RouteCodecs codecs, ResponseOptions options) {
+		HttpServerResponse response = ctx.response();
+		if (response.ended()) {
+			return;
+		}
+
+		if (options != null && !(value instanceof ReadStream)) {
+			Buffer body;
+			try {
+				body = encode(ctx, value, codecs);
+			} catch (RuntimeException e) {
+				ctx.fail(e);
+				return;
+			}
+			options.end(ctx, body, null);
+		} else if (value == null) {
+			response.end();
+		} else if (value instanceof Buffer) {
+			response.end((Buffer) value);
+		} else if (value instanceof String) {
+			response.end((String) value);
+		} else if (value instanceof ReadStream) {
+			StreamWriter.pump(ctx, (ReadStream<?>) value, codecs);
+		} else {
+			Buffer body;
+			try {
+				body = encode(ctx, value, codecs);
+			} catch (RuntimeException e) {
+				ctx.fail(e);
+				return;
+			}
+			response.end(body);
+		}
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import com.dinstone.vertx.web.codec.BodyCodec;
+import com.dinstone.vertx.web.codec.CodecRegistry;
+import com.dinstone.vertx.web.codec.JsonCodec;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * The codecs of one route, picked from its produces and consumes media types when the route is built. Results are
+ * encoded by the codec of the negotiated content type and bodies decoded by the codec of the request content type,
+ * falling back to the first codec of the route, or to JSON.
+ */
+final class RouteCodecs {
+
+	static final RouteCodecs DEFAULT = new RouteCodecs(JsonCodec.INSTANCE, null, JsonCodec.INSTANCE, null);
+
+	private static final int MAX_SIZE_HINT = 64 * 1024;
+
+	private final BodyCodec encoder;
+
+	private final Map<String, BodyCodec> encoders;
+
+	private final BodyCodec decoder;
+
+	private final Map<String, BodyCodec> decoders;
+
+	// size of the last encoded result, racy updates only cost a resize
+	private int sizeHint = 256;
+
+	private RouteCodecs(BodyCodec encoder, Map<String, BodyCodec> encoders, BodyCodec decoder,
+			Map<String, BodyCodec> decoders) {
+		this.encoder = encoder;
+		this.encoders = encoders;
+		this.decoder = decoder;
+		this.decoders = decoders;
+	}
+
+	static RouteCodecs create(CodecRegistry registry, String[] produces, String[] consumes) {
+		Map<String, BodyCodec> encoders = select(registry, produces);
+		Map<String, BodyCodec> decoders = select(registry, consumes);
+		if (encoders == null && decoders == null) {
+			return DEFAULT;
+		}
+		return new RouteCodecs(first(encoders), multiple(encoders), first(decoders), multiple(decoders));
+	}
+
+	/**
+	 * Returns the codec encoding results of the content type.
+	 */
+	BodyCodec encoder(String contentType) {
+		if (encoders != null && contentType != null) {
+			BodyCodec codec = encoders.get(contentType);
+			if (codec != null) {
+				return codec;
+			}
+		}
+		return encoder;
+	}
+
+	/**
+	 * Returns the codec decoding request bodies of the content type.
+	 */
+	BodyCodec decoder(String contentType) {
+		if (decoders != null && contentType != null) {
+			BodyCodec codec = decoders.get(normalize(contentType));
+			if (codec != null) {
+				return codec;
+			}
+		}
+		return decoder;
+	}
+
+	/**
+	 * Encodes the value into a buffer sized from the previous result of the route.
+	 */
+	Buffer encode(BodyCodec codec, Object value) {
+		Buffer buffer = Buffer.buffer(sizeHint);
+		codec.encode(value, buffer);
+		sizeHint = Math.min(buffer.length() + 16, MAX_SIZE_HINT);
+		return buffer;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(encoder, encoders, decoder, decoders);
+	}
+
+	/**
+	 * Routes selecting the same codecs are equal, whatever their size hint.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof RouteCodecs)) {
+			return false;
+		}
+		RouteCodecs other = (RouteCodecs) obj;
+		return encoder == other.encoder && decoder == other.decoder && Objects.equals(encoders, other.encoders)
+				&& Objects.equals(decoders, other.decoders);
+	}
+
+	private static Map<String, BodyCodec> select(CodecRegistry registry, String[] mediaTypes) {
+		Map<String, BodyCodec> codecs = null;
+		if (mediaTypes != null) {
+			for (String mediaType : mediaTypes) {
+				BodyCodec codec = registry.lookup(mediaType);
+				if (codec != null) {
+					if (codecs == null) {
+						codecs = new LinkedHashMap<>();
+					}
+					// keyed by the produces value negotiated by Vert.x and by the bare consumed type
+					codecs.putIfAbsent(mediaType, codec);
+					codecs.putIfAbsent(normalize(mediaType), codec);
+				}
+			}
+		}
+		return codecs;
+	}
+
+	private static BodyCodec first(Map<String, BodyCodec> codecs) {
+		return codecs == null ? JsonCodec.INSTANCE : codecs.values().iterator().next();
+	}
+
+	private static Map<String, BodyCodec> multiple(Map<String, BodyCodec> codecs) {
+		return codecs == null || codecs.values().stream().distinct().count() < 2 ? null : codecs;
+	}
+
+	private static String normalize(String contentType) {
+		int end = contentType.indexOf(';');
+		return (end < 0 ? contentType : contentType.substring(0, end)).trim().toLowerCase(Locale.ENGLISH);
+	}
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import com.dinstone.vertx.web.codec.BodyCodec;
+import com.dinstone.vertx.web.codec.JsonCodec;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Pumps a {@link ReadStream} returned by a resource method into a chunked response, pausing the stream while the
+ * response write queue is full. If the connection closes first, the stream is paused and closed when it is an
+ * {@link AsyncFile} or {@link AutoCloseable}, releasing its producer.
+ * <p>
+ * Items are framed by the response content type: a JSON array for {@code application/json}, one JSON value per line
+ * for {@code application/x-ndjson}. For other content types {@link Buffer} items are written as they are, and other
+ * items encoded by the codec of the route: one value per line with {@link String} items written as they are for a
+ * JSON codec, back to back for binary codecs like CBOR.
+ */
+public final class StreamWriter {
+
+	public static final String NDJSON = "application/x-ndjson";
+
+	private static final Buffer NEW_LINE = Buffer.buffer("\n");
+
+	private StreamWriter() {
+	}
+
+	public static void pump(RoutingContext ctx, ReadStream<?> stream) {
+		pump(ctx, stream, RouteCodecs.DEFAULT);
+	}
+
+	static void pump(RoutingContext ctx, ReadStream<?> stream, RouteCodecs codecs) {
+		final HttpServerResponse response = ctx.response();
+		final Encoder encoder = encoder(response.headers().get("Content-Type"), codecs);
+
+		response.setChunked(true);
+		ResponseHooks.onClose(ctx, v -> release(stream));
+		stream.exceptionHandler(e -> {
+			if (response.headWritten()) {
+				// too late for an error status, cut the response
+				response.close();
+			} else {
+				ctx.fail(e);
+			}
+		});
+		stream.endHandler(v -> {
+			Buffer tail = encoder.end();
+			if (tail == null) {
+				response.end();
+			} else {
+				response.end(tail);
+			}
+		});
+		stream.handler(item -> {
+			response.write(encoder.encode(item));
+			if (response.writeQueueFull()) {
+				stream.pause();
+				response.drainHandler(v -> stream.resume());
+			}
+		});
+	}
+
+	private static Encoder encoder(String contentType, RouteCodecs codecs) {
+		if (contentType != null) {
+			if (contentType.startsWith(NDJSON)) {
+				BodyCodec json = codecs.encoder("application/json");
+				return new LineEncoder(isJson(json) ? json : JsonCodec.INSTANCE, false);
+			} else if (contentType.startsWith("application/json")) {
+				return new ArrayEncoder(codecs.encoder(contentType));
+			}
+		}
+		BodyCodec codec = codecs.encoder(contentType);
+		return isJson(codec) ? new LineEncoder(codec, true) : new SequenceEncoder(codec);
+	}
+
+	private static void release(ReadStream<?> stream) {
+		stream.pause();
+		if (stream instanceof AsyncFile) {
+			((AsyncFile) stream).close();
+		} else if (stream instanceof AutoCloseable) {
+			try {
+				((AutoCloseable) stream).close();
+			} catch (Exception e) {
+				// the response is gone, nothing to report to
+			}
+		}
+	}
+
+	private static boolean isJson(BodyCodec codec) {
+		String mediaType = codec.mediaType();
+		return mediaType.equals("application/json") || mediaType.endsWith("+json");
+	}
+
+	private interface Encoder {
+
+		Buffer encode(Object item);
+
+		Buffer end();
+	}
+
+	private static final class ArrayEncoder implements Encoder {
+
+		private final BodyCodec codec;
+
+		private boolean first = true;
+
+		ArrayEncoder(BodyCodec codec) {
+			this.codec = codec;
+		}
+
+		@Override
+		public Buffer encode(Object item) {
+			Buffer buffer = Buffer.buffer().appendString(first ? "[" : ",");
+			first = false;
+			if (item instanceof Buffer) {
+				return buffer.appendBuffer((Buffer) item);
+			}
+			codec.encode(item, buffer);
+			return buffer;
+		}
+
+		@Override
+		public Buffer end() {
+			return Buffer.buffer(first ? "[]" : "]");
+		}
+	}
+
+	private static final class LineEncoder implements Encoder {
+
+		private final BodyCodec codec;
+
+		private final boolean raw;
+
+		LineEncoder(BodyCodec codec, boolean raw) {
+			this.codec = codec;
+			this.raw = raw;
+		}
+
+		@Override
+		public Buffer encode(Object item) {
+			if (item instanceof Buffer) {
+				return (Buffer) item;
+			} else if (raw && item instanceof String) {
+				return Buffer.buffer((String) item);
+			}
+			Buffer buffer = Buffer.buffer();
+			codec.encode(item, buffer);
+			return buffer.appendBuffer(NEW_LINE);
+		}
+
+		@Override
+		public Buffer end() {
+			return null;
+		}
+	}
+
+	private static final class SequenceEncoder implements Encoder {
+
+		private final BodyCodec codec;
+
+		SequenceEncoder(BodyCodec codec) {
+			this.codec = codec;
+		}
+
+		@Override
+		public Buffer encode(Object item) {
+			if (item instanceof Buffer) {
+				return (Buffer) item;
+			}
+			Buffer buffer = Buffer.buffer();
+			codec.encode(item, buffer);
+			return buffer;
+		}
+
+		@Override
+		public Buffer end() {
+			return null;
+		}
+	}
+
+}
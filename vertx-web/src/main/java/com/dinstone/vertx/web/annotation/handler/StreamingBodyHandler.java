@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import java.io.File;
+import java.util.UUID;
+
+import com.dinstone.vertx.web.annotation.Body;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.file.FileSystem;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Reads the body of a streamed or spooled {@link Body} parameter instead of buffering it. A request whose
+ * Content-Length exceeds the limit is rejected with 413 before its body is read. A streamed body stays paused until
+ * the method consumes it, a spooled body is written to a temporary file, enforcing the limit as it arrives, and the
+ * route continues once the file is complete. The file is deleted when the response ends.
+ */
+final class StreamingBodyHandler implements Handler<RoutingContext> {
+
+	static final String FILE_KEY = StreamingBodyHandler.class.getName() + ".file";
+
+	private final long maxSize;
+
+	private final boolean spool;
+
+	StreamingBodyHandler(long maxSize, boolean spool) {
+		this.maxSize = maxSize;
+		this.spool = spool;
+	}
+
+	@Override
+	public void handle(RoutingContext ctx) {
+		HttpServerRequest request = ctx.request();
+		if (maxSize >= 0 && contentLength(request) > maxSize) {
+			reject(ctx, 413);
+			return;
+		}
+
+		request.pause();
+		if (!spool) {
+			ctx.next();
+			return;
+		}
+
+		File file = new File(System.getProperty("java.io.tmpdir"), "vertx-body-" + UUID.randomUUID());
+		FileSystem fileSystem = ctx.vertx().fileSystem();
+		fileSystem.open(file.getPath(), new OpenOptions().setCreateNew(true).setWrite(true), ar -> {
+			if (ar.failed()) {
+				ctx.fail(ar.cause());
+				return;
+			}
+
+			ctx.addBodyEndHandler(v -> fileSystem.delete(file.getPath(), dr -> {
+			}));
+			new Spool(ctx, ar.result(), file).start();
+		});
+	}
+
+	/**
+	 * Fails the route with the status code, or closes the connection if the response head is already written. The
+	 * connection is closed after the response, since the rest of the body may not have been read.
+	 */
+	static void reject(RoutingContext ctx, int statusCode) {
+		HttpServerResponse response = ctx.response();
+		if (response.ended()) {
+			return;
+		}
+		if (response.headWritten()) {
+			response.close();
+			return;
+		}
+		response.putHeader("Connection", "close");
+		ctx.fail(statusCode);
+	}
+
+	private static long contentLength(HttpServerRequest request) {
+		String value = request.getHeader("Content-Length");
+		if (value == null) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private final class Spool {
+
+		private final RoutingContext ctx;
+
+		private final AsyncFile asyncFile;
+
+		private final File file;
+
+		private long size;
+
+		private boolean failed;
+
+		Spool(RoutingContext ctx, AsyncFile asyncFile, File file) {
+			this.ctx = ctx;
+			this.asyncFile = asyncFile;
+			this.file = file;
+		}
+
+		void start() {
+			HttpServerRequest request = ctx.request();
+			request.handler(this::data);
+			request.endHandler(v -> asyncFile.close(ar -> {
+				if (failed) {
+					return;
+				}
+				if (ar.failed()) {
+					ctx.fail(ar.cause());
+					return;
+				}
+				ctx.put(FILE_KEY, file);
+				ctx.next();
+			}));
+			request.exceptionHandler(this::error);
+			asyncFile.exceptionHandler(this::error);
+			request.resume();
+		}
+
+		private void data(Buffer chunk) {
+			if (failed) {
+				return;
+			}
+
+			size += chunk.length();
+			if (maxSize >= 0 && size > maxSize) {
+				failed = true;
+				asyncFile.close();
+				ctx.request().resume();
+				reject(ctx, 413);
+				return;
+			}
+
+			asyncFile.write(chunk);
+			if (asyncFile.writeQueueFull()) {
+				ctx.request().pause();
+				asyncFile.drainHandler(v -> ctx.request().resume());
+			}
+		}
+
+		private void error(Throwable cause) {
+			if (!failed) {
+				failed = true;
+				asyncFile.close();
+				if (!ctx.response().ended()) {
+					ctx.fail(cause);
+				}
+			}
+		}
+	}
+
+}
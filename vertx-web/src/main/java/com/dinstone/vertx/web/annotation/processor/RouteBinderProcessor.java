@@ -0,0 +1,388 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+import com.dinstone.vertx.web.RouteBinder;
+import com.dinstone.vertx.web.RouteDecorator;
+import com.dinstone.vertx.web.annotation.Connect;
+import com.dinstone.vertx.web.annotation.Consumes;
+import com.dinstone.vertx.web.annotation.Delete;
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.Head;
+import com.dinstone.vertx.web.annotation.Options;
+import com.dinstone.vertx.web.annotation.Patch;
+import com.dinstone.vertx.web.annotation.Path;
+import com.dinstone.vertx.web.annotation.Post;
+import com.dinstone.vertx.web.annotation.Produces;
+import com.dinstone.vertx.web.annotation.Put;
+import com.dinstone.vertx.web.codec.CodecRegistry;
+
+/**
+ * Generates a {@link RouteBinder} for every resource class whose routes can be bound by direct calls. Classes using
+ * anything the generated code can not express are left to the reflective
+ * {@link com.dinstone.vertx.web.annotation.handler.AnnotationRouteResolver}.
+ */
+public class RouteBinderProcessor extends AbstractProcessor {
+
+	private static final String ANNOTATION_PACKAGE = Path.class.getPackage().getName();
+
+	private static final String ROUTING_CONTEXT = "io.vertx.ext.web.RoutingContext";
+
+	private static final String RESULT_WRITER = "com.dinstone.vertx.web.annotation.handler.ResultWriter";
+
+	private static final Set<String> RESULT_TYPES = new HashSet<>(Arrays.asList(Object.class.getName(),
+		String.class.getName(), "io.vertx.core.buffer.Buffer", "io.vertx.core.json.JsonObject",
+		"io.vertx.core.json.JsonArray"));
+
+	private static final List<String> RESULT_SUPERTYPES = Arrays.asList("io.vertx.core.Future",
+		"java.util.concurrent.CompletionStage", "io.vertx.core.streams.ReadStream");
+
+	private static final Map<String, String> VERBS = new LinkedHashMap<>();
+
+	static {
+		VERBS.put(Get.class.getName(), "HttpMethod.GET");
+		VERBS.put(Post.class.getName(), "HttpMethod.POST");
+		VERBS.put(Put.class.getName(), "HttpMethod.PUT");
+		VERBS.put(Delete.class.getName(), "HttpMethod.DELETE");
+		VERBS.put(Connect.class.getName(), "HttpMethod.CONNECT");
+		VERBS.put(Options.class.getName(), "HttpMethod.OPTIONS");
+		VERBS.put(Head.class.getName(), "HttpMethod.HEAD");
+		VERBS.put(Patch.class.getName(), "HttpMethod.PATCH");
+		VERBS.put(Path.class.getName(), "null");
+	}
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return VERBS.keySet();
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		Set<TypeElement> types = new LinkedHashSet<>();
+		for (TypeElement annotation : annotations) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element.getKind() == ElementKind.METHOD) {
+					types.add((TypeElement) element.getEnclosingElement());
+				} else if (element.getKind() == ElementKind.CLASS) {
+					types.add((TypeElement) element);
+				}
+			}
+		}
+
+		for (TypeElement type : types) {
+			try {
+				generate(type);
+			} catch (IOException e) {
+				processingEnv.getMessager().printMessage(Kind.ERROR, "can't generate route binder: " + e, type);
+			}
+		}
+		return false;
+	}
+
+	private void generate(TypeElement type) throws IOException {
+		String reason = checkType(type);
+		if (reason != null) {
+			note(type, reason);
+			return;
+		}
+
+		String servicePath = "";
+		List<String> defaultProduces = null;
+		List<String> defaultConsumes = null;
+		for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+			String name = annotationName(mirror);
+			if (Path.class.getName().equals(name)) {
+				servicePath = (String) value(mirror);
+			} else if (Produces.class.getName().equals(name)) {
+				defaultProduces = values(mirror);
+			} else if (Consumes.class.getName().equals(name)) {
+				defaultConsumes = values(mirror);
+			} else if (name.startsWith(ANNOTATION_PACKAGE)) {
+				note(type, "@" + name + " is not supported by generated binders");
+				return;
+			}
+		}
+
+		List<String> statements = new ArrayList<>();
+		for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+			Set<Modifier> modifiers = method.getModifiers();
+			if (modifiers.contains(Modifier.STATIC) || !modifiers.contains(Modifier.PUBLIC)) {
+				continue;
+			}
+
+			List<String> routes = new ArrayList<>();
+			List<String> produces = defaultProduces;
+			List<String> consumes = defaultConsumes;
+			for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+				String name = annotationName(mirror);
+				if (VERBS.containsKey(name)) {
+					routes.add(VERBS.get(name) + ", " + literal(servicePath + value(mirror)));
+				} else if (Produces.class.getName().equals(name)) {
+					produces = values(mirror);
+				} else if (Consumes.class.getName().equals(name)) {
+					consumes = values(mirror);
+				} else if (name.startsWith(ANNOTATION_PACKAGE)) {
+					note(type, "@" + name + " on " + method.getSimpleName() + " is not supported by generated binders");
+					return;
+				}
+			}
+			if (routes.isEmpty()) {
+				continue;
+			}
+
+			if (!isRoutingContextHandler(method)) {
+				note(type, method.getSimpleName() + " is not a RoutingContext handler");
+				return;
+			}
+			if (!isSupportedResult(method.getReturnType())) {
+				note(type, method.getSimpleName() + " returns an unsupported type");
+				return;
+			}
+
+			String handler = handler(method, produces, consumes);
+			boolean negotiate = produces != null && !produces.isEmpty() || consumes != null && !consumes.isEmpty();
+			for (String route : routes) {
+				StringBuilder statement = new StringBuilder("RouteBinder.route(router, decorator, ").append(route);
+				if (negotiate) {
+					statement.append(", ").append(array(produces)).append(", ").append(array(consumes));
+				}
+				statements.add(statement.append(", ").append(handler).append(");").toString());
+			}
+		}
+
+		write(type, statements);
+	}
+
+	private String checkType(TypeElement type) {
+		if (!type.getTypeParameters().isEmpty()) {
+			return "generic resource classes are not supported by generated binders";
+		}
+		for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+			if (!e.getModifiers().contains(Modifier.PUBLIC)) {
+				return e.getSimpleName() + " is not public";
+			}
+		}
+		return null;
+	}
+
+	private boolean isRoutingContextHandler(ExecutableElement method) {
+		if (method.getParameters().size() != 1 || !method.getTypeParameters().isEmpty()) {
+			return false;
+		}
+		VariableElement param = method.getParameters().get(0);
+		for (AnnotationMirror mirror : param.getAnnotationMirrors()) {
+			if (annotationName(mirror).startsWith(ANNOTATION_PACKAGE)) {
+				return false;
+			}
+		}
+		String paramType = processingEnv.getTypeUtils().erasure(param.asType()).toString();
+		return ROUTING_CONTEXT.equals(paramType) || Object.class.getName().equals(paramType);
+	}
+
+	private boolean isSupportedResult(TypeMirror returnType) {
+		if (returnType.getKind() == TypeKind.VOID) {
+			return true;
+		}
+		TypeMirror type = processingEnv.getTypeUtils().erasure(returnType);
+		if (RESULT_TYPES.contains(type.toString())) {
+			return true;
+		}
+		for (String supertype : RESULT_SUPERTYPES) {
+			TypeElement element = processingEnv.getElementUtils().getTypeElement(supertype);
+			if (element != null && processingEnv.getTypeUtils().isAssignable(type,
+				processingEnv.getTypeUtils().erasure(element.asType()))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String array(List<String> values) {
+		if (values == null || values.isEmpty()) {
+			return "null";
+		}
+		StringBuilder array = new StringBuilder("new String[] { ");
+		for (int i = 0; i < values.size(); i++) {
+			array.append(i == 0 ? "" : ", ").append(literal(values.get(i)));
+		}
+		return array.append(" }").toString();
+	}
+
+	private String handler(ExecutableElement method, List<String> produces, List<String> consumes) {
+		String name = method.getSimpleName().toString();
+		if (method.getReturnType().getKind() != TypeKind.VOID) {
+			// encoded by the codecs the route negotiates
+			return RESULT_WRITER + ".handler(codecs, " + array(produces) + ", " + array(consumes) + ", instance::"
+					+ name + ")";
+		}
+
+		boolean checked = false;
+		TypeMirror runtimeException = processingEnv.getElementUtils().getTypeElement(RuntimeException.class.getName())
+			.asType();
+		TypeMirror error = processingEnv.getElementUtils().getTypeElement(Error.class.getName()).asType();
+		for (TypeMirror thrown : method.getThrownTypes()) {
+			if (!processingEnv.getTypeUtils().isAssignable(thrown, runtimeException)
+					&& !processingEnv.getTypeUtils().isAssignable(thrown, error)) {
+				checked = true;
+			}
+		}
+
+		if (!checked) {
+			return "instance::" + name;
+		}
+
+		StringBuilder handler = new StringBuilder("ctx -> {\n");
+		handler.append("            try {\n");
+		handler.append("                instance.").append(name).append("(ctx);\n");
+		handler.append("            } catch (Throwable e) {\n");
+		handler.append("                ctx.fail(e);\n");
+		handler.append("            }\n");
+		handler.append("        }");
+		return handler.toString();
+	}
+
+	private void write(TypeElement type, List<String> statements) throws IOException {
+		PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+		String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+		String binderName = binderSimpleName(type);
+
+		JavaFileObject file = processingEnv.getFiler()
+			.createSourceFile(packageName.isEmpty() ? binderName : packageName + "." + binderName, type);
+		try (Writer writer = file.openWriter()) {
+			if (!packageName.isEmpty()) {
+				writer.write("package " + packageName + ";\n\n");
+			}
+			writer.write("import " + RouteBinder.class.getName() + ";\n");
+			writer.write("import " + RouteDecorator.class.getName() + ";\n");
+			writer.write("import " + CodecRegistry.class.getName() + ";\n\n");
+			writer.write("import io.vertx.core.http.HttpMethod;\n");
+			writer.write("import io.vertx.ext.web.Router;\n\n");
+			writer.write("/**\n * Generated by " + getClass().getSimpleName() + " for {@link "
+					+ type.getQualifiedName() + "}, do not edit.\n */\n");
+			writer.write("public final class " + binderName + " implements RouteBinder<" + type.getQualifiedName()
+					+ "> {\n\n");
+			writer.write("    @Override\n");
+			writer.write("    public void bind(Router router, final " + type.getQualifiedName()
+					+ " instance, RouteDecorator decorator,\n            CodecRegistry codecs) {\n");
+			for (String statement : statements) {
+				writer.write("        " + statement + "\n");
+			}
+			writer.write("    }\n\n}\n");
+		}
+	}
+
+	private static String binderSimpleName(TypeElement type) {
+		String name = type.getSimpleName().toString();
+		for (Element e = type.getEnclosingElement(); e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+			name = e.getSimpleName() + "_" + name;
+		}
+		return name + RouteBinder.SUFFIX;
+	}
+
+	private void note(TypeElement type, String reason) {
+		processingEnv.getMessager().printMessage(Kind.NOTE,
+			"skip route binder for " + type.getQualifiedName() + ": " + reason, type);
+	}
+
+	private static String annotationName(AnnotationMirror mirror) {
+		return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+	}
+
+	private Object value(AnnotationMirror mirror) {
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : processingEnv.getElementUtils()
+			.getElementValuesWithDefaults(mirror).entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals("value")) {
+				return entry.getValue().getValue();
+			}
+		}
+		return null;
+	}
+
+	private List<String> values(AnnotationMirror mirror) {
+		List<String> values = new ArrayList<>();
+		Object value = value(mirror);
+		if (value instanceof List) {
+			for (Object element : (List<?>) value) {
+				values.add((String) ((AnnotationValue) element).getValue());
+			}
+		}
+		return values;
+	}
+
+	private static String literal(String value) {
+		StringBuilder literal = new StringBuilder("\"");
+		for (char c : value.toCharArray()) {
+			switch (c) {
+			case '"':
+				literal.append("\\\"");
+				break;
+			case '\\':
+				literal.append("\\\\");
+				break;
+			case '\n':
+				literal.append("\\n");
+				break;
+			case '\r':
+				literal.append("\\r");
+				break;
+			case '\t':
+				literal.append("\\t");
+				break;
+			default:
+				if (c < 0x20 || c > 0x7e) {
+					literal.append(String.format("\\u%04x", (int) c));
+				} else {
+					literal.append(c);
+				}
+			}
+		}
+		return literal.append('"').toString();
+	}
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.batch;
+
+import java.io.IOException;
+
+import com.dinstone.vertx.web.router.LocalRequest;
+import com.dinstone.vertx.web.router.LocalResponse;
+import com.fasterxml.jackson.core.JsonParser;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Dispatches a JSON array of sub-requests through the router in memory, all at once, and streams back the array of
+ * their results in request order as soon as each prefix of it is complete.
+ * <p>
+ * A sub-request is {@code {"method": "GET", "path": "/hello?name=x", "headers": {...}, "body": ...}}, its result
+ * {@code {"status": 200, "headers": {...}, "body": ...}}. JSON bodies are embedded as is, other bodies and malformed
+ * JSON ones as strings.
+ * Sub-requests carry only their own headers, without {@code Accept-Encoding} since their bodies are embedded.
+ */
+public class BatchHandler implements Handler<RoutingContext> {
+
+    public static final int DEFAULT_MAX_REQUESTS = 50;
+
+    /**
+     * The body size allowed per sub-request, the batch body is limited to {@code maxRequests} times it.
+     */
+    public static final int MAX_REQUEST_SIZE = 64 * 1024;
+
+    private final Router router;
+
+    private final String path;
+
+    private final int maxRequests;
+
+    public BatchHandler(Router router, String path) {
+        this(router, path, DEFAULT_MAX_REQUESTS);
+    }
+
+    public BatchHandler(Router router, String path, int maxRequests) {
+        this.router = router;
+        this.path = path;
+        this.maxRequests = maxRequests;
+    }
+
+    /**
+     * The largest batch body accepted, in bytes.
+     */
+    public long bodyLimit() {
+        return (long) maxRequests * MAX_REQUEST_SIZE;
+    }
+
+    @Override
+    public void handle(RoutingContext ctx) {
+        JsonArray requests;
+        try {
+            requests = ctx.getBodyAsJsonArray();
+        } catch (DecodeException | ClassCastException e) {
+            ctx.fail(400);
+            return;
+        }
+        if (requests == null || requests.size() > maxRequests) {
+            ctx.fail(requests == null ? 400 : 413);
+            return;
+        }
+
+        HttpServerResponse response = ctx.response();
+        response.setChunked(true).putHeader(HttpHeaders.CONTENT_TYPE, "application/json");
+        if (requests.isEmpty()) {
+            response.end("[]");
+            return;
+        }
+
+        Batch batch = new Batch(response, requests.size());
+        Context context = ctx.vertx().getOrCreateContext();
+        for (int i = 0; i < requests.size(); i++) {
+            final int index = i;
+            // sub-responses of blocking routes end on a worker, the batch is only touched on its context
+            LocalResponse sub = new LocalResponse(ctx.vertx(), r -> {
+                Buffer result = result(r);
+                context.runOnContext(v -> batch.complete(index, result));
+            });
+            batch.responses[i] = sub;
+
+            Object request = requests.getValue(i);
+            String error = request instanceof JsonObject ? validate((JsonObject) request) : "not an object";
+            if (error != null) {
+                sub.setStatusCode(400).end(error);
+            } else {
+                router.accept(request(ctx.request(), context, (JsonObject) request, sub));
+            }
+        }
+        response.closeHandler(v -> batch.closed());
+    }
+
+    private String validate(JsonObject request) {
+        String method = request.getString("method", "GET");
+        try {
+            HttpMethod.valueOf(method.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return "unknown method " + method;
+        }
+
+        String uri = request.getString("path");
+        if (uri == null || !uri.startsWith("/")) {
+            return "path must start with /";
+        }
+        int query = uri.indexOf('?');
+        if (path.equals(query < 0 ? uri : uri.substring(0, query))) {
+            return "batches can't be nested";
+        }
+
+        Object headers = request.getValue("headers");
+        if (headers != null && !(headers instanceof JsonObject)) {
+            return "headers must be an object";
+        }
+        return null;
+    }
+
+    private static LocalRequest request(HttpServerRequest batch, Context context, JsonObject request,
+            LocalResponse response) {
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+        JsonObject fields = request.getJsonObject("headers");
+        if (fields != null) {
+            for (String name : fields.fieldNames()) {
+                Object value = fields.getValue(name);
+                if (value instanceof JsonArray) {
+                    for (Object item : (JsonArray) value) {
+                        headers.add(name, String.valueOf(item));
+                    }
+                } else if (value != null) {
+                    headers.add(name, String.valueOf(value));
+                }
+            }
+        }
+        headers.remove(HttpHeaders.ACCEPT_ENCODING);
+
+        Buffer body;
+        Object value = request.getValue("body");
+        if (value == null) {
+            body = Buffer.buffer(0);
+        } else if (value instanceof String) {
+            body = Buffer.buffer((String) value);
+        } else {
+            body = Buffer.buffer(Json.encode(value));
+            if (!headers.contains(HttpHeaders.CONTENT_TYPE)) {
+                headers.set(HttpHeaders.CONTENT_TYPE, "application/json");
+            }
+        }
+        if (body.length() > 0) {
+            headers.set(HttpHeaders.CONTENT_LENGTH, Integer.toString(body.length()));
+        }
+
+        HttpMethod method = HttpMethod.valueOf(request.getString("method", "GET").toUpperCase());
+        return new LocalRequest(batch, context, method, request.getString("path"), headers, body, response);
+    }
+
+    private static Buffer result(LocalResponse response) {
+        JsonObject headers = new JsonObject();
+        for (String name : response.headers().names()) {
+            headers.put(name, String.join(", ", response.headers().getAll(name)));
+        }
+
+        Buffer result = Buffer.buffer().appendString("{\"status\":")
+            .appendString(Integer.toString(response.getStatusCode())).appendString(",\"headers\":")
+            .appendString(headers.encode());
+        Buffer body = response.body();
+        if (body.length() > 0) {
+            result.appendString(",\"body\":");
+            String contentType = response.headers().get(HttpHeaders.CONTENT_TYPE);
+            if (contentType != null && contentType.contains("json") && isJson(body)) {
+                result.appendBuffer(body);
+            } else {
+                result.appendString(Json.encode(body.toString()));
+            }
+        }
+        return result.appendString("}");
+    }
+
+    /**
+     * Returns true if the body is a single well-formed JSON value, read as tokens without building it.
+     */
+    private static boolean isJson(Buffer body) {
+        try (JsonParser parser = Json.mapper.getFactory().createParser(body.getBytes())) {
+            if (parser.nextToken() == null) {
+                return false;
+            }
+            parser.skipChildren();
+            return parser.nextToken() == null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The results of a batch, written in order as their prefix completes, only touched on the context of the batch.
+     */
+    private static final class Batch {
+
+        private final HttpServerResponse response;
+
+        private final LocalResponse[] responses;
+
+        private final Buffer[] results;
+
+        private int next;
+
+        Batch(HttpServerResponse response, int size) {
+            this.response = response;
+            this.responses = new LocalResponse[size];
+            this.results = new Buffer[size];
+        }
+
+        void complete(int index, Buffer result) {
+            results[index] = result;
+            if (response.closed()) {
+                return;
+            }
+
+            Buffer chunk = Buffer.buffer();
+            while (next < results.length && results[next] != null) {
+                chunk.appendString(next == 0 ? "[" : ",").appendBuffer(results[next]);
+                results[next++] = null;
+            }
+            if (next == results.length) {
+                response.end(chunk.appendString("]"));
+            } else if (chunk.length() > 0) {
+                response.write(chunk);
+            }
+        }
+
+        void closed() {
+            for (LocalResponse sub : responses) {
+                sub.connectionClosed();
+            }
+        }
+    }
+
+}
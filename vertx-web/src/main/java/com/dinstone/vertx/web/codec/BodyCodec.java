@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.codec;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Encodes response values and decodes request bodies of one media type, writing straight into the {@link Buffer}
+ * sent on the wire.
+ */
+public interface BodyCodec {
+
+    /**
+     * The media type handled by the codec, without parameters.
+     */
+    String mediaType();
+
+    /**
+     * Appends the encoded value to the buffer.
+     */
+    void encode(Object value, Buffer buffer);
+
+    /**
+     * Decodes the whole buffer into a value of the type.
+     */
+    <T> T decode(Buffer buffer, Class<T> type);
+
+}
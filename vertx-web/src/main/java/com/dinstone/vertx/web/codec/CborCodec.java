@@ -0,0 +1,357 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.EncodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * {@code application/cbor} codec (RFC 7049) of the JSON data model plus byte strings. Other objects are converted to
+ * maps and lists by the Vert.x Jackson mapper first, and decoded maps and lists are converted back to the requested
+ * type the same way.
+ */
+public class CborCodec implements BodyCodec {
+
+    public static final String MEDIA_TYPE = "application/cbor";
+
+    public static final CborCodec INSTANCE = new CborCodec();
+
+    private static final int UNSIGNED = 0;
+
+    private static final int NEGATIVE = 1 << 5;
+
+    private static final int BYTES = 2 << 5;
+
+    private static final int TEXT = 3 << 5;
+
+    private static final int ARRAY = 4 << 5;
+
+    private static final int MAP = 5 << 5;
+
+    private static final int TAG = 6 << 5;
+
+    private static final int SIMPLE = 7 << 5;
+
+    private static final int INDEFINITE = 31;
+
+    private static final int BREAK = 0xff;
+
+    @Override
+    public String mediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public void encode(Object value, Buffer buffer) {
+        write(value, buffer, true);
+    }
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public <T> T decode(Buffer buffer, Class<T> type) {
+        Object value;
+        try {
+            Reader reader = new Reader(buffer);
+            value = reader.read();
+            if (reader.position != buffer.length()) {
+                throw new DecodeException("Unexpected data after the CBOR value");
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new DecodeException("Unexpected end of the CBOR value");
+        }
+
+        try {
+            if (type == JsonObject.class) {
+                return (T) new JsonObject((Map) value);
+            } else if (type == JsonArray.class) {
+                return (T) new JsonArray((List) value);
+            } else if (value == null || type.isInstance(value)) {
+                return (T) value;
+            }
+            return Json.mapper.convertValue(value, type);
+        } catch (RuntimeException e) {
+            throw new DecodeException("Failed to decode CBOR as " + type.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private static void write(Object value, Buffer buffer, boolean convert) {
+        if (value == null) {
+            buffer.appendUnsignedByte((short) (SIMPLE | 22));
+        } else if (value instanceof Boolean) {
+            buffer.appendUnsignedByte((short) (SIMPLE | ((Boolean) value ? 21 : 20)));
+        } else if (value instanceof CharSequence || value instanceof Enum) {
+            byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+            header(TEXT, bytes.length, buffer);
+            buffer.appendBytes(bytes);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte) {
+            writeLong(((Number) value).longValue(), buffer);
+        } else if (value instanceof Float) {
+            buffer.appendUnsignedByte((short) (SIMPLE | 26));
+            buffer.appendFloat((Float) value);
+        } else if (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64) {
+            writeLong(((BigInteger) value).longValue(), buffer);
+        } else if (value instanceof Double || value instanceof BigInteger || value instanceof BigDecimal) {
+            buffer.appendUnsignedByte((short) (SIMPLE | 27));
+            buffer.appendDouble(((Number) value).doubleValue());
+        } else if (value instanceof byte[]) {
+            header(BYTES, ((byte[]) value).length, buffer);
+            buffer.appendBytes((byte[]) value);
+        } else if (value instanceof Buffer) {
+            header(BYTES, ((Buffer) value).length(), buffer);
+            buffer.appendBuffer((Buffer) value);
+        } else if (value instanceof JsonObject) {
+            write(((JsonObject) value).getMap(), buffer, convert);
+        } else if (value instanceof JsonArray) {
+            write(((JsonArray) value).getList(), buffer, convert);
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            header(MAP, map.size(), buffer);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                write(String.valueOf(entry.getKey()), buffer, false);
+                write(entry.getValue(), buffer, convert);
+            }
+        } else if (value instanceof Collection) {
+            Collection<?> list = (Collection<?>) value;
+            header(ARRAY, list.size(), buffer);
+            for (Object item : list) {
+                write(item, buffer, convert);
+            }
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            header(ARRAY, array.length, buffer);
+            for (Object item : array) {
+                write(item, buffer, convert);
+            }
+        } else if (convert) {
+            // a bean, encoded as the maps and lists Jackson would write as JSON
+            Object tree;
+            try {
+                tree = Json.mapper.convertValue(value, Object.class);
+            } catch (IllegalArgumentException e) {
+                throw new EncodeException("Failed to encode as CBOR: " + e.getMessage());
+            }
+            write(tree, buffer, false);
+        } else {
+            throw new EncodeException("Failed to encode as CBOR: " + value.getClass().getName());
+        }
+    }
+
+    private static void writeLong(long value, Buffer buffer) {
+        if (value < 0) {
+            header(NEGATIVE, -1 - value, buffer);
+        } else {
+            header(UNSIGNED, value, buffer);
+        }
+    }
+
+    private static void header(int major, long value, Buffer buffer) {
+        if (value < 24) {
+            buffer.appendUnsignedByte((short) (major | value));
+        } else if (value < 0x100) {
+            buffer.appendUnsignedByte((short) (major | 24));
+            buffer.appendUnsignedByte((short) value);
+        } else if (value < 0x10000) {
+            buffer.appendUnsignedByte((short) (major | 25));
+            buffer.appendUnsignedShort((int) value);
+        } else if (value < 0x100000000L) {
+            buffer.appendUnsignedByte((short) (major | 26));
+            buffer.appendUnsignedInt(value);
+        } else {
+            buffer.appendUnsignedByte((short) (major | 27));
+            buffer.appendLong(value);
+        }
+    }
+
+    private static final class Reader {
+
+        private final Buffer buffer;
+
+        private int position;
+
+        Reader(Buffer buffer) {
+            this.buffer = buffer;
+        }
+
+        Object read() {
+            int initial = buffer.getUnsignedByte(position++);
+            if (initial == BREAK) {
+                throw new DecodeException("Unexpected CBOR break");
+            }
+            return read(initial);
+        }
+
+        private Object read(int initial) {
+            int major = initial & 0xe0;
+            int info = initial & 0x1f;
+            switch (major) {
+            case UNSIGNED:
+                return number(length(info));
+            case NEGATIVE:
+                return number(-1 - length(info));
+            case BYTES:
+                return bytes(info);
+            case TEXT:
+                return new String(bytes(info), StandardCharsets.UTF_8);
+            case ARRAY:
+                return array(info);
+            case MAP:
+                return map(info);
+            case TAG:
+                length(info);
+                return read();
+            default:
+                return simple(info);
+            }
+        }
+
+        private long length(int info) {
+            long value;
+            if (info < 24) {
+                return info;
+            } else if (info == 24) {
+                value = buffer.getUnsignedByte(position);
+                position += 1;
+            } else if (info == 25) {
+                value = buffer.getUnsignedShort(position);
+                position += 2;
+            } else if (info == 26) {
+                value = buffer.getUnsignedInt(position);
+                position += 4;
+            } else if (info == 27) {
+                value = buffer.getLong(position);
+                position += 8;
+            } else {
+                throw new DecodeException("Invalid CBOR length " + info);
+            }
+            if (value < 0) {
+                throw new DecodeException("CBOR length out of range");
+            }
+            return value;
+        }
+
+        private int size(int info) {
+            long size = length(info);
+            if (size > buffer.length() - position) {
+                throw new DecodeException("CBOR length exceeds the body");
+            }
+            return (int) size;
+        }
+
+        private Object number(long value) {
+            return value == (int) value ? Integer.valueOf((int) value) : Long.valueOf(value);
+        }
+
+        private byte[] bytes(int info) {
+            if (info == INDEFINITE) {
+                Buffer chunks = Buffer.buffer();
+                int initial;
+                while ((initial = buffer.getUnsignedByte(position++)) != BREAK) {
+                    int size = size(initial & 0x1f);
+                    chunks.appendBuffer(buffer, position, size);
+                    position += size;
+                }
+                return chunks.getBytes();
+            }
+
+            int size = size(info);
+            byte[] bytes = buffer.getBytes(position, position + size);
+            position += size;
+            return bytes;
+        }
+
+        private List<Object> array(int info) {
+            List<Object> list = new ArrayList<>();
+            if (info == INDEFINITE) {
+                int initial;
+                while ((initial = buffer.getUnsignedByte(position++)) != BREAK) {
+                    list.add(read(initial));
+                }
+            } else {
+                for (int i = size(info); i > 0; i--) {
+                    list.add(read());
+                }
+            }
+            return list;
+        }
+
+        private Map<String, Object> map(int info) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            if (info == INDEFINITE) {
+                int initial;
+                while ((initial = buffer.getUnsignedByte(position++)) != BREAK) {
+                    map.put(String.valueOf(read(initial)), read());
+                }
+            } else {
+                for (int i = size(info); i > 0; i--) {
+                    map.put(String.valueOf(read()), read());
+                }
+            }
+            return map;
+        }
+
+        private Object simple(int info) {
+            switch (info) {
+            case 20:
+                return Boolean.FALSE;
+            case 21:
+                return Boolean.TRUE;
+            case 22:
+            case 23:
+                return null;
+            case 25:
+                position += 2;
+                return halfFloat(buffer.getUnsignedShort(position - 2));
+            case 26:
+                position += 4;
+                return Double.valueOf(buffer.getFloat(position - 4));
+            case 27:
+                position += 8;
+                return buffer.getDouble(position - 8);
+            default:
+                throw new DecodeException("Unsupported CBOR simple value " + info);
+            }
+        }
+
+        private static Double halfFloat(int bits) {
+            int exponent = (bits >> 10) & 0x1f;
+            int mantissa = bits & 0x3ff;
+            double value;
+            if (exponent == 0) {
+                value = mantissa * Math.pow(2, -24);
+            } else if (exponent == 31) {
+                value = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+            } else {
+                value = (mantissa + 1024) * Math.pow(2, exponent - 25);
+            }
+            return (bits & 0x8000) == 0 ? value : -value;
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.codec;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Codecs by media type. Routes pick the codecs of their {@code @Produces} and {@code @Consumes} types when they are
+ * built, a structured suffix type like {@code application/problem+json} falls back to the codec of its suffix.
+ */
+public class CodecRegistry {
+
+    private final Map<String, BodyCodec> codecs = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a registry with the built-in JSON and CBOR codecs.
+     */
+    public static CodecRegistry create() {
+        return new CodecRegistry().register(JsonCodec.INSTANCE).register(CborCodec.INSTANCE);
+    }
+
+    /**
+     * Registers the codec, replacing the codec of the same media type.
+     */
+    public CodecRegistry register(BodyCodec codec) {
+        codecs.put(normalize(codec.mediaType()), codec);
+        return this;
+    }
+
+    /**
+     * Returns the codec of the media type, parameters are ignored, or null if there is none.
+     */
+    public BodyCodec lookup(String mediaType) {
+        if (mediaType == null) {
+            return null;
+        }
+
+        String type = normalize(mediaType);
+        BodyCodec codec = codecs.get(type);
+        if (codec == null) {
+            int suffix = type.lastIndexOf('+');
+            if (suffix > 0) {
+                codec = codecs.get("application/" + type.substring(suffix + 1));
+            }
+        }
+        return codec;
+    }
+
+    private static String normalize(String mediaType) {
+        int end = mediaType.indexOf(';');
+        return (end < 0 ? mediaType : mediaType.substring(0, end)).trim().toLowerCase(Locale.ENGLISH);
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.codec;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import io.netty.buffer.ByteBufInputStream;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.EncodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * {@code application/json} codec on the Vert.x Jackson mapper, the UTF-8 bytes are generated straight into the
+ * buffer without an intermediate String.
+ */
+public class JsonCodec implements BodyCodec {
+
+    public static final String MEDIA_TYPE = "application/json";
+
+    public static final JsonCodec INSTANCE = new JsonCodec();
+
+    @Override
+    public String mediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public void encode(Object value, Buffer buffer) {
+        try {
+            Json.mapper.writeValue(new BufferOutputStream(buffer), value);
+        } catch (IOException e) {
+            throw new EncodeException("Failed to encode as JSON: " + e.getMessage());
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T decode(Buffer buffer, Class<T> type) {
+        try {
+            ByteBufInputStream in = new ByteBufInputStream(buffer.getByteBuf());
+            if (type == JsonObject.class) {
+                return (T) new JsonObject(Json.mapper.readValue(in, Map.class));
+            } else if (type == JsonArray.class) {
+                return (T) new JsonArray(Json.mapper.readValue(in, List.class));
+            }
+            return Json.mapper.readValue(in, type);
+        } catch (IOException | RuntimeException e) {
+            throw new DecodeException("Failed to decode JSON: " + e.getMessage());
+        }
+    }
+
+}
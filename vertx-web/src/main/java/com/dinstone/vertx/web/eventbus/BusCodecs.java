@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.eventbus;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The event bus codecs of {@link BusRequest} and {@link BusResponse}. In the same JVM messages are delivered as is,
+ * without any copy; across a cluster they travel as a length-prefixed JSON head followed by the raw body.
+ */
+public final class BusCodecs {
+
+    private BusCodecs() {
+    }
+
+    /**
+     * Registers the codecs as the default ones of the message types, once per event bus.
+     */
+    public static void register(EventBus eventBus) {
+        register(eventBus, BusRequest.class, new RequestCodec());
+        register(eventBus, BusResponse.class, new ResponseCodec());
+    }
+
+    private static <T> void register(EventBus eventBus, Class<T> type, MessageCodec<T, T> codec) {
+        try {
+            eventBus.registerDefaultCodec(type, codec);
+        } catch (IllegalStateException e) {
+            // already registered on this event bus
+        }
+    }
+
+    static JsonObject toJson(MultiMap map) {
+        JsonObject json = new JsonObject();
+        for (String name : map.names()) {
+            json.put(name, new JsonArray(map.getAll(name)));
+        }
+        return json;
+    }
+
+    static MultiMap fromJson(JsonObject json) {
+        MultiMap map = MultiMap.caseInsensitiveMultiMap();
+        if (json != null) {
+            for (String name : json.fieldNames()) {
+                for (Object value : json.getJsonArray(name)) {
+                    map.add(name, (String) value);
+                }
+            }
+        }
+        return map;
+    }
+
+    private static void write(Buffer buffer, JsonObject head, Buffer body) {
+        Buffer encoded = Buffer.buffer(head.encode());
+        buffer.appendInt(encoded.length()).appendBuffer(encoded).appendInt(body.length()).appendBuffer(body);
+    }
+
+    private static JsonObject head(int pos, Buffer buffer) {
+        int length = buffer.getInt(pos);
+        return new JsonObject(buffer.getString(pos + 4, pos + 4 + length));
+    }
+
+    private static Buffer body(int pos, Buffer buffer) {
+        int start = pos + 4 + buffer.getInt(pos);
+        int length = buffer.getInt(start);
+        return buffer.getBuffer(start + 4, start + 4 + length);
+    }
+
+    static final class RequestCodec implements MessageCodec<BusRequest, BusRequest> {
+
+        @Override
+        public void encodeToWire(Buffer buffer, BusRequest request) {
+            JsonObject head = new JsonObject().put("params", toJson(request.params())).put("headers",
+                toJson(request.headers()));
+            write(buffer, head, request.body());
+        }
+
+        @Override
+        public BusRequest decodeFromWire(int pos, Buffer buffer) {
+            JsonObject head = head(pos, buffer);
+            return new BusRequest(fromJson(head.getJsonObject("params")), fromJson(head.getJsonObject("headers")),
+                body(pos, buffer));
+        }
+
+        @Override
+        public BusRequest transform(BusRequest request) {
+            return request;
+        }
+
+        @Override
+        public String name() {
+            return "vertx-web.bus-request";
+        }
+
+        @Override
+        public byte systemCodecID() {
+            return -1;
+        }
+    }
+
+    static final class ResponseCodec implements MessageCodec<BusResponse, BusResponse> {
+
+        @Override
+        public void encodeToWire(Buffer buffer, BusResponse response) {
+            JsonObject head = new JsonObject().put("status", response.statusCode()).put("headers",
+                toJson(response.headers()));
+            write(buffer, head, response.body());
+        }
+
+        @Override
+        public BusResponse decodeFromWire(int pos, Buffer buffer) {
+            JsonObject head = head(pos, buffer);
+            return new BusResponse(head.getInteger("status"), fromJson(head.getJsonObject("headers")),
+                body(pos, buffer));
+        }
+
+        @Override
+        public BusResponse transform(BusResponse response) {
+            return response;
+        }
+
+        @Override
+        public String name() {
+            return "vertx-web.bus-response";
+        }
+
+        @Override
+        public byte systemCodecID() {
+            return -1;
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.eventbus;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * A call of an annotated resource method over the event bus: the path and query parameters, headers and body of the
+ * HTTP request it stands for. Sent in the same JVM the instance itself is delivered, so it must not be changed once
+ * sent.
+ */
+public class BusRequest {
+
+    private final MultiMap params;
+
+    private final MultiMap headers;
+
+    private Buffer body;
+
+    public BusRequest() {
+        this(MultiMap.caseInsensitiveMultiMap(), MultiMap.caseInsensitiveMultiMap(), Buffer.buffer(0));
+    }
+
+    BusRequest(MultiMap params, MultiMap headers, Buffer body) {
+        this.params = params;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    public static BusRequest create() {
+        return new BusRequest();
+    }
+
+    /**
+     * Adds a path or query parameter.
+     */
+    public BusRequest param(String name, String value) {
+        params.add(name, value);
+        return this;
+    }
+
+    public BusRequest header(String name, String value) {
+        headers.add(name, value);
+        return this;
+    }
+
+    public BusRequest body(Buffer body) {
+        this.body = body;
+        return this;
+    }
+
+    public BusRequest body(String body) {
+        return body(Buffer.buffer(body));
+    }
+
+    public MultiMap params() {
+        return params;
+    }
+
+    public MultiMap headers() {
+        return headers;
+    }
+
+    public Buffer body() {
+        return body;
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.eventbus;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The reply to a {@link BusRequest}: the status, headers and body of the response the resource method wrote.
+ */
+public class BusResponse {
+
+    private final int statusCode;
+
+    private final MultiMap headers;
+
+    private final Buffer body;
+
+    public BusResponse(int statusCode, MultiMap headers, Buffer body) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    public int statusCode() {
+        return statusCode;
+    }
+
+    public MultiMap headers() {
+        return headers;
+    }
+
+    public Buffer body() {
+        return body;
+    }
+
+    public String bodyAsString() {
+        return body.toString();
+    }
+
+    public JsonObject bodyAsJson() {
+        return body.toJsonObject();
+    }
+
+    public JsonArray bodyAsJsonArray() {
+        return body.toJsonArray();
+    }
+
+}
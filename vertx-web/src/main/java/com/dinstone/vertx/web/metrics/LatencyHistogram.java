@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Lock free log-linear histogram of latencies in microseconds, each power of two is split into 8 buckets, so a
+ * percentile is within 12.5% of the recorded value.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    private static final int LINEAR_COUNT = SUB_COUNT * 2;
+
+    private static final int MAX_MAGNITUDE = 40;
+
+    private static final int BUCKET_COUNT = LINEAR_COUNT + (MAX_MAGNITUDE - SUB_BITS) * SUB_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        buckets.incrementAndGet(index(value));
+        count.increment();
+        sum.add(value);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile, 0 if nothing was recorded.
+     */
+    public long percentile(double percentile) {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        return percentile(counts, total, percentile);
+    }
+
+    public JsonObject toJson() {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        int last = -1;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+            if (counts[i] > 0) {
+                last = i;
+            }
+        }
+
+        JsonObject json = new JsonObject();
+        json.put("mean", total == 0 ? 0 : sum.sum() / total);
+        json.put("p50", percentile(counts, total, 50));
+        json.put("p90", percentile(counts, total, 90));
+        json.put("p99", percentile(counts, total, 99));
+        json.put("p999", percentile(counts, total, 99.9));
+        json.put("max", last < 0 ? 0 : upperBound(last));
+        return json;
+    }
+
+    private static long percentile(long[] counts, long total, double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(counts.length - 1);
+    }
+
+    static int index(long value) {
+        if (value < LINEAR_COUNT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude >= MAX_MAGNITUDE) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (value >>> (magnitude - SUB_BITS)) & (SUB_COUNT - 1);
+        return LINEAR_COUNT + (magnitude - SUB_BITS - 1) * SUB_COUNT + sub;
+    }
+
+    static long upperBound(int index) {
+        if (index < LINEAR_COUNT) {
+            return index;
+        }
+        int magnitude = (index - LINEAR_COUNT) / SUB_COUNT + SUB_BITS + 1;
+        int sub = (index - LINEAR_COUNT) % SUB_COUNT;
+        return ((long) (SUB_COUNT + sub + 1) << (magnitude - SUB_BITS)) - 1;
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.dinstone.vertx.web.RouteDecorator;
+import com.dinstone.vertx.web.annotation.handler.ResponseHooks;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Records count, errors, in-flight requests and latency of every annotated route, keyed by the HTTP method and the
+ * path template rather than the request URI. A request is measured until its response body is written or its
+ * connection closes, responses with a 5xx status and requests closed before their response are counted as errors.
+ */
+public class RouteMetrics implements RouteDecorator {
+
+    private final ConcurrentMap<String, RouteStats> routes = new ConcurrentHashMap<>();
+
+    @Override
+    public Handler<RoutingContext> decorate(HttpMethod method, String path, Handler<RoutingContext> handler) {
+        final RouteStats stats = stats(method, path);
+        return ctx -> {
+            Measure measure = new Measure(stats, ctx);
+            ctx.addBodyEndHandler(measure);
+            ResponseHooks.onClose(ctx, measure);
+            handler.handle(ctx);
+        };
+    }
+
+    public RouteStats stats(HttpMethod method, String path) {
+        return routes.computeIfAbsent(key(method, path), k -> new RouteStats());
+    }
+
+    public JsonObject snapshot() {
+        JsonObject json = new JsonObject();
+        for (Map.Entry<String, RouteStats> entry : new TreeMap<>(routes).entrySet()) {
+            json.put(entry.getKey(), entry.getValue().toJson());
+        }
+        return json;
+    }
+
+    /**
+     * Returns a handler responding with the JSON snapshot, latencies are in microseconds.
+     */
+    public Handler<RoutingContext> handler() {
+        return ctx -> ctx.response().putHeader("Content-Type", "application/json").end(snapshot().encode());
+    }
+
+    private static String key(HttpMethod method, String path) {
+        return (method == null ? "*" : method.name()) + " " + path;
+    }
+
+    /**
+     * Ends the measure of a request once, when its response ends or its connection closes.
+     */
+    private static final class Measure implements Handler<Void> {
+
+        private final RouteStats stats;
+
+        private final RoutingContext ctx;
+
+        private final long start = System.nanoTime();
+
+        private boolean ended;
+
+        Measure(RouteStats stats, RoutingContext ctx) {
+            this.stats = stats;
+            this.ctx = ctx;
+            stats.begin();
+        }
+
+        @Override
+        public void handle(Void event) {
+            if (!ended) {
+                ended = true;
+                stats.end(start, !ctx.response().ended() || ctx.response().getStatusCode() >= 500);
+            }
+        }
+    }
+
+}
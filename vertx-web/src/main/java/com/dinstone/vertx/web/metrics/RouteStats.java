@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Counters and latency of one route, safe to update from any event loop without locking.
+ */
+public class RouteStats {
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder inflight = new LongAdder();
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public void begin() {
+        inflight.increment();
+    }
+
+    public void end(long startNanos, boolean error) {
+        inflight.decrement();
+        count.increment();
+        if (error) {
+            errors.increment();
+        }
+        latency.record((System.nanoTime() - startNanos) / 1000);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    public long inflight() {
+        return inflight.sum();
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    public JsonObject toJson() {
+        return new JsonObject().put("count", count()).put("errors", errors()).put("inflight", inflight())
+            .put("latency", latency.toJson());
+    }
+
+}
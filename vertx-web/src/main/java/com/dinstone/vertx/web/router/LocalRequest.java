@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.router;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.net.ssl.SSLPeerUnverifiedException;
+
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerFileUpload;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.net.SocketAddress;
+
+/**
+ * A request routed in memory, with {@code router.accept(request)}: its body is delivered on the context once the
+ * route has registered its handlers, and its response is captured by a {@link LocalResponse}. Connection details come
+ * from the origin request, if any.
+ */
+public class LocalRequest implements HttpServerRequest {
+
+    private final HttpServerRequest origin;
+
+    private final Context context;
+
+    private final HttpMethod method;
+
+    private final String uri;
+
+    private final String path;
+
+    private final String query;
+
+    private final MultiMap headers;
+
+    private final Buffer body;
+
+    private final LocalResponse response;
+
+    private MultiMap params;
+
+    private MultiMap attributes;
+
+    private Handler<Buffer> dataHandler;
+
+    private Handler<Void> endHandler;
+
+    private boolean paused;
+
+    private boolean scheduled;
+
+    private boolean ended;
+
+    private boolean expectMultipart;
+
+    /**
+     * @param origin
+     *            the request this one is made for, null if none
+     * @param uri
+     *            the path and query
+     */
+    public LocalRequest(HttpServerRequest origin, Context context, HttpMethod method, String uri, MultiMap headers,
+            Buffer body, LocalResponse response) {
+        this.origin = origin;
+        this.context = context;
+        this.method = method;
+        this.uri = uri;
+        int query = uri.indexOf('?');
+        this.path = query < 0 ? uri : uri.substring(0, query);
+        this.query = query < 0 ? null : uri.substring(query + 1);
+        this.headers = headers;
+        this.body = body;
+        this.response = response;
+    }
+
+    @Override
+    public HttpServerRequest exceptionHandler(Handler<Throwable> handler) {
+        return this;
+    }
+
+    @Override
+    public HttpServerRequest handler(Handler<Buffer> handler) {
+        this.dataHandler = handler;
+        schedule();
+        return this;
+    }
+
+    @Override
+    public HttpServerRequest pause() {
+        paused = true;
+        return this;
+    }
+
+    @Override
+    public HttpServerRequest resume() {
+        paused = false;
+        schedule();
+        return this;
+    }
+
+    @Override
+    public HttpServerRequest endHandler(Handler<Void> handler) {
+        this.endHandler = handler;
+        schedule();
+        return this;
+    }
+
+    @Override
+    public HttpServerRequest bodyHandler(Handler<Buffer> handler) {
+        Buffer received = Buffer.buffer();
+        handler(received::appendBuffer);
+        endHandler(v -> handler.handle(received));
+        return this;
+    }
+
+    /**
+     * Delivers the body on the next turn of the context, after the handler reading it returns.
+     */
+    private void schedule() {
+        if (!scheduled && !ended && !paused) {
+            scheduled = true;
+            context.runOnContext(v -> deliver());
+        }
+    }
+
+    private void deliver() {
+        scheduled = false;
+        if (ended || paused) {
+            return;
+        }
+
+        ended = true;
+        if (dataHandler != null && body.length() > 0) {
+            dataHandler.handle(body);
+        }
+        if (endHandler != null) {
+            endHandler.handle(null);
+        }
+    }
+
+    @Override
+    public HttpVersion version() {
+        return origin == null ? HttpVersion.HTTP_1_1 : origin.version();
+    }
+
+    @Override
+    public HttpMethod method() {
+        return method;
+    }
+
+    @Override
+    public boolean isSSL() {
+        return origin != null && origin.isSSL();
+    }
+
+    @Override
+    public String uri() {
+        return uri;
+    }
+
+    @Override
+    public String path() {
+        return path;
+    }
+
+    @Override
+    public String query() {
+        return query;
+    }
+
+    @Override
+    public HttpServerResponse response() {
+        return response;
+    }
+
+    @Override
+    public MultiMap headers() {
+        return headers;
+    }
+
+    @Override
+    public String getHeader(String headerName) {
+        return headers.get(headerName);
+    }
+
+    @Override
+    public String getHeader(CharSequence headerName) {
+        return headers.get(headerName);
+    }
+
+    @Override
+    public MultiMap params() {
+        if (params == null) {
+            params = MultiMap.caseInsensitiveMultiMap();
+            for (Map.Entry<String, List<String>> entry : new QueryStringDecoder(uri).parameters().entrySet()) {
+                params.add(entry.getKey(), entry.getValue());
+            }
+        }
+        return params;
+    }
+
+    @Override
+    public String getParam(String paramName) {
+        return params().get(paramName);
+    }
+
+    @Override
+    public SocketAddress remoteAddress() {
+        return origin == null ? null : origin.remoteAddress();
+    }
+
+    @Override
+    public SocketAddress localAddress() {
+        return origin == null ? null : origin.localAddress();
+    }
+
+    @Override
+    @SuppressWarnings("removal")
+    public javax.security.cert.X509Certificate[] peerCertificateChain() throws SSLPeerUnverifiedException {
+        if (origin == null) {
+            throw new SSLPeerUnverifiedException("local request");
+        }
+        return origin.peerCertificateChain();
+    }
+
+    @Override
+    public String absoluteURI() {
+        if (origin == null) {
+            return "http://localhost" + uri;
+        }
+        String absolute = origin.absoluteURI();
+        int host = absolute.indexOf("://");
+        int start = host < 0 ? -1 : absolute.indexOf('/', host + 3);
+        return start < 0 ? absolute + uri : absolute.substring(0, start) + uri;
+    }
+
+    @Override
+    public NetSocket netSocket() {
+        throw new UnsupportedOperationException("local requests have no socket");
+    }
+
+    @Override
+    public HttpServerRequest setExpectMultipart(boolean expect) {
+        this.expectMultipart = expect;
+        return this;
+    }
+
+    @Override
+    public boolean isExpectMultipart() {
+        return expectMultipart;
+    }
+
+    @Override
+    public HttpServerRequest uploadHandler(Handler<HttpServerFileUpload> uploadHandler) {
+        return this;
+    }
+
+    @Override
+    public MultiMap formAttributes() {
+        if (attributes == null) {
+            attributes = MultiMap.caseInsensitiveMultiMap();
+        }
+        return attributes;
+    }
+
+    @Override
+    public String getFormAttribute(String attributeName) {
+        return formAttributes().get(attributeName);
+    }
+
+    @Override
+    public ServerWebSocket upgrade() {
+        throw new UnsupportedOperationException("local requests can't be upgraded");
+    }
+
+    @Override
+    public boolean isEnded() {
+        return ended;
+    }
+
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.router;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+
+/**
+ * Captures the response of a {@link LocalRequest} in memory, and hands it to the completion handler once ended.
+ */
+public class LocalResponse implements HttpServerResponse {
+
+    private final Vertx vertx;
+
+    private final Handler<LocalResponse> completion;
+
+    private final MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+
+    private final MultiMap trailers = MultiMap.caseInsensitiveMultiMap();
+
+    private final Buffer body = Buffer.buffer();
+
+    private int statusCode = 200;
+
+    private String statusMessage;
+
+    private boolean chunked;
+
+    private boolean headWritten;
+
+    private boolean ended;
+
+    private boolean closed;
+
+    private Handler<Void> headersEndHandler;
+
+    private Handler<Void> bodyEndHandler;
+
+    private Handler<Void> closeHandler;
+
+    public LocalResponse(Vertx vertx, Handler<LocalResponse> completion) {
+        this.vertx = vertx;
+        this.completion = completion;
+    }
+
+    public Buffer body() {
+        return body;
+    }
+
+    /**
+     * Closes the response when the connection it is made for closes.
+     */
+    public void connectionClosed() {
+        if (!ended && !closed) {
+            closed = true;
+            if (closeHandler != null) {
+                closeHandler.handle(null);
+            }
+        }
+    }
+
+    @Override
+    public HttpServerResponse exceptionHandler(Handler<Throwable> handler) {
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse write(Buffer data) {
+        checkWritable();
+        writeHead();
+        body.appendBuffer(data);
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse write(String chunk, String enc) {
+        return write(Buffer.buffer(chunk, enc));
+    }
+
+    @Override
+    public HttpServerResponse write(String chunk) {
+        return write(Buffer.buffer(chunk));
+    }
+
+    @Override
+    public HttpServerResponse setWriteQueueMaxSize(int maxSize) {
+        return this;
+    }
+
+    @Override
+    public boolean writeQueueFull() {
+        return false;
+    }
+
+    @Override
+    public HttpServerResponse drainHandler(Handler<Void> handler) {
+        return this;
+    }
+
+    @Override
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public HttpServerResponse setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+        return this;
+    }
+
+    @Override
+    public String getStatusMessage() {
+        return statusMessage != null ? statusMessage : HttpResponseStatus.valueOf(statusCode).reasonPhrase();
+    }
+
+    @Override
+    public HttpServerResponse setStatusMessage(String statusMessage) {
+        this.statusMessage = statusMessage;
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse setChunked(boolean chunked) {
+        this.chunked = chunked;
+        return this;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return chunked;
+    }
+
+    @Override
+    public MultiMap headers() {
+        return headers;
+    }
+
+    @Override
+    public HttpServerResponse putHeader(String name, String value) {
+        headers.set(name, value);
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse putHeader(CharSequence name, CharSequence value) {
+        headers.set(name, value);
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse putHeader(String name, Iterable<String> values) {
+        headers.set(name, values);
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse putHeader(CharSequence name, Iterable<CharSequence> values) {
+        headers.set(name, values);
+        return this;
+    }
+
+    @Override
+    public MultiMap trailers() {
+        return trailers;
+    }
+
+    @Override
+    public HttpServerResponse putTrailer(String name, String value) {
+        trailers.set(name, value);
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse putTrailer(CharSequence name, CharSequence value) {
+        trailers.set(name, value);
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse putTrailer(String name, Iterable<String> values) {
+        trailers.set(name, values);
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse putTrailer(CharSequence name, Iterable<CharSequence> value) {
+        trailers.set(name, value);
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse closeHandler(Handler<Void> handler) {
+        this.closeHandler = handler;
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse writeContinue() {
+        return this;
+    }
+
+    @Override
+    public void end(String chunk) {
+        end(Buffer.buffer(chunk));
+    }
+
+    @Override
+    public void end(String chunk, String enc) {
+        end(Buffer.buffer(chunk, enc));
+    }
+
+    @Override
+    public void end(Buffer chunk) {
+        write(chunk);
+        end();
+    }
+
+    @Override
+    public void end() {
+        checkWritable();
+        writeHead();
+        ended = true;
+        if (bodyEndHandler != null) {
+            bodyEndHandler.handle(null);
+        }
+        completion.handle(this);
+    }
+
+    @Override
+    public HttpServerResponse sendFile(String filename, long offset, long length,
+            Handler<AsyncResult<Void>> resultHandler) {
+        checkWritable();
+        vertx.fileSystem().readFile(filename, ar -> {
+            if (ar.succeeded()) {
+                Buffer file = ar.result();
+                int start = (int) Math.min(offset, file.length());
+                int end = (int) Math.min(file.length(), start + Math.min(length, Integer.MAX_VALUE));
+                end(file.getBuffer(start, end));
+            } else {
+                setStatusCode(404).end();
+            }
+            if (resultHandler != null) {
+                resultHandler.handle(ar.succeeded() ? Future.succeededFuture() : Future.failedFuture(ar.cause()));
+            }
+        });
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse sendFile(String filename, long offset, long length) {
+        return sendFile(filename, offset, length, null);
+    }
+
+    /**
+     * Aborts the request, completed with a 500 status.
+     */
+    @Override
+    public void close() {
+        connectionClosed();
+        if (!ended) {
+            ended = true;
+            statusCode = 500;
+            completion.handle(this);
+        }
+    }
+
+    @Override
+    public boolean ended() {
+        return ended;
+    }
+
+    @Override
+    public boolean closed() {
+        return closed;
+    }
+
+    @Override
+    public boolean headWritten() {
+        return headWritten;
+    }
+
+    @Override
+    public HttpServerResponse headersEndHandler(Handler<Void> handler) {
+        this.headersEndHandler = handler;
+        return this;
+    }
+
+    @Override
+    public HttpServerResponse bodyEndHandler(Handler<Void> handler) {
+        this.bodyEndHandler = handler;
+        return this;
+    }
+
+    @Override
+    public long bytesWritten() {
+        return body.length();
+    }
+
+    private void checkWritable() {
+        if (ended) {
+            throw new IllegalStateException("Response has already been written");
+        }
+    }
+
+    private void writeHead() {
+        if (!headWritten) {
+            headWritten = true;
+            if (headersEndHandler != null) {
+                headersEndHandler.handle(null);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.router;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * One annotated route: HTTP method, path template, media types, the resource class and the method serving it, which
+ * may be declared by a superclass.
+ */
+public final class RouteDefinition implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+
+    static {
+        for (Class<?> type : new Class<?>[] { boolean.class, byte.class, char.class, short.class, int.class,
+                long.class, float.class, double.class }) {
+            PRIMITIVES.put(type.getName(), type);
+        }
+    }
+
+    private final HttpMethod method;
+
+    private final String path;
+
+    private final String[] produces;
+
+    private final String[] consumes;
+
+    private final String resourceName;
+
+    private final String className;
+
+    private final String methodName;
+
+    private final String[] parameterTypes;
+
+    public RouteDefinition(HttpMethod method, String path, String[] produces, String[] consumes, Method target) {
+        this(method, path, produces, consumes, target.getDeclaringClass(), target);
+    }
+
+    public RouteDefinition(HttpMethod method, String path, String[] produces, String[] consumes, Class<?> resource,
+            Method target) {
+        this(method, path, produces, consumes, resource.getName(), target.getDeclaringClass().getName(),
+            target.getName(), names(target.getParameterTypes()));
+    }
+
+    private RouteDefinition(HttpMethod method, String path, String[] produces, String[] consumes, String resourceName,
+            String className, String methodName, String[] parameterTypes) {
+        this.method = method;
+        this.path = path;
+        this.produces = produces;
+        this.consumes = consumes;
+        this.resourceName = resourceName;
+        this.className = className;
+        this.methodName = methodName;
+        this.parameterTypes = parameterTypes;
+    }
+
+    /**
+     * The HTTP method, null for any method.
+     */
+    public HttpMethod method() {
+        return method;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    /**
+     * The produced media types, null if not declared.
+     */
+    public String[] produces() {
+        return produces == null ? null : produces.clone();
+    }
+
+    /**
+     * The consumed media types, null if not declared.
+     */
+    public String[] consumes() {
+        return consumes == null ? null : consumes.clone();
+    }
+
+    /**
+     * The name of the resource class the route was resolved from.
+     */
+    public String resourceName() {
+        return resourceName;
+    }
+
+    /**
+     * The name of the class declaring the resource method, the resource class or one of its superclasses.
+     */
+    public String className() {
+        return className;
+    }
+
+    public String methodName() {
+        return methodName;
+    }
+
+    /**
+     * Looks up the resource method on the resource class.
+     *
+     * @throws IllegalStateException
+     *             if the class has no such method anymore
+     */
+    public Method target(Class<?> clazz) {
+        try {
+            Class<?>[] types = new Class<?>[parameterTypes.length];
+            for (int i = 0; i < types.length; i++) {
+                Class<?> primitive = PRIMITIVES.get(parameterTypes[i]);
+                types[i] = primitive != null ? primitive
+                        : Class.forName(parameterTypes[i], false, clazz.getClassLoader());
+            }
+            return clazz.getMethod(methodName, types);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("stale route " + this, e);
+        }
+    }
+
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject().put("path", path).put("resource", resourceName).put("class", className)
+            .put("target", methodName)
+            .put("parameters", new JsonArray(Arrays.asList((Object[]) parameterTypes)));
+        if (method != null) {
+            json.put("method", method.name());
+        }
+        if (produces != null) {
+            json.put("produces", new JsonArray(Arrays.asList((Object[]) produces)));
+        }
+        if (consumes != null) {
+            json.put("consumes", new JsonArray(Arrays.asList((Object[]) consumes)));
+        }
+        return json;
+    }
+
+    public static RouteDefinition fromJson(JsonObject json) {
+        String method = json.getString("method");
+        String className = json.getString("class");
+        return new RouteDefinition(method == null ? null : HttpMethod.valueOf(method), json.getString("path"),
+            strings(json.getJsonArray("produces")), strings(json.getJsonArray("consumes")),
+            json.getString("resource", className), className, json.getString("target"),
+            strings(json.getJsonArray("parameters")));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(method, path, resourceName, className, methodName) * 31 + Arrays.hashCode(parameterTypes);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof RouteDefinition)) {
+            return false;
+        }
+        RouteDefinition other = (RouteDefinition) obj;
+        return method == other.method && path.equals(other.path) && resourceName.equals(other.resourceName)
+                && className.equals(other.className)
+                && methodName.equals(other.methodName) && Arrays.equals(parameterTypes, other.parameterTypes)
+                && Arrays.equals(produces, other.produces) && Arrays.equals(consumes, other.consumes);
+    }
+
+    @Override
+    public String toString() {
+        return (method == null ? "*" : method.name()) + " " + path + " -> " + resourceName + "(" + className + ")."
+                + methodName;
+    }
+
+    private static String[] names(Class<?>[] types) {
+        String[] names = new String[types.length];
+        for (int i = 0; i < types.length; i++) {
+            names[i] = types[i].getName();
+        }
+        return names;
+    }
+
+    private static String[] strings(JsonArray array) {
+        if (array == null) {
+            return null;
+        }
+        String[] strings = new String[array.size()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = array.getString(i);
+        }
+        return strings;
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.router;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Immutable snapshot of the annotated routes resolved by a {@link com.dinstone.vertx.web.RouterBuilder}. Saved to
+ * disk and handed back to the builder on the next start, it replaces the scanning of the classes it covers. A table
+ * must be saved again whenever the resource classes change.
+ */
+public final class RouteTable implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<RouteDefinition> routes;
+
+    // by resource class, a resource also owns the routes it inherits
+    private transient Map<String, List<RouteDefinition>> byClass;
+
+    public RouteTable(List<RouteDefinition> routes) {
+        this.routes = Collections.unmodifiableList(new ArrayList<>(routes));
+        this.byClass = index(this.routes);
+    }
+
+    public List<RouteDefinition> routes() {
+        return routes;
+    }
+
+    /**
+     * Returns the routes of the class, or null if the table doesn't cover it.
+     */
+    public List<RouteDefinition> routes(Class<?> clazz) {
+        return byClass.get(clazz.getName());
+    }
+
+    public JsonObject toJson() {
+        JsonArray array = new JsonArray();
+        for (RouteDefinition route : routes) {
+            array.add(route.toJson());
+        }
+        return new JsonObject().put("routes", array);
+    }
+
+    public static RouteTable fromJson(JsonObject json) {
+        List<RouteDefinition> routes = new ArrayList<>();
+        JsonArray array = json.getJsonArray("routes");
+        for (int i = 0; i < array.size(); i++) {
+            routes.add(RouteDefinition.fromJson(array.getJsonObject(i)));
+        }
+        return new RouteTable(routes);
+    }
+
+    /**
+     * Writes the table to the file as JSON, a blocking call meant for startup and shutdown.
+     */
+    public void save(Path file) throws IOException {
+        Files.write(file, toJson().encodePrettily().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a table written by {@link #save(Path)}, a blocking call meant for startup.
+     */
+    public static RouteTable load(Path file) throws IOException {
+        return fromJson(new JsonObject(new String(Files.readAllBytes(file), StandardCharsets.UTF_8)));
+    }
+
+    private Object readResolve() {
+        return new RouteTable(routes);
+    }
+
+    private static Map<String, List<RouteDefinition>> index(List<RouteDefinition> routes) {
+        Map<String, List<RouteDefinition>> byClass = new HashMap<>();
+        for (RouteDefinition route : routes) {
+            byClass.computeIfAbsent(route.resourceName(), k -> new ArrayList<>()).add(route);
+        }
+        return byClass;
+    }
+
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.router;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.impl.RoutingContextDecorator;
+
+/**
+ * Immutable tree of route path templates, matched segment by segment without regular expressions in time linear to
+ * the path length. At every segment a static child is tried first, then a {@code :param} child, then a trailing
+ * {@code *} wildcard, backtracking when a branch has no route for the request method.
+ * <p>
+ * The handlers of a template are called in registration order, a handler calling {@link RoutingContext#next()} passes
+ * the request to the next handler of the template, after the last one to the route following the tree in the router.
+ */
+public final class RouteTree {
+
+    private final Node root;
+
+    private final int maxParams;
+
+    private final int size;
+
+    private RouteTree(Node root, int maxParams, int size) {
+        this.root = root;
+        this.maxParams = maxParams;
+        this.size = size;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Number of handlers in the tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Dispatches the request to the handlers of the matching template, returns false if no template matches.
+     */
+    public boolean dispatch(RoutingContext ctx) {
+        HttpServerRequest request = ctx.request();
+        String[] values = maxParams == 0 ? null : new String[maxParams];
+        Entry[] entries = match(root, request.method(), ctx.normalisedPath(), 1, values, 0);
+        if (entries == null) {
+            return false;
+        }
+
+        if (entries.length == 1) {
+            entries[0].params(request, values);
+            entries[0].handler.handle(ctx);
+        } else {
+            new Chain(ctx, entries, values).next();
+        }
+        return true;
+    }
+
+    private static Entry[] match(Node node, HttpMethod method, String path, int start, String[] values, int depth) {
+        if (start >= path.length()) {
+            return node.entries(method);
+        }
+
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        if (end == start) {
+            // trailing or repeated slash
+            Entry[] entries = end + 1 >= path.length() ? node.entries(method) : null;
+            return entries != null ? entries : match(node, method, path, end + 1, values, depth);
+        }
+
+        Entry[] entries = null;
+        if (node.statics != null) {
+            Node child = node.statics.get(path.substring(start, end));
+            if (child != null) {
+                entries = match(child, method, path, end + 1, values, depth);
+            }
+        }
+        if (entries == null && node.param != null) {
+            values[depth] = path.substring(start, end);
+            entries = match(node.param, method, path, end + 1, values, depth + 1);
+        }
+        if (entries == null && node.wildcard != null) {
+            entries = node.wildcard.entries(method);
+        }
+        return entries;
+    }
+
+    public static final class Builder {
+
+        private final Node root = new Node();
+
+        private final Map<List<String>, String[]> names = new HashMap<>();
+
+        private int size;
+
+        private int maxParams;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a handler of the Vert.x path template, like {@code /users/:id} or {@code /static/*}, a null method
+         * matches any HTTP method.
+         */
+        public Builder add(HttpMethod method, String template, Handler<RoutingContext> handler) {
+            Node node = root;
+            List<String> params = new ArrayList<>();
+            for (String segment : template.split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                if (segment.equals("*")) {
+                    if (node.wildcard == null) {
+                        node.wildcard = new Node();
+                    }
+                    node = node.wildcard;
+                    break;
+                } else if (segment.startsWith(":")) {
+                    params.add(segment.substring(1));
+                    if (node.param == null) {
+                        node.param = new Node();
+                    }
+                    node = node.param;
+                } else {
+                    if (node.statics == null) {
+                        node.statics = new HashMap<>();
+                    }
+                    node = node.statics.computeIfAbsent(segment, s -> new Node());
+                }
+            }
+
+            maxParams = Math.max(maxParams, params.size());
+            String[] paramNames = names.computeIfAbsent(params, p -> p.toArray(new String[p.size()]));
+            node.added.add(new Entry(method, paramNames, handler));
+            size++;
+            return this;
+        }
+
+        public RouteTree build() {
+            return new RouteTree(root.freeze(), maxParams, size);
+        }
+    }
+
+    private static final class Node {
+
+        private Map<String, Node> statics;
+
+        private Node param;
+
+        private Node wildcard;
+
+        private List<Entry> added = new ArrayList<>();
+
+        private Map<HttpMethod, Entry[]> byMethod;
+
+        private Entry[] anyMethod;
+
+        Entry[] entries(HttpMethod method) {
+            if (byMethod == null) {
+                return null;
+            }
+            Entry[] entries = byMethod.get(method);
+            return entries != null ? entries : anyMethod;
+        }
+
+        Node freeze() {
+            if (!added.isEmpty()) {
+                List<Entry> any = new ArrayList<>();
+                for (Entry entry : added) {
+                    if (entry.method == null) {
+                        any.add(entry);
+                    }
+                }
+
+                byMethod = new EnumMap<>(HttpMethod.class);
+                for (HttpMethod method : HttpMethod.values()) {
+                    List<Entry> entries = new ArrayList<>();
+                    for (Entry entry : added) {
+                        if (entry.method == method || entry.method == null) {
+                            entries.add(entry);
+                        }
+                    }
+                    if (entries.size() > any.size()) {
+                        byMethod.put(method, entries.toArray(new Entry[entries.size()]));
+                    }
+                }
+                anyMethod = any.isEmpty() ? null : any.toArray(new Entry[any.size()]);
+            }
+            added = Collections.emptyList();
+
+            if (statics != null) {
+                statics.values().forEach(Node::freeze);
+            }
+            if (param != null) {
+                param.freeze();
+            }
+            if (wildcard != null) {
+                wildcard.freeze();
+            }
+            return this;
+        }
+    }
+
+    private static final class Entry {
+
+        private final HttpMethod method;
+
+        private final String[] names;
+
+        private final Handler<RoutingContext> handler;
+
+        Entry(HttpMethod method, String[] names, Handler<RoutingContext> handler) {
+            this.method = method;
+            this.names = names;
+            this.handler = handler;
+        }
+
+        void params(HttpServerRequest request, String[] values) {
+            for (int i = 0; i < names.length; i++) {
+                request.params().add(names[i], decode(values[i]));
+            }
+        }
+
+        private static String decode(String value) {
+            if (value.indexOf('%') < 0 && value.indexOf('+') < 0) {
+                return value;
+            }
+            try {
+                return URLDecoder.decode(value, "UTF-8");
+            } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Passes the request along the handlers of a template, then back to the router.
+     */
+    private static final class Chain extends RoutingContextDecorator {
+
+        private final RoutingContext ctx;
+
+        private final Entry[] entries;
+
+        private final String[] values;
+
+        private int index;
+
+        Chain(RoutingContext ctx, Entry[] entries, String[] values) {
+            super(ctx.currentRoute(), ctx);
+            this.ctx = ctx;
+            this.entries = entries;
+            this.values = values;
+        }
+
+        @Override
+        public void next() {
+            if (index < entries.length) {
+                Entry entry = entries[index++];
+                if (index == 1 || entry.names != entries[index - 2].names) {
+                    entry.params(ctx.request(), values);
+                }
+                entry.handler.handle(this);
+            } else {
+                ctx.next();
+            }
+        }
+    }
+
+}
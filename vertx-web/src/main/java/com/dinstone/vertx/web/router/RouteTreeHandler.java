@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.router;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Mounts a {@link RouteTree} as a single router handler, requests matching no template go on to the next route. The
+ * tree can be swapped while the server runs: each request reads the reference once, so in-flight requests finish on
+ * the tree they started with.
+ */
+public class RouteTreeHandler implements Handler<RoutingContext> {
+
+    private final AtomicReference<RouteTree> tree;
+
+    public RouteTreeHandler(RouteTree tree) {
+        this.tree = new AtomicReference<>(tree);
+    }
+
+    public RouteTree tree() {
+        return tree.get();
+    }
+
+    /**
+     * Atomically publishes a new tree to every event loop, and returns the replaced one.
+     */
+    public RouteTree swap(RouteTree tree) {
+        return this.tree.getAndSet(tree);
+    }
+
+    @Override
+    public void handle(RoutingContext ctx) {
+        if (!tree.get().dispatch(ctx)) {
+            ctx.next();
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.trace;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.dinstone.vertx.web.RouteInterceptor;
+import com.dinstone.vertx.web.router.RouteDefinition;
+
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Traces the annotated routes into a {@link SpanRecorder}. A request is traced if its {@code traceparent} header is
+ * sampled, or else if the sampler picks it; a request not traced allocates nothing. The span of a traced request is
+ * available to the resource method with {@link #span(RoutingContext)}, to pass {@link Span#traceparent()} on.
+ */
+public class RouteTracer implements RouteInterceptor<Span> {
+
+    private static final String SPAN = Span.class.getName();
+
+    private final Sampler sampler;
+
+    private final SpanRecorder recorder;
+
+    public RouteTracer(Sampler sampler, SpanRecorder recorder) {
+        this.sampler = sampler;
+        this.recorder = recorder;
+    }
+
+    /**
+     * Samples the ratio of the requests, and keeps the last spans up to the capacity.
+     */
+    public static RouteTracer create(double ratio, int capacity) {
+        return new RouteTracer(Sampler.ratio(ratio), new SpanRecorder(capacity));
+    }
+
+    /**
+     * Returns the span of the request, null if it isn't traced.
+     */
+    public static Span span(RoutingContext ctx) {
+        return ctx.get(SPAN);
+    }
+
+    /**
+     * Returns the {@code traceparent} header to send with the calls made for the request: the one of its span if
+     * traced, else the one it came with, if any.
+     */
+    public static String traceparent(RoutingContext ctx) {
+        Span span = span(ctx);
+        return span != null ? span.traceparent() : ctx.request().getHeader(TraceContext.TRACEPARENT);
+    }
+
+    public SpanRecorder recorder() {
+        return recorder;
+    }
+
+    @Override
+    public Span begin(RoutingContext ctx, RouteDefinition route) {
+        String traceparent = ctx.request().getHeader(TraceContext.TRACEPARENT);
+        if (!TraceContext.isSampled(traceparent) && !sampler.sample(ctx)) {
+            return null;
+        }
+
+        long[] traceId = TraceContext.traceId(traceparent);
+        long parentId = traceId == null ? 0 : TraceContext.parentId(traceparent);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (traceId == null) {
+            traceId = new long[] { random.nextLong(), random.nextLong() | 1 };
+        }
+        Span span = new Span(route, traceId[0], traceId[1], random.nextLong() | 1, parentId);
+        ctx.put(SPAN, span);
+        return span;
+    }
+
+    @Override
+    public void before(RoutingContext ctx, Span span) {
+        span.invoked();
+    }
+
+    @Override
+    public void after(RoutingContext ctx, Span span, Object result) {
+        span.completed();
+    }
+
+    @Override
+    public void onError(RoutingContext ctx, Span span, Throwable error) {
+        span.failed(error);
+    }
+
+    @Override
+    public void onEnd(RoutingContext ctx, Span span) {
+        span.ended(ctx.response().getStatusCode());
+        recorder.record(span);
+    }
+
+    /**
+     * Returns a handler responding with the recorded spans as JSON, durations are in microseconds.
+     */
+    public Handler<RoutingContext> handler() {
+        return ctx -> ctx.response().putHeader("Content-Type", "application/json").end(recorder.toJson().encode());
+    }
+
+}
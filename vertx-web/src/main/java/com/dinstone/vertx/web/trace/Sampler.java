@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.trace;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Decides which requests without a sampled parent are traced, without allocating.
+ */
+@FunctionalInterface
+public interface Sampler {
+
+    boolean sample(RoutingContext ctx);
+
+    static Sampler always() {
+        return ctx -> true;
+    }
+
+    static Sampler never() {
+        return ctx -> false;
+    }
+
+    /**
+     * Samples the ratio of the requests, between 0 and 1, at random.
+     */
+    static Sampler ratio(double ratio) {
+        if (ratio <= 0) {
+            return never();
+        } else if (ratio >= 1) {
+            return always();
+        }
+        return ctx -> ThreadLocalRandom.current().nextDouble() < ratio;
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.trace;
+
+import java.util.concurrent.TimeUnit;
+
+import com.dinstone.vertx.web.router.RouteDefinition;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The timings of one traced request, split in phases: {@code dispatch} from the route entry to the method call, body
+ * reading and content negotiation included, {@code execute} until the result is available, and {@code write} until
+ * the response ends.
+ */
+public final class Span {
+
+    private final RouteDefinition route;
+
+    private final long traceIdHigh;
+
+    private final long traceIdLow;
+
+    private final long spanId;
+
+    private final long parentId;
+
+    private final long startMillis = System.currentTimeMillis();
+
+    private final long begin = System.nanoTime();
+
+    private long invoked;
+
+    private long completed;
+
+    private long ended;
+
+    private int status;
+
+    private String error;
+
+    Span(RouteDefinition route, long traceIdHigh, long traceIdLow, long spanId, long parentId) {
+        this.route = route;
+        this.traceIdHigh = traceIdHigh;
+        this.traceIdLow = traceIdLow;
+        this.spanId = spanId;
+        this.parentId = parentId;
+    }
+
+    void invoked() {
+        invoked = System.nanoTime();
+    }
+
+    void completed() {
+        completed = System.nanoTime();
+    }
+
+    void failed(Throwable error) {
+        completed();
+        this.error = error.getClass().getName();
+    }
+
+    void ended(int status) {
+        this.ended = System.nanoTime();
+        this.status = status;
+    }
+
+    public RouteDefinition route() {
+        return route;
+    }
+
+    public String traceId() {
+        return TraceContext.traceId(traceIdHigh, traceIdLow);
+    }
+
+    public String spanId() {
+        return TraceContext.spanId(spanId);
+    }
+
+    /**
+     * The {@code traceparent} header to send with the calls made for this request.
+     */
+    public String traceparent() {
+        return TraceContext.traceparent(traceIdHigh, traceIdLow, spanId, true);
+    }
+
+    /**
+     * The error the method failed with, null if none.
+     */
+    public String error() {
+        return error;
+    }
+
+    public int status() {
+        return status;
+    }
+
+    /**
+     * Nanoseconds from the route entry to the method call, or to the end if the method wasn't called.
+     */
+    public long dispatchNanos() {
+        return (invoked != 0 ? invoked : ended) - begin;
+    }
+
+    public long executeNanos() {
+        return invoked == 0 || completed == 0 ? 0 : completed - invoked;
+    }
+
+    public long writeNanos() {
+        return completed == 0 ? 0 : ended - completed;
+    }
+
+    public long totalNanos() {
+        return ended - begin;
+    }
+
+    /**
+     * Returns the span with its durations in microseconds.
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject().put("traceId", traceId()).put("spanId", spanId());
+        if (parentId != 0) {
+            json.put("parentId", TraceContext.spanId(parentId));
+        }
+        json.put("route", (route.method() == null ? "*" : route.method().name()) + " " + route.path())
+            .put("start", startMillis).put("status", status).put("dispatch", micros(dispatchNanos()))
+            .put("execute", micros(executeNanos())).put("write", micros(writeNanos()))
+            .put("total", micros(totalNanos()));
+        if (error != null) {
+            json.put("error", error);
+        }
+        return json;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+}
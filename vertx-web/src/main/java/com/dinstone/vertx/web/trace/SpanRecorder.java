@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.vertx.core.json.JsonArray;
+
+/**
+ * Keeps the last ended spans in a fixed ring, recording one is a sequence increment and a slot write, the oldest span
+ * is overwritten.
+ */
+public class SpanRecorder {
+
+    private final AtomicReferenceArray<Span> ring;
+
+    private final int mask;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param capacity
+     *            the spans kept, rounded up to a power of two
+     */
+    public SpanRecorder(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public void record(Span span) {
+        ring.lazySet((int) (sequence.getAndIncrement() & mask), span);
+    }
+
+    /**
+     * Returns the kept spans, the latest first.
+     */
+    public List<Span> spans() {
+        long last = sequence.get();
+        int count = (int) Math.min(last, ring.length());
+        List<Span> spans = new ArrayList<>(count);
+        for (long i = last - 1; i >= last - count; i--) {
+            Span span = ring.get((int) (i & mask));
+            if (span != null) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    public JsonArray toJson() {
+        JsonArray json = new JsonArray();
+        for (Span span : spans()) {
+            json.add(span.toJson());
+        }
+        return json;
+    }
+
+}
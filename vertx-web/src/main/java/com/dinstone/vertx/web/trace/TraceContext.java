@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.trace;
+
+/**
+ * W3C trace context: a {@code traceparent} header is {@code 00-<trace id>-<parent span id>-<flags>}, 32 and 16
+ * lowercase hex digits, the low bit of the flags telling whether the caller sampled the trace.
+ */
+public final class TraceContext {
+
+    public static final String TRACEPARENT = "traceparent";
+
+    private static final int LENGTH = 55;
+
+    private TraceContext() {
+    }
+
+    /**
+     * Tells whether a {@code traceparent} header is well formed and sampled, without parsing it.
+     */
+    public static boolean isSampled(String traceparent) {
+        return traceparent != null && traceparent.length() == LENGTH && traceparent.charAt(2) == '-'
+                && (Character.digit(traceparent.charAt(54), 16) & 1) == 1;
+    }
+
+    /**
+     * Returns the trace id of a {@code traceparent} header, as its high and low longs, or null if malformed.
+     */
+    public static long[] traceId(String traceparent) {
+        if (traceparent == null || traceparent.length() != LENGTH || traceparent.charAt(2) != '-'
+                || traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-') {
+            return null;
+        }
+        try {
+            long high = Long.parseUnsignedLong(traceparent.substring(3, 19), 16);
+            long low = Long.parseUnsignedLong(traceparent.substring(19, 35), 16);
+            return high == 0 && low == 0 ? null : new long[] { high, low };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the parent span id of a {@code traceparent} header with a valid trace id, 0 if malformed.
+     */
+    public static long parentId(String traceparent) {
+        try {
+            return Long.parseUnsignedLong(traceparent.substring(36, 52), 16);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public static String traceparent(long traceIdHigh, long traceIdLow, long spanId, boolean sampled) {
+        StringBuilder header = new StringBuilder(LENGTH).append("00-");
+        hex(header, traceIdHigh);
+        hex(header, traceIdLow);
+        header.append('-');
+        hex(header, spanId);
+        return header.append(sampled ? "-01" : "-00").toString();
+    }
+
+    static String traceId(long high, long low) {
+        StringBuilder id = new StringBuilder(32);
+        hex(id, high);
+        hex(id, low);
+        return id.toString();
+    }
+
+    static String spanId(long id) {
+        return hex(new StringBuilder(16), id).toString();
+    }
+
+    private static StringBuilder hex(StringBuilder builder, long value) {
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            builder.append(Character.forDigit((int) (value >>> shift) & 0xf, 16));
+        }
+        return builder;
+    }
+
+}
@@ -16,14 +16,46 @@
 
 package com.dinstone.vertx.web.annotation;
 
+import java.io.File;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import com.dinstone.vertx.web.RouteBinder;
 import com.dinstone.vertx.web.RouterBuilder;
+import com.dinstone.vertx.web.codec.CborCodec;
+import com.dinstone.vertx.web.resource.AsyncResource;
+import com.dinstone.vertx.web.resource.BlockingResource;
+import com.dinstone.vertx.web.resource.CacheResource;
+import com.dinstone.vertx.web.resource.CborResource;
+import com.dinstone.vertx.web.resource.CoalesceResource;
+import com.dinstone.vertx.web.resource.CodecResource;
+import com.dinstone.vertx.web.resource.CompressResource;
+import com.dinstone.vertx.web.resource.ConditionalResource;
+import com.dinstone.vertx.web.resource.ContextCoalesceResource;
+import com.dinstone.vertx.web.resource.CodecResource.User;
+import com.dinstone.vertx.web.resource.FilterResource;
 import com.dinstone.vertx.web.resource.HelloResource;
+import com.dinstone.vertx.web.resource.LimitResource;
+import com.dinstone.vertx.web.resource.ParamResource;
+import com.dinstone.vertx.web.resource.PooledResource;
+import com.dinstone.vertx.web.resource.ScopedResource;
+import com.dinstone.vertx.web.resource.StreamResource;
+import com.dinstone.vertx.web.resource.SubTreeResource;
+import com.dinstone.vertx.web.resource.TimeoutResource;
+import com.dinstone.vertx.web.resource.TreeResource;
+import com.dinstone.vertx.web.resource.UploadResource;
+import com.dinstone.vertx.web.router.RouteTable;
 
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
@@ -131,4 +163,1281 @@ public class AnnotationHandlerTest {
         async.await();
     }
 
+    @Test
+    public void testParamResourcePathParam(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new ParamResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.get(8081, "localhost", "/param/sum/1/2").exceptionHandler(ctx::fail).handler(res -> {
+                ctx.assertEquals(200, res.statusCode());
+                res.bodyHandler(buff -> {
+                    ctx.assertEquals("3", buff.toString());
+
+                    httpClient.get(8081, "localhost", "/param/sum/x/2").exceptionHandler(ctx::fail).handler(bad -> {
+                        ctx.assertEquals(400, bad.statusCode());
+
+                        // the query can't override the path
+                        httpClient.get(8081, "localhost", "/param/sum/1/2?a=40&b=50").exceptionHandler(ctx::fail)
+                            .handler(qres -> qres.bodyHandler(qbuff -> {
+                                ctx.assertEquals("3", qbuff.toString());
+
+                                server.result().close(v -> {
+                                    if (v.failed()) {
+                                        ctx.fail(v.cause());
+                                        return;
+                                    }
+                                    async.complete();
+                                });
+                            })).end();
+                    }).end();
+                });
+            }).end();
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testParamResourceQueryAndHeaderParam(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new ParamResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.get(8081, "localhost", "/param/echo?text=ws").putHeader("X-Upper", "true")
+                .exceptionHandler(ctx::fail).handler(res -> {
+                    ctx.assertEquals(200, res.statusCode());
+                    res.bodyHandler(buff -> {
+                        ctx.assertEquals("WS", buff.toString());
+
+                        httpClient.get(8081, "localhost", "/param/echo?text=ws").putHeader("X-Upper", "yes")
+                            .exceptionHandler(ctx::fail).handler(bad -> {
+                                ctx.assertEquals(400, bad.statusCode());
+
+                                httpClient.getNow(8081, "localhost", "/param/query/7", qres -> qres.bodyHandler(qbuff -> {
+                                    ctx.assertEquals("none", qbuff.toString());
+
+                                    server.result().close(v -> {
+                                        if (v.failed()) {
+                                            ctx.fail(v.cause());
+                                            return;
+                                        }
+                                        async.complete();
+                                    });
+                                }));
+                            }).end();
+                    });
+                }).end();
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testParamResourceBody(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new ParamResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.post(8081, "localhost", "/param/json").exceptionHandler(ctx::fail).handler(res -> {
+                ctx.assertEquals(200, res.statusCode());
+                res.bodyHandler(buff -> {
+                    ctx.assertEquals("Hello ws!", buff.toString());
+
+                    server.result().close(v -> {
+                        if (v.failed()) {
+                            ctx.fail(v.cause());
+                            return;
+                        }
+                        async.complete();
+                    });
+                });
+            }).end(new JsonObject().put("content", "ws").toString());
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testBlockingResource(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new BlockingResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.get(8081, "localhost", "/blocking/worker").exceptionHandler(ctx::fail).handler(res -> {
+                ctx.assertEquals(200, res.statusCode());
+                res.bodyHandler(buff -> {
+                    ctx.assertEquals("false", buff.toString());
+
+                    httpClient.get(8081, "localhost", "/blocking/virtual").exceptionHandler(ctx::fail).handler(vres -> {
+                        ctx.assertEquals(200, vres.statusCode());
+                        vres.bodyHandler(vbuff -> {
+                            ctx.assertEquals("false", vbuff.toString());
+
+                            server.result().close(v -> {
+                                if (v.failed()) {
+                                    ctx.fail(v.cause());
+                                    return;
+                                }
+                                async.complete();
+                            });
+                        });
+                    }).end();
+                });
+            }).end();
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testBlockingResourceMaxConcurrency(TestContext ctx) {
+        final Async async = ctx.async();
+        final AtomicInteger responses = new AtomicInteger();
+
+        final Router router = RouterBuilder.create(vertx).handler(new BlockingResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            for (int i = 0; i < 3; i++) {
+                httpClient.get(8081, "localhost", "/blocking/limited").exceptionHandler(ctx::fail).handler(res -> {
+                    ctx.assertEquals(200, res.statusCode());
+                    res.bodyHandler(buff -> {
+                        ctx.assertEquals("1", buff.toString());
+                        if (responses.incrementAndGet() < 3) {
+                            return;
+                        }
+
+                        server.result().close(v -> {
+                            if (v.failed()) {
+                                ctx.fail(v.cause());
+                                return;
+                            }
+                            async.complete();
+                        });
+                    });
+                }).end();
+            }
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testBlockingResourceMaxWaiting(TestContext ctx) {
+        final Async async = ctx.async();
+        final AtomicInteger ok = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+
+        final Router router = RouterBuilder.create(vertx).handler(new BlockingResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            // one running, one waiting, one shed
+            HttpClient httpClient = vertx.createHttpClient();
+            for (int i = 0; i < 3; i++) {
+                httpClient.get(8081, "localhost", "/blocking/bounded").exceptionHandler(ctx::fail).handler(res -> {
+                    if (res.statusCode() == 503) {
+                        ctx.assertEquals("1", res.getHeader("Retry-After"));
+                        rejected.incrementAndGet();
+                    } else {
+                        ctx.assertEquals(200, res.statusCode());
+                        ok.incrementAndGet();
+                    }
+                    if (ok.get() + rejected.get() < 3) {
+                        return;
+                    }
+                    ctx.assertEquals(2, ok.get());
+                    ctx.assertEquals(1, rejected.get());
+
+                    server.result().close(v -> {
+                        if (v.failed()) {
+                            ctx.fail(v.cause());
+                            return;
+                        }
+                        async.complete();
+                    });
+                }).end();
+            }
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testAsyncResource(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new AsyncResource()).handler(new ParamResource())
+            .build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.get(8081, "localhost", "/async/future").exceptionHandler(ctx::fail).handler(res -> {
+                ctx.assertEquals(200, res.statusCode());
+                res.bodyHandler(buff -> {
+                    ctx.assertEquals("Hello future!", buff.toString());
+
+                    httpClient.get(8081, "localhost", "/async/stage").exceptionHandler(ctx::fail).handler(sres -> {
+                        ctx.assertEquals(200, sres.statusCode());
+                        sres.bodyHandler(sbuff -> {
+                            ctx.assertEquals("Hello stage!", sbuff.toString());
+
+                            httpClient.get(8081, "localhost", "/param/twice/21").exceptionHandler(ctx::fail)
+                                .handler(tres -> {
+                                    ctx.assertEquals(200, tres.statusCode());
+                                    tres.bodyHandler(tbuff -> {
+                                        ctx.assertEquals("42", tbuff.toString());
+
+                                        httpClient.get(8081, "localhost", "/async/failed").exceptionHandler(ctx::fail)
+                                            .handler(fres -> {
+                                                ctx.assertEquals(500, fres.statusCode());
+
+                                                server.result().close(v -> {
+                                                    if (v.failed()) {
+                                                        ctx.fail(v.cause());
+                                                        return;
+                                                    }
+                                                    async.complete();
+                                                });
+                                            }).end();
+                                    });
+                                }).end();
+                        });
+                    }).end();
+                });
+            }).end();
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testAsyncResourceJson(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new AsyncResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.get(8081, "localhost", "/async/json").exceptionHandler(ctx::fail).handler(res -> {
+                ctx.assertEquals(200, res.statusCode());
+                ctx.assertEquals("application/json", res.getHeader("Content-Type"));
+                res.bodyHandler(buff -> {
+                    ctx.assertEquals("hello", buff.toJsonObject().getString("message"));
+
+                    server.result().close(v -> {
+                        if (v.failed()) {
+                            ctx.fail(v.cause());
+                            return;
+                        }
+                        async.complete();
+                    });
+                });
+            }).end();
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testStreamResource(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new StreamResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.get(8081, "localhost", "/stream/json").exceptionHandler(ctx::fail).handler(res -> {
+                ctx.assertEquals(200, res.statusCode());
+                ctx.assertEquals("chunked", res.getHeader("Transfer-Encoding"));
+                res.bodyHandler(buff -> {
+                    JsonArray items = new JsonArray(buff.toString());
+                    ctx.assertEquals(StreamResource.ITEMS, items.size());
+                    ctx.assertEquals(StreamResource.ITEMS - 1, items.getJsonObject(StreamResource.ITEMS - 1).getInteger("id"));
+
+                    httpClient.get(8081, "localhost", "/stream/ndjson").exceptionHandler(ctx::fail).handler(nres -> {
+                        ctx.assertEquals(200, nres.statusCode());
+                        nres.bodyHandler(nbuff -> {
+                            String[] lines = nbuff.toString().split("\n");
+                            ctx.assertEquals(StreamResource.ITEMS, lines.length);
+                            ctx.assertEquals(0, new JsonObject(lines[0]).getInteger("id"));
+
+                            httpClient.get(8081, "localhost", "/stream/raw").exceptionHandler(ctx::fail).handler(rres -> {
+                                ctx.assertEquals(200, rres.statusCode());
+                                rres.bodyHandler(rbuff -> {
+                                    ctx.assertEquals(StreamResource.ITEMS, rbuff.length());
+
+                                    server.result().close(v -> {
+                                        if (v.failed()) {
+                                            ctx.fail(v.cause());
+                                            return;
+                                        }
+                                        async.complete();
+                                    });
+                                });
+                            }).end();
+                        });
+                    }).end();
+                });
+            }).end();
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testStreamReleasedOnClose(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new StreamResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            // the client reads the head only, then goes away
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.get(8081, "localhost", "/stream/endless").handler(res -> {
+                ctx.assertEquals(200, res.statusCode());
+                res.pause();
+                httpClient.close();
+                vertx.setTimer(200, t -> {
+                    ctx.assertTrue(StreamResource.ENDLESS.get().closed());
+
+                    server.result().close(v -> {
+                        if (v.failed()) {
+                            ctx.fail(v.cause());
+                            return;
+                        }
+                        async.complete();
+                    });
+                });
+            }).end();
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testUploadResource(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new UploadResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            HttpClientRequest items = httpClient.post(8081, "localhost", "/upload/items").exceptionHandler(ctx::fail)
+                .handler(res -> {
+                    ctx.assertEquals(200, res.statusCode());
+                    res.bodyHandler(buff -> {
+                        ctx.assertEquals("1000:499500", buff.toString());
+
+                        httpClient.post(8081, "localhost", "/upload/file").exceptionHandler(ctx::fail).handler(fres -> {
+                            ctx.assertEquals(200, fres.statusCode());
+                            fres.bodyHandler(fbuff -> {
+                                ctx.assertEquals("10000", fbuff.toString());
+
+                                httpClient.post(8081, "localhost", "/upload/small").exceptionHandler(ctx::fail)
+                                    .handler(sres -> {
+                                        ctx.assertEquals(413, sres.statusCode());
+
+                                        // the server closes the connection while the body is still being sent
+                                        HttpClientRequest chunked = httpClient.post(8081, "localhost", "/upload/small")
+                                            .exceptionHandler(e -> {
+                                            }).handler(cres -> {
+                                                ctx.assertEquals(413, cres.statusCode());
+
+                                                server.result().close(v -> {
+                                                    if (v.failed()) {
+                                                        ctx.fail(v.cause());
+                                                        return;
+                                                    }
+                                                    async.complete();
+                                                });
+                                            });
+                                        chunked.setChunked(true).write("0123456789").write("0123456789");
+                                    }).end("01234567890123456789");
+                            });
+                        }).end(Buffer.buffer(new byte[10000]));
+                    });
+                });
+
+            items.setChunked(true).write("[");
+            for (int i = 0; i < 1000; i++) {
+                String item = (i == 0 ? "" : ",") + new JsonObject().put("id", i).encode();
+                int half = item.length() / 2;
+                items.write(item.substring(0, half)).write(item.substring(half));
+            }
+            items.end("]");
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testCodecResource(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new CodecResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.get(8081, "localhost", "/codec/user/3").exceptionHandler(ctx::fail).handler(res -> {
+                ctx.assertEquals(200, res.statusCode());
+                ctx.assertEquals("application/json", res.getHeader("Content-Type"));
+                res.bodyHandler(buff -> {
+                    ctx.assertEquals("user3", new JsonObject(buff.toString()).getString("name"));
+
+                    httpClient.get(8081, "localhost", "/codec/user/4").putHeader("Accept", "application/cbor")
+                        .exceptionHandler(ctx::fail).handler(cres -> {
+                            ctx.assertEquals(200, cres.statusCode());
+                            ctx.assertEquals("application/cbor", cres.getHeader("Content-Type"));
+                            cres.bodyHandler(cbuff -> {
+                                ctx.assertEquals("user4", CborCodec.INSTANCE.decode(cbuff, User.class).getName());
+
+                                Buffer body = Buffer.buffer();
+                                CborCodec.INSTANCE.encode(new User(5, "ws"), body);
+                                httpClient.post(8081, "localhost", "/codec/user")
+                                    .putHeader("Content-Type", "application/cbor").putHeader("Accept", "application/json")
+                                    .exceptionHandler(ctx::fail).handler(pres -> {
+                                        ctx.assertEquals(200, pres.statusCode());
+                                        pres.bodyHandler(pbuff -> {
+                                            ctx.assertEquals("ws", new JsonObject(pbuff.toString()).getString("created"));
+
+                                            server.result().close(v -> {
+                                                if (v.failed()) {
+                                                    ctx.fail(v.cause());
+                                                    return;
+                                                }
+                                                async.complete();
+                                            });
+                                        });
+                                    }).end(body);
+                            });
+                        }).end();
+                });
+            }).end();
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testGeneratedBinderCodecs(TestContext ctx) {
+        final Async async = ctx.async();
+
+        ctx.assertNotNull(RouteBinder.lookup(CborResource.class));
+        final Router router = RouterBuilder.create(vertx).handler(new CborResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.get(8081, "localhost", "/cbor/user").putHeader("Accept", "application/cbor")
+                .exceptionHandler(ctx::fail).handler(res -> {
+                    ctx.assertEquals("application/cbor", res.getHeader("Content-Type"));
+                    res.bodyHandler(buff -> {
+                        ctx.assertEquals("ws", CborCodec.INSTANCE.decode(buff, JsonObject.class).getString("name"));
+
+                        httpClient.get(8081, "localhost", "/cbor/users").putHeader("Accept", "application/cbor")
+                            .exceptionHandler(ctx::fail).handler(sres -> {
+                                ctx.assertEquals("application/cbor", sres.getHeader("Content-Type"));
+                                sres.bodyHandler(sbuff -> {
+                                    Buffer expected = Buffer.buffer();
+                                    for (int i = 0; i < CborResource.ITEMS; i++) {
+                                        CborCodec.INSTANCE.encode(new JsonObject().put("id", i), expected);
+                                    }
+                                    ctx.assertEquals(expected, sbuff);
+
+                                    server.result().close(v -> {
+                                        if (v.failed()) {
+                                            ctx.fail(v.cause());
+                                            return;
+                                        }
+                                        async.complete();
+                                    });
+                                });
+                            }).end();
+                    });
+                }).end();
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testContentNegotiation(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new CodecResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.get(8081, "localhost", "/codec/user/1")
+                .putHeader("Accept", "text/html, application/cbor;q=0.5, application/*;q=0.8")
+                .exceptionHandler(ctx::fail).handler(res -> {
+                    ctx.assertEquals(200, res.statusCode());
+                    ctx.assertEquals("application/json", res.getHeader("Content-Type"));
+
+                    httpClient.get(8081, "localhost", "/codec/user/1").putHeader("Accept", "text/html")
+                        .exceptionHandler(ctx::fail).handler(hres -> {
+                            ctx.assertEquals(404, hres.statusCode());
+
+                            httpClient.post(8081, "localhost", "/codec/user").putHeader("Content-Type", "text/plain")
+                                .exceptionHandler(ctx::fail).handler(pres -> {
+                                    ctx.assertEquals(404, pres.statusCode());
+
+                                    server.result().close(v -> {
+                                        if (v.failed()) {
+                                            ctx.fail(v.cause());
+                                            return;
+                                        }
+                                        async.complete();
+                                    });
+                                }).end("{}");
+                        }).end();
+                }).end();
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testRadixRouter(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).radix(true).handler(new TreeResource())
+            .handler(new ParamResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.getNow(8081, "localhost", "/tree/users/me", res -> res.bodyHandler(buff -> {
+                ctx.assertEquals("me", buff.toString());
+
+                httpClient.getNow(8081, "localhost", "/tree/users/a%20b/orders/7", ores -> ores.bodyHandler(obuff -> {
+                    ctx.assertEquals("order a b/7", obuff.toString());
+
+                    httpClient.getNow(8081, "localhost", "/tree/files/a/b", fres -> fres.bodyHandler(fbuff -> {
+                        ctx.assertEquals("files", fbuff.toString());
+
+                        httpClient.post(8081, "localhost", "/param/json").exceptionHandler(ctx::fail).handler(pres -> {
+                            ctx.assertEquals(200, pres.statusCode());
+                            pres.bodyHandler(pbuff -> {
+                                ctx.assertEquals("Hello ws!", pbuff.toString());
+
+                                httpClient.post(8081, "localhost", "/tree/users/me").exceptionHandler(ctx::fail)
+                                    .handler(nres -> {
+                                        ctx.assertEquals(404, nres.statusCode());
+
+                                        server.result().close(v -> {
+                                            if (v.failed()) {
+                                                ctx.fail(v.cause());
+                                                return;
+                                            }
+                                            async.complete();
+                                        });
+                                    }).end();
+                            });
+                        }).end(new JsonObject().put("content", "ws").toString());
+                    }));
+                }));
+            }));
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testRouteTable(TestContext ctx) throws Exception {
+        final Async async = ctx.async();
+
+        RouterBuilder scanning = RouterBuilder.create(vertx).radix(true).handler(new TreeResource());
+        scanning.build();
+        RouteTable table = scanning.routeTable();
+        ctx.assertEquals(4, table.routes().size());
+
+        File file = File.createTempFile("routes", ".json");
+        file.deleteOnExit();
+        table.save(file.toPath());
+        RouteTable loaded = RouteTable.load(file.toPath());
+        ctx.assertEquals(table.toJson(), loaded.toJson());
+
+        final TreeResource resource = new TreeResource();
+        final RouterBuilder builder = RouterBuilder.create(vertx).radix(true).routeTable(loaded).handler(resource);
+        final Router router = builder.build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.getNow(8081, "localhost", "/tree/users/me", res -> res.bodyHandler(buff -> {
+                ctx.assertEquals("me", buff.toString());
+
+                builder.remove(resource).handler(new ParamResource());
+                ctx.assertNull(builder.refresh().routes(TreeResource.class));
+
+                httpClient.getNow(8081, "localhost", "/tree/users/me", rres -> {
+                    ctx.assertEquals(404, rres.statusCode());
+
+                    httpClient.getNow(8081, "localhost", "/param/twice/21", pres -> pres.bodyHandler(pbuff -> {
+                        ctx.assertEquals("42", pbuff.toString());
+
+                        server.result().close(v -> {
+                            if (v.failed()) {
+                                ctx.fail(v.cause());
+                                return;
+                            }
+                            async.complete();
+                        });
+                    }));
+                });
+            }));
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testRouteTableInheritedRoutes(TestContext ctx) throws Exception {
+        final Async async = ctx.async();
+
+        RouterBuilder scanning = RouterBuilder.create(vertx).handler(new SubTreeResource());
+        scanning.build();
+        RouteTable loaded = RouteTable.fromJson(scanning.routeTable().toJson());
+        ctx.assertEquals(5, loaded.routes(SubTreeResource.class).size());
+        ctx.assertNull(loaded.routes(TreeResource.class));
+
+        final Router router = RouterBuilder.create(vertx).routeTable(loaded).handler(new SubTreeResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.getNow(8081, "localhost", "/tree/users/me", res -> res.bodyHandler(buff -> {
+                ctx.assertEquals("me", buff.toString());
+
+                httpClient.getNow(8081, "localhost", "/tree/groups/7", gres -> gres.bodyHandler(gbuff -> {
+                    ctx.assertEquals("group 7", gbuff.toString());
+
+                    server.result().close(v -> {
+                        if (v.failed()) {
+                            ctx.fail(v.cause());
+                            return;
+                        }
+                        async.complete();
+                    });
+                }));
+            }));
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testScopedResources(TestContext ctx) {
+        final Async async = ctx.async();
+
+        PooledResource.CREATED.set(0);
+        final Router router = RouterBuilder.create(vertx).handler(ScopedResource.class)
+            .handler(PooledResource.class, PooledResource::new).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.getNow(8081, "localhost", "/scope/count", res -> res.bodyHandler(buff -> {
+                ctx.assertEquals("1", buff.toString());
+
+                httpClient.getNow(8081, "localhost", "/scope/count", sres -> sres.bodyHandler(sbuff -> {
+                    ctx.assertEquals("2", sbuff.toString());
+
+                    httpClient.getNow(8081, "localhost", "/pooled/echo/a", pres -> pres.bodyHandler(pbuff -> {
+                        ctx.assertEquals("a", pbuff.toString());
+
+                        httpClient.getNow(8081, "localhost", "/pooled/echo/b", qres -> qres.bodyHandler(qbuff -> {
+                            ctx.assertEquals("b", qbuff.toString());
+                            ctx.assertEquals(1, PooledResource.CREATED.get());
+
+                            server.result().close(v -> {
+                                if (v.failed()) {
+                                    ctx.fail(v.cause());
+                                    return;
+                                }
+                                async.complete();
+                            });
+                        }));
+                    }));
+                }));
+            }));
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testCacheableResource(TestContext ctx) {
+        final Async async = ctx.async();
+
+        CacheResource.CALLS.set(0);
+        final Router router = RouterBuilder.create(vertx).decorator((method, path, handler) -> rctx -> {
+            // a per request header, not to be served to other clients
+            String client = rctx.request().getHeader("X-Client");
+            if (client != null) {
+                rctx.response().putHeader("Set-Cookie", "session=" + client);
+            }
+            handler.handle(rctx);
+        }).handler(new CacheResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.get(8081, "localhost", "/cache/items/a", res -> res.bodyHandler(buff -> {
+                ctx.assertEquals(1, buff.toJsonObject().getInteger("call"));
+                ctx.assertEquals("application/json", res.getHeader("Content-Type"));
+                ctx.assertEquals("session=a", res.getHeader("Set-Cookie"));
+
+                httpClient.getNow(8081, "localhost", "/cache/items/a", hres -> hres.bodyHandler(hbuff -> {
+                    ctx.assertEquals(1, hbuff.toJsonObject().getInteger("call"));
+                    ctx.assertEquals("application/json", hres.getHeader("Content-Type"));
+                    ctx.assertNull(hres.getHeader("Set-Cookie"));
+
+                    httpClient.getNow(8081, "localhost", "/cache/items/b", bres -> bres.bodyHandler(bbuff -> {
+                        ctx.assertEquals(2, bbuff.toJsonObject().getInteger("call"));
+
+                        AtomicInteger responses = new AtomicInteger();
+                        for (int i = 0; i < 3; i++) {
+                            httpClient.getNow(8081, "localhost", "/cache/slow", sres -> sres.bodyHandler(sbuff -> {
+                                ctx.assertEquals("slow", sbuff.toString());
+                                if (responses.incrementAndGet() < 3) {
+                                    return;
+                                }
+                                ctx.assertEquals(3, CacheResource.CALLS.get());
+
+                                server.result().close(v -> {
+                                    if (v.failed()) {
+                                        ctx.fail(v.cause());
+                                        return;
+                                    }
+                                    async.complete();
+                                });
+                            }));
+                        }
+                        vertx.setTimer(200, t -> CacheResource.GATE.complete("slow"));
+                    }));
+                }));
+            })).putHeader("X-Client", "a").end();
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testCacheableStalledLeader(TestContext ctx) {
+        final Async async = ctx.async();
+
+        CacheResource.STALLS.set(0);
+        final Router router = RouterBuilder.create(vertx).handler(new CacheResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            AtomicInteger timedOut = new AtomicInteger();
+            for (int i = 0; i < 2; i++) {
+                httpClient.get(8081, "localhost", "/cache/stalled").exceptionHandler(ctx::fail).handler(res -> {
+                    ctx.assertEquals(503, res.statusCode());
+                    if (timedOut.incrementAndGet() < 2) {
+                        return;
+                    }
+
+                    // the timed out leader released its flight
+                    httpClient.get(8081, "localhost", "/cache/stalled").exceptionHandler(ctx::fail)
+                        .handler(rres -> rres.bodyHandler(rbuff -> {
+                            ctx.assertEquals(200, rres.statusCode());
+                            ctx.assertEquals("resumed", rbuff.toString());
+
+                            server.result().close(v -> {
+                                if (v.failed()) {
+                                    ctx.fail(v.cause());
+                                    return;
+                                }
+                                async.complete();
+                            });
+                        })).end();
+                }).end();
+            }
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testConditionalResource(TestContext ctx) {
+        final Async async = ctx.async();
+
+        ConditionalResource.CALLS.set(0);
+        final Router router = RouterBuilder.create(vertx).handler(new ConditionalResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.getNow(8081, "localhost", "/conditional/hashed", res -> res.bodyHandler(buff -> {
+                ctx.assertEquals("hashed body", buff.toString());
+                String etag = res.getHeader("ETag");
+                ctx.assertNotNull(etag);
+
+                httpClient.get(8081, "localhost", "/conditional/hashed", hres -> {
+                    ctx.assertEquals(304, hres.statusCode());
+
+                    httpClient.get(8081, "localhost", "/conditional/versioned/7", vres -> {
+                        ctx.assertEquals(304, vres.statusCode());
+                        ctx.assertEquals("\"v1-7\"", vres.getHeader("ETag"));
+                        ctx.assertEquals(2, ConditionalResource.CALLS.get());
+
+                        httpClient.get(8081, "localhost", "/conditional/versioned/8", mres -> mres.bodyHandler(mbuff -> {
+                            ctx.assertEquals(200, mres.statusCode());
+                            ctx.assertEquals("item 8", mbuff.toString());
+                            ctx.assertEquals("Fri, 14 Jul 2017 02:40:00 GMT", mres.getHeader("Last-Modified"));
+                            ctx.assertEquals(3, ConditionalResource.CALLS.get());
+
+                            server.result().close(v -> {
+                                if (v.failed()) {
+                                    ctx.fail(v.cause());
+                                    return;
+                                }
+                                async.complete();
+                            });
+                        })).putHeader("If-Modified-Since", "Thu, 13 Jul 2017 00:00:00 GMT").end();
+                    }).putHeader("If-Modified-Since", "Fri, 14 Jul 2017 02:40:00 GMT").end();
+                }).putHeader("If-None-Match", "W/\"other\", " + etag).end();
+            }));
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testCompressResource(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new CompressResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.get(8081, "localhost", "/compress/large", res -> res.bodyHandler(buff -> {
+                ctx.assertEquals("gzip", res.getHeader("Content-Encoding"));
+                ctx.assertTrue(buff.length() < CompressResource.LARGE.length());
+                String etag = res.getHeader("ETag");
+                ctx.assertTrue(etag.endsWith("-gzip\""));
+
+                httpClient.get(8081, "localhost", "/compress/large", cres -> cres.bodyHandler(cbuff -> {
+                    ctx.assertEquals("gzip", cres.getHeader("Content-Encoding"));
+                    ctx.assertEquals(buff, cbuff);
+
+                    httpClient.get(8081, "localhost", "/compress/large", nres -> {
+                        ctx.assertEquals(304, nres.statusCode());
+
+                        httpClient.get(8081, "localhost", "/compress/large", ires -> ires.bodyHandler(ibuff -> {
+                            ctx.assertNull(ires.getHeader("Content-Encoding"));
+                            ctx.assertEquals(CompressResource.LARGE, ibuff.toString());
+
+                            httpClient.get(8081, "localhost", "/compress/small", sres -> sres.bodyHandler(sbuff -> {
+                                ctx.assertNull(sres.getHeader("Content-Encoding"));
+                                ctx.assertEquals("small", sbuff.toString());
+
+                                server.result().close(v -> {
+                                    if (v.failed()) {
+                                        ctx.fail(v.cause());
+                                        return;
+                                    }
+                                    async.complete();
+                                });
+                            })).putHeader("Accept-Encoding", "gzip").end();
+                        })).end();
+                    }).putHeader("Accept-Encoding", "gzip").putHeader("If-None-Match", etag).end();
+                })).putHeader("Accept-Encoding", "gzip, deflate").end();
+            })).putHeader("Accept-Encoding", "gzip").end();
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testAdmissionControl(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new LimitResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.getNow(8081, "localhost", "/limit/rate", res -> res.bodyHandler(buff -> {
+                ctx.assertEquals(200, res.statusCode());
+                ctx.assertEquals("rate", buff.toString());
+
+                httpClient.getNow(8081, "localhost", "/limit/rate", rres -> {
+                    ctx.assertEquals(429, rres.statusCode());
+                    ctx.assertTrue(Integer.parseInt(rres.getHeader("Retry-After")) > 0);
+
+                    httpClient.getNow(8081, "localhost", "/limit/slow", sres -> sres.bodyHandler(sbuff -> {
+                        ctx.assertEquals(200, sres.statusCode());
+                        ctx.assertEquals("slow", sbuff.toString());
+
+                        server.result().close(v -> {
+                            if (v.failed()) {
+                                ctx.fail(v.cause());
+                                return;
+                            }
+
+                            // another builder has limits of its own
+                            Router other = RouterBuilder.create(vertx).handler(new LimitResource()).build();
+                            vertx.createHttpServer().requestHandler(other::accept).listen(8081, oserver -> {
+                                if (oserver.failed()) {
+                                    ctx.fail(oserver.cause());
+                                    return;
+                                }
+
+                                // the connections of the first client died with its server
+                                HttpClient otherClient = vertx.createHttpClient();
+                                otherClient.get(8081, "localhost", "/limit/rate").exceptionHandler(ctx::fail)
+                                    .handler(ores -> {
+                                        ctx.assertEquals(200, ores.statusCode());
+                                        otherClient.close();
+                                        oserver.result().close(ov -> {
+                                            if (ov.failed()) {
+                                                ctx.fail(ov.cause());
+                                                return;
+                                            }
+                                            async.complete();
+                                        });
+                                    }).end();
+                            });
+                        });
+                    }));
+                    vertx.setTimer(50, id -> httpClient.getNow(8081, "localhost", "/limit/slow", cres -> {
+                        ctx.assertEquals(503, cres.statusCode());
+                        ctx.assertEquals("1", cres.getHeader("Retry-After"));
+                    }));
+                });
+            }));
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testTimeoutResource(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new TimeoutResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.getNow(8081, "localhost", "/timeout/hang", res -> {
+                ctx.assertEquals(504, res.statusCode());
+
+                httpClient.getNow(8081, "localhost", "/timeout/deadline", dres -> dres.bodyHandler(buff -> {
+                    ctx.assertEquals(200, dres.statusCode());
+                    long remaining = Long.parseLong(buff.toString());
+                    ctx.assertTrue(remaining > 0 && remaining <= 1000);
+
+                    server.result().close(v -> {
+                        if (v.failed()) {
+                            ctx.fail(v.cause());
+                            return;
+                        }
+                        async.complete();
+                    });
+                }));
+            });
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testBatchRoute(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new HelloResource()).handler(new AsyncResource())
+            .batch("/batch").build();
+        router.get("/broken").handler(rc -> rc.response().putHeader("Content-Type", "application/json").end("{\"a\":"));
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            JsonArray batch = new JsonArray()
+                .add(new JsonObject().put("path", "/async/future"))
+                .add(new JsonObject().put("method", "GET").put("path", "/hello/g/batch"))
+                .add(new JsonObject().put("method", "POST").put("path", "/hello/p")
+                    .put("headers", new JsonObject().put("Content-Type", "text/json"))
+                    .put("body", new JsonObject().put("content", "batch")))
+                .add(new JsonObject().put("path", "/async/json"))
+                .add(new JsonObject().put("path", "/missing"))
+                .add(new JsonObject().put("path", "/batch"))
+                .add(new JsonObject().put("path", "/broken"));
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.post(8081, "localhost", "/batch", res -> res.bodyHandler(buff -> {
+                ctx.assertEquals(200, res.statusCode());
+                JsonArray results = buff.toJsonArray();
+                ctx.assertEquals(7, results.size());
+                ctx.assertEquals("Hello future!", results.getJsonObject(0).getString("body"));
+                ctx.assertEquals("hello batch", new JsonObject(results.getJsonObject(1).getString("body"))
+                    .getString("message"));
+                ctx.assertEquals("Hello batch!", results.getJsonObject(2).getString("body"));
+                ctx.assertEquals("hello", results.getJsonObject(3).getJsonObject("body").getString("message"));
+                ctx.assertEquals(404, results.getJsonObject(4).getInteger("status"));
+                ctx.assertEquals(400, results.getJsonObject(5).getInteger("status"));
+                ctx.assertEquals("{\"a\":", results.getJsonObject(6).getString("body"));
+
+                server.result().close(v -> {
+                    if (v.failed()) {
+                        ctx.fail(v.cause());
+                        return;
+                    }
+                    async.complete();
+                });
+            })).end(batch.encode());
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testBatchMixedBlockingRoutes(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).handler(new BlockingResource())
+            .handler(new AsyncResource()).batch("/batch").build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            // blocking sub-responses end on workers, interleaved with the event loop ones
+            JsonArray batch = new JsonArray();
+            for (int i = 0; i < 20; i++) {
+                batch.add(new JsonObject().put("path", i % 2 == 0 ? "/blocking/worker" : "/async/future"));
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.post(8081, "localhost", "/batch").exceptionHandler(ctx::fail).handler(res -> res.bodyHandler(buff -> {
+                ctx.assertEquals(200, res.statusCode());
+                JsonArray results = buff.toJsonArray();
+                ctx.assertEquals(20, results.size());
+                for (int i = 0; i < 20; i++) {
+                    ctx.assertEquals(i % 2 == 0 ? "false" : "Hello future!",
+                        results.getJsonObject(i).getString("body"));
+                }
+
+                server.result().close(v -> {
+                    if (v.failed()) {
+                        ctx.fail(v.cause());
+                        return;
+                    }
+                    async.complete();
+                });
+            })).end(batch.encode());
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testCoalesceResource(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).decorator((method, path, handler) -> rctx -> {
+            // a per request header, not to be served to the followers
+            rctx.response().putHeader("Set-Cookie", "session=" + rctx.request().getHeader("X-Client"));
+            handler.handle(rctx);
+        }).handler(new CoalesceResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            AtomicInteger pending = new AtomicInteger(4);
+            Set<String> results = ConcurrentHashMap.newKeySet();
+            for (int i = 0; i < 3; i++) {
+                String client = "c" + i;
+                httpClient.get(8081, "localhost", "/coalesce/slow?key=a", res -> res.bodyHandler(buff -> {
+                    ctx.assertEquals(200, res.statusCode());
+                    ctx.assertEquals("session=" + client, res.getHeader("Set-Cookie"));
+                    results.add(buff.toString());
+                    if (pending.decrementAndGet() == 0) {
+                        // one call per key
+                        ctx.assertEquals(2, results.size());
+                        complete(ctx, async, server.result(), httpClient);
+                    }
+                })).putHeader("X-Client", client).end();
+            }
+            httpClient.getNow(8081, "localhost", "/coalesce/slow?key=b", res -> res.bodyHandler(buff -> {
+                results.add(buff.toString());
+                if (pending.decrementAndGet() == 0) {
+                    complete(ctx, async, server.result(), httpClient);
+                }
+            }));
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testCoalesceRoutingContextRefused(TestContext ctx) {
+        try {
+            RouterBuilder.create(vertx).handler(new ContextCoalesceResource()).build();
+            ctx.fail("@Coalesce method taking the routing context was bound");
+        } catch (IllegalStateException e) {
+            ctx.assertTrue(e.getMessage().contains("routing context"));
+        }
+    }
+
+    private void complete(TestContext ctx, Async async, HttpServer server, HttpClient httpClient) {
+        httpClient.getNow(8081, "localhost", "/coalesce/slow?key=a", res -> res.bodyHandler(buff -> {
+            ctx.assertEquals("a 3", buff.toString());
+
+            server.close(v -> {
+                if (v.failed()) {
+                    ctx.fail(v.cause());
+                    return;
+                }
+                async.complete();
+            });
+        }));
+    }
+
+    @Test
+    public void testFilterResource(TestContext ctx) {
+        final Async async = ctx.async();
+
+        final Router router = RouterBuilder.create(vertx).filter(new FilterResource.TokenFilter("letmein"))
+            .handler(new FilterResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.getNow(8081, "localhost", "/filter/open", res -> res.bodyHandler(buff -> {
+                ctx.assertEquals("open", buff.toString());
+                ctx.assertEquals("true", res.getHeader("X-Filtered"));
+
+                httpClient.getNow(8081, "localhost", "/filter/secret", dres -> {
+                    ctx.assertEquals(401, dres.statusCode());
+                    ctx.assertEquals("true", dres.getHeader("X-Filtered"));
+
+                    httpClient.get(8081, "localhost", "/filter/secret", sres -> sres.bodyHandler(sbuff -> {
+                        ctx.assertEquals("secret", sbuff.toString());
+
+                        server.result().close(v -> {
+                            if (v.failed()) {
+                                ctx.fail(v.cause());
+                                return;
+                            }
+                            async.complete();
+                        });
+                    })).putHeader("X-Token", "letmein").end();
+                });
+            }));
+        });
+
+        async.await();
+    }
+
 }
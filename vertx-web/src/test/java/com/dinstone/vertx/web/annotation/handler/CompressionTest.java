@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Test;
+
+import io.vertx.core.buffer.Buffer;
+
+public class CompressionTest {
+
+    private static final String[] ALGORITHMS = { "gzip", "deflate" };
+
+    @Test
+    public void testNegotiate() {
+        assertEquals("gzip", Compression.negotiate("gzip, deflate, br", ALGORITHMS));
+        assertEquals("deflate", Compression.negotiate("gzip;q=0.5, deflate", ALGORITHMS));
+        assertEquals("deflate", Compression.negotiate("br, *;q=0.1, gzip;q=0", ALGORITHMS));
+        assertNull(Compression.negotiate("br", ALGORITHMS));
+        assertNull(Compression.negotiate("identity", ALGORITHMS));
+        assertEquals("gzip", Compression.negotiate("GZIP;q=0.5, Deflate;q=0.1", ALGORITHMS));
+    }
+
+    @Test
+    public void testAlgorithms() {
+        assertArrayEquals(ALGORITHMS, Compression.algorithms(new String[] { "GZip", " deflate" }));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnsupportedAlgorithm() {
+        Compression.algorithms(new String[] { "gzip", "br" });
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        Buffer body = body();
+        Buffer compressed = Compression.compress(body, "gzip");
+        assertEquals(body, inflate(new GZIPInputStream(new ByteArrayInputStream(compressed.getBytes()))));
+    }
+
+    @Test
+    public void testDeflate() throws Exception {
+        Buffer body = body();
+        Buffer compressed = Compression.compress(body, "deflate");
+        assertEquals(body, inflate(new InflaterInputStream(new ByteArrayInputStream(compressed.getBytes()))));
+        // the deflater of the thread is reset between bodies
+        assertEquals(compressed, Compression.compress(body, "deflate"));
+    }
+
+    private static Buffer body() {
+        Buffer body = Buffer.buffer();
+        for (int i = 0; i < 1000; i++) {
+            body.appendString("{\"id\":" + i + ",\"name\":\"item " + i + "\"},");
+        }
+        return body;
+    }
+
+    private static Buffer inflate(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        for (int n; (n = in.read(chunk)) > 0;) {
+            out.write(chunk, 0, n);
+        }
+        return Buffer.buffer(out.toByteArray());
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HeaderCacheTest {
+
+    @Test
+    public void testHeadersInUseSurvive() {
+        HeaderCache<Integer> cache = new HeaderCache<>(32);
+        cache.put("application/json", 0);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("application/x-random-" + i, i);
+            if (i % 16 == 0) {
+                assertEquals(Integer.valueOf(0), cache.get("application/json"));
+            }
+            assertTrue(cache.size() <= 64);
+        }
+        assertEquals(Integer.valueOf(0), cache.get("application/json"));
+    }
+
+    @Test
+    public void testNewHeadersCachedAfterOverflow() {
+        HeaderCache<Integer> cache = new HeaderCache<>(32);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("application/x-random-" + i, i);
+        }
+        cache.put("application/json", 0);
+        assertEquals(Integer.valueOf(0), cache.get("application/json"));
+        assertTrue(cache.size() <= 64);
+    }
+
+}
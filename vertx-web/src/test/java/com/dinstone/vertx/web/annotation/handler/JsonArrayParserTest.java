@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+public class JsonArrayParserTest {
+
+    private static final String ARRAY = " [ {\"id\":1,\"name\":\"a,]}\\\"\"}, [2, {\"x\":[]}], \"s\\\\\", -3.5e2 ,true,null, {} ] ";
+
+    @Test
+    public void testSplitAtEveryByte() {
+        Buffer body = Buffer.buffer(ARRAY);
+        for (int split = 0; split <= body.length(); split++) {
+            List<Object> items = new ArrayList<>();
+            JsonArrayParser parser = new JsonArrayParser(items::add);
+            parser.handle(body.getBuffer(0, split));
+            parser.handle(body.getBuffer(split, body.length()));
+            parser.end();
+
+            assertEquals(7, items.size());
+            assertEquals("a,]}\"", ((JsonObject) items.get(0)).getString("name"));
+            assertEquals(2, ((JsonArray) items.get(1)).getInteger(0).intValue());
+            assertEquals("s\\", items.get(2));
+            assertEquals(-350.0, items.get(3));
+            assertEquals(Boolean.TRUE, items.get(4));
+            assertEquals(null, items.get(5));
+            assertEquals(0, ((JsonObject) items.get(6)).size());
+        }
+    }
+
+    @Test
+    public void testEmptyArray() {
+        List<Object> items = new ArrayList<>();
+        JsonArrayParser parser = new JsonArrayParser(items::add);
+        parser.handle(Buffer.buffer("[]"));
+        parser.end();
+        assertEquals(0, items.size());
+    }
+
+    @Test(expected = DecodeException.class)
+    public void testTrailingComma() {
+        new JsonArrayParser(item -> {
+        }).handle(Buffer.buffer("[1,]"));
+    }
+
+    @Test(expected = DecodeException.class)
+    public void testNotAnArray() {
+        new JsonArrayParser(item -> {
+        }).handle(Buffer.buffer("{\"id\":1}"));
+    }
+
+    @Test(expected = DecodeException.class)
+    public void testTruncated() {
+        JsonArrayParser parser = new JsonArrayParser(item -> {
+        });
+        parser.handle(Buffer.buffer("[{\"id\":1}"));
+        parser.end();
+    }
+
+}
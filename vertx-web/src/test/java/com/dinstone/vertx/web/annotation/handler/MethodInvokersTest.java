@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dinstone.vertx.web.annotation.handler;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+import com.dinstone.vertx.web.resource.HelloResource;
+import com.dinstone.vertx.web.resource.ParamResource;
+
+import io.vertx.ext.web.RoutingContext;
+
+public class MethodInvokersTest {
+
+    @Test
+    public void testLambdaInvoker() throws Exception {
+        Method method = HelloResource.class.getMethod("get", RoutingContext.class);
+        assertNotNull(MethodInvokers.lambda(new HelloResource(), method));
+    }
+
+    @Test
+    public void testExactInvoker() throws Exception {
+        Method method = ParamResource.class.getMethod("sum", RoutingContext.class, int.class, long.class);
+        assertNull(MethodInvokers.lambda(new ParamResource(), method));
+        assertNotNull(MethodInvokers.create(new ParamResource(), method, AnnotationRouteResolver.getMethodHandle(method)));
+    }
+
+}
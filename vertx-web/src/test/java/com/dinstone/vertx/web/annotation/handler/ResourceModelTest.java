@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.annotation.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.Timeout;
+import com.dinstone.vertx.web.codec.CodecRegistry;
+import com.dinstone.vertx.web.codec.JsonCodec;
+import com.dinstone.vertx.web.resource.CodecResource;
+import com.dinstone.vertx.web.resource.TreeResource;
+import com.dinstone.vertx.web.router.RouteDefinition;
+
+public class ResourceModelTest {
+
+    @Test
+    public void testRoutesResolvedOnce() throws Exception {
+        ResourceModel model = ResourceModel.of(TreeResource.class);
+        assertSame(model, ResourceModel.of(TreeResource.class));
+        assertSame(model.routes(), model.routes());
+        assertEquals(4, new AnnotationRouteResolver().resolve(TreeResource.class).size());
+
+        Method method = TreeResource.class.getMethod("me");
+        RouteDefinition route = model.routes().get(method).get(0);
+        assertEquals(method, model.target(RouteDefinition.fromJson(route.toJson())));
+    }
+
+    @Test
+    public void testHandlesSharedAcrossRegistries() throws Exception {
+        Method method = CodecResource.class.getMethod("create", CodecResource.User.class);
+        String[] types = { "application/json", "application/cbor" };
+        ResourceModel.MethodModel model = ResourceModel.of(CodecResource.class).method(method);
+
+        ResourceModel.Compiled first = model.compile(RouteCodecs.create(CodecRegistry.create(), types, types));
+        ResourceModel.Compiled second = model.compile(RouteCodecs.create(CodecRegistry.create(), types, types));
+        assertSame(first.methodHandle, second.methodHandle);
+        assertSame(first.codecs, second.codecs);
+    }
+
+    @Test
+    public void testCompiledHandlesBounded() throws Exception {
+        Method method = CodecResource.class.getMethod("create", CodecResource.User.class);
+        String[] types = { "application/json" };
+        ResourceModel.MethodModel model = ResourceModel.of(CodecResource.class).method(method);
+
+        // routers rebuilt with codecs of their own
+        for (int i = 0; i < 100; i++) {
+            CodecRegistry registry = CodecRegistry.create().register(new JsonCodec());
+            model.compile(RouteCodecs.create(registry, types, types));
+        }
+        assertTrue(model.compiledSize() <= 8);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTimeoutStatusChecked() throws Exception {
+        ResourceModel.of(TimeoutStatusResource.class).method(TimeoutStatusResource.class.getMethod("get"));
+    }
+
+    public static class TimeoutStatusResource {
+
+        @Get("/timeout")
+        @Timeout(value = 100, status = 500)
+        public String get() {
+            return "timeout";
+        }
+    }
+
+}
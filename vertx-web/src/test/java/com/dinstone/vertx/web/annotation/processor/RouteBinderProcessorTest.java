@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dinstone.vertx.web.annotation.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.dinstone.vertx.web.RouteBinder;
+import com.dinstone.vertx.web.resource.HelloResource;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.Router;
+
+public class RouteBinderProcessorTest {
+
+    @Test
+    public void testBinderGenerated() {
+        assertEquals("com.dinstone.vertx.web.resource.HelloResource_RouteBinder",
+            RouteBinder.binderName(HelloResource.class));
+
+        RouteBinder<HelloResource> binder = RouteBinder.lookup(HelloResource.class);
+        assertNotNull(binder);
+
+        Vertx vertx = Vertx.vertx();
+        try {
+            Router router = Router.router(vertx);
+            binder.bind(router, new HelloResource(), null);
+            assertEquals(3, router.getRoutes().size());
+        } finally {
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void testBinderMissing() {
+        assertNull(RouteBinder.lookup(RouteBinderProcessorTest.class));
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.dinstone.vertx.web.resource.CodecResource.User;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+public class CborCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        JsonObject json = new JsonObject().put("small", 23).put("int", 70000).put("long", 1L << 40).put("neg", -500)
+            .put("double", 1.5).put("text", "héllo").put("bool", true).putNull("null")
+            .put("bytes", new byte[] { 1, 2, 3 }).put("list", new JsonArray().add(1).add("two").add(new JsonObject()));
+
+        Buffer buffer = Buffer.buffer();
+        CborCodec.INSTANCE.encode(json, buffer);
+        JsonObject decoded = CborCodec.INSTANCE.decode(buffer, JsonObject.class);
+
+        assertEquals(23, decoded.getInteger("small").intValue());
+        assertEquals(70000, decoded.getInteger("int").intValue());
+        assertEquals(1L << 40, decoded.getLong("long").longValue());
+        assertEquals(-500, decoded.getInteger("neg").intValue());
+        assertEquals(1.5, decoded.getDouble("double"), 0);
+        assertEquals("héllo", decoded.getString("text"));
+        assertEquals(Boolean.TRUE, decoded.getBoolean("bool"));
+        assertNull(decoded.getValue("null"));
+        assertArrayEquals(new byte[] { 1, 2, 3 }, decoded.getBinary("bytes"));
+        assertEquals("two", decoded.getJsonArray("list").getString(1));
+    }
+
+    @Test
+    public void testBean() {
+        Buffer buffer = Buffer.buffer();
+        CborCodec.INSTANCE.encode(new User(7, "ws"), buffer);
+        User user = CborCodec.INSTANCE.decode(buffer, User.class);
+        assertEquals(7, user.getId());
+        assertEquals("ws", user.getName());
+    }
+
+    @Test
+    public void testHeaders() {
+        Buffer buffer = Buffer.buffer();
+        CborCodec.INSTANCE.encode(new JsonArray().add(10).add(-1).add(1000), buffer);
+        assertEquals("8" + "3" + "0a" + "20" + "1903e8", hex(buffer));
+    }
+
+    @Test(expected = DecodeException.class)
+    public void testTruncated() {
+        CborCodec.INSTANCE.decode(Buffer.buffer(new byte[] { (byte) 0x82, 1 }), JsonArray.class);
+    }
+
+    @Test
+    public void testRegistryLookup() {
+        CodecRegistry registry = CodecRegistry.create();
+        assertSame(JsonCodec.INSTANCE, registry.lookup("application/json; charset=utf-8"));
+        assertSame(JsonCodec.INSTANCE, registry.lookup("application/problem+json"));
+        assertSame(CborCodec.INSTANCE, registry.lookup("Application/CBOR"));
+        assertNull(registry.lookup("text/plain"));
+    }
+
+    private static String hex(Buffer buffer) {
+        StringBuilder builder = new StringBuilder();
+        for (byte b : buffer.getBytes()) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+
+}
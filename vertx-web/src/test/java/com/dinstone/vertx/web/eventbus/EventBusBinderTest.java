@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.eventbus;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.dinstone.vertx.web.EventBusBinder;
+import com.dinstone.vertx.web.resource.AnyMethodResource;
+import com.dinstone.vertx.web.resource.AsyncResource;
+import com.dinstone.vertx.web.resource.HelloResource;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class EventBusBinderTest {
+
+    private static Vertx vertx = Vertx.vertx();
+
+    @Test
+    public void testWireFormat() {
+        BusRequest request = BusRequest.create().param("name", "bus").header("X-Trace", "1").body("payload");
+        Buffer wire = Buffer.buffer("prefix");
+        new BusCodecs.RequestCodec().encodeToWire(wire, request);
+        BusRequest decoded = new BusCodecs.RequestCodec().decodeFromWire(6, wire);
+        assertEquals("bus", decoded.params().get("name"));
+        assertEquals("1", decoded.headers().get("X-Trace"));
+        assertEquals("payload", decoded.body().toString());
+
+        BusResponse response = new BusResponse(201, request.headers(), Buffer.buffer("created"));
+        wire = Buffer.buffer();
+        new BusCodecs.ResponseCodec().encodeToWire(wire, response);
+        BusResponse reply = new BusCodecs.ResponseCodec().decodeFromWire(0, wire);
+        assertEquals(201, reply.statusCode());
+        assertEquals("1", reply.headers().get("X-Trace"));
+        assertEquals("created", reply.bodyAsString());
+    }
+
+    @Test
+    public void testBoundRoutes(TestContext ctx) {
+        final Async async = ctx.async();
+
+        EventBusBinder binder = EventBusBinder.create(vertx).handler(new HelloResource()).handler(new AsyncResource());
+        binder.bind();
+
+        EventBus eventBus = vertx.eventBus();
+        eventBus.<BusResponse> send(EventBusBinder.address(HttpMethod.GET, "/hello/g/:name"),
+            BusRequest.create().param("name", "bus"), ar -> {
+                ctx.assertTrue(ar.succeeded());
+                ctx.assertEquals(200, ar.result().body().statusCode());
+                ctx.assertEquals("hello bus", ar.result().body().bodyAsJson().getString("message"));
+
+                BusRequest post = BusRequest.create().body(new JsonObject().put("content", "bus").encode());
+                eventBus.<BusResponse> send(EventBusBinder.address(HttpMethod.POST, "/hello/p"), post, pr -> {
+                    ctx.assertEquals("Hello bus!", pr.result().body().bodyAsString());
+
+                    eventBus.<BusResponse> send(EventBusBinder.address(HttpMethod.GET, "/async/future"),
+                        BusRequest.create(), fr -> {
+                            ctx.assertEquals("Hello future!", fr.result().body().bodyAsString());
+
+                            binder.unbind();
+                            async.complete();
+                        });
+                });
+            });
+
+        async.await();
+    }
+
+    @Test
+    public void testAnyMethodRoute(TestContext ctx) {
+        final Async async = ctx.async();
+
+        EventBusBinder binder = EventBusBinder.create(vertx).handler(new AnyMethodResource());
+        binder.bind();
+
+        EventBus eventBus = vertx.eventBus();
+        String address = EventBusBinder.address(null, "/any/echo");
+        ctx.assertEquals("* /any/echo", address);
+        eventBus.<BusResponse> send(address, BusRequest.create().param("value", "query"), ar -> {
+            ctx.assertTrue(ar.succeeded());
+            ctx.assertEquals("GET query", ar.result().body().bodyAsString());
+
+            // no Content-Type and no @Consumes
+            eventBus.<BusResponse> send(address, BusRequest.create().body("payload"), pr -> {
+                ctx.assertTrue(pr.succeeded());
+                ctx.assertEquals("POST payload", pr.result().body().bodyAsString());
+
+                binder.unbind();
+                async.complete();
+            });
+        });
+
+        async.await();
+    }
+
+}
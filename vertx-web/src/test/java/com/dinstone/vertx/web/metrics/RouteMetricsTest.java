@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dinstone.vertx.web.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.dinstone.vertx.web.RouterBuilder;
+import com.dinstone.vertx.web.resource.HelloResource;
+import com.dinstone.vertx.web.resource.LimitResource;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.Router;
+
+@RunWith(VertxUnitRunner.class)
+public class RouteMetricsTest {
+
+    private static Vertx vertx = Vertx.vertx();
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long value = 0; value < 1000000; value += 7) {
+            long upperBound = LatencyHistogram.upperBound(LatencyHistogram.index(value));
+            assertTrue(value <= upperBound);
+            assertTrue(upperBound - value <= value / 8 + 1);
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100, histogram.count());
+        assertEquals(51, histogram.percentile(50));
+        assertEquals(103, histogram.percentile(100));
+    }
+
+    @Test
+    public void testRouteMetricsSnapshot(TestContext ctx) {
+        final Async async = ctx.async();
+
+        RouteMetrics metrics = new RouteMetrics();
+        final Router router = RouterBuilder.create(vertx).metrics(metrics, "/metrics").handler(new HelloResource())
+            .build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.get(8081, "localhost", "/hello/g/vert.x").exceptionHandler(ctx::fail).handler(res -> {
+                ctx.assertEquals(200, res.statusCode());
+                res.bodyHandler(buff -> {
+                    httpClient.get(8081, "localhost", "/metrics").exceptionHandler(ctx::fail).handler(snapshot -> {
+                        ctx.assertEquals(200, snapshot.statusCode());
+                        snapshot.bodyHandler(body -> {
+                            JsonObject stats = body.toJsonObject().getJsonObject("GET /hello/g/:name");
+                            ctx.assertEquals(1L, stats.getLong("count"));
+                            ctx.assertEquals(0L, stats.getLong("errors"));
+                            ctx.assertEquals(0L, stats.getLong("inflight"));
+                            ctx.assertEquals(0L, body.toJsonObject().getJsonObject("GET /hello/g").getLong("count"));
+
+                            server.result().close(v -> {
+                                if (v.failed()) {
+                                    ctx.fail(v.cause());
+                                    return;
+                                }
+                                async.complete();
+                            });
+                        });
+                    }).end();
+                });
+            }).end();
+        });
+
+        async.await();
+    }
+
+    @Test
+    public void testClosedRequestEnds(TestContext ctx) {
+        final Async async = ctx.async();
+
+        RouteMetrics metrics = new RouteMetrics();
+        final Router router = RouterBuilder.create(vertx).metrics(metrics, "/metrics").handler(new LimitResource())
+            .build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            // the client goes away before the slow route answers
+            HttpClient aborted = vertx.createHttpClient();
+            aborted.get(8081, "localhost", "/limit/slow").handler(res -> ctx.fail("answered")).end();
+            vertx.setTimer(50, t -> {
+                aborted.close();
+                vertx.setTimer(300, u -> {
+                    RouteStats stats = metrics.stats(HttpMethod.GET, "/limit/slow");
+                    ctx.assertEquals(0L, stats.inflight());
+                    ctx.assertEquals(1L, stats.count());
+                    ctx.assertEquals(1L, stats.errors());
+
+                    server.result().close(v -> {
+                        if (v.failed()) {
+                            ctx.fail(v.cause());
+                            return;
+                        }
+                        async.complete();
+                    });
+                });
+            });
+        });
+
+        async.await();
+    }
+
+}
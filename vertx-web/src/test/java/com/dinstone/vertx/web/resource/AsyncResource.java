@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dinstone.vertx.web.resource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.Path;
+import com.dinstone.vertx.web.annotation.Produces;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+@Path("/async")
+public class AsyncResource {
+
+    @Get("/string")
+    public String string(RoutingContext ctx) {
+        return "Hello ws!";
+    }
+
+    @Get("/json")
+    @Produces({ "application/json" })
+    public JsonObject json(RoutingContext ctx) {
+        return new JsonObject().put("message", "hello");
+    }
+
+    @Get("/future")
+    public Future<String> future(RoutingContext ctx) {
+        Future<String> future = Future.future();
+        ctx.vertx().setTimer(10, id -> future.complete("Hello future!"));
+        return future;
+    }
+
+    @Get("/stage")
+    public CompletionStage<Buffer> stage(RoutingContext ctx) {
+        return CompletableFuture.supplyAsync(() -> Buffer.buffer("Hello stage!"));
+    }
+
+    @Get("/failed")
+    public Future<String> failed(RoutingContext ctx) {
+        return Future.failedFuture("failed");
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dinstone.vertx.web.resource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dinstone.vertx.web.annotation.Blocking;
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.Path;
+
+import io.vertx.core.Context;
+import io.vertx.ext.web.RoutingContext;
+
+@Path("/blocking")
+@Blocking
+public class BlockingResource {
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    @Get("/worker")
+    public void worker(RoutingContext ctx) {
+        ctx.response().end(String.valueOf(Context.isOnEventLoopThread()));
+    }
+
+    @Get("/virtual")
+    @Blocking(virtual = true)
+    public void virtual(RoutingContext ctx) {
+        ctx.response().end(String.valueOf(Context.isOnEventLoopThread()));
+    }
+
+    @Get("/limited")
+    @Blocking(ordered = false, maxConcurrency = 1)
+    public void limited(RoutingContext ctx) throws InterruptedException {
+        int current = running.incrementAndGet();
+        maxRunning.accumulateAndGet(current, Math::max);
+        Thread.sleep(20);
+        running.decrementAndGet();
+        ctx.response().end(String.valueOf(maxRunning.get()));
+    }
+
+    @Get("/bounded")
+    @Blocking(ordered = false, maxConcurrency = 1, maxWaiting = 1)
+    public void bounded(RoutingContext ctx) throws InterruptedException {
+        Thread.sleep(200);
+        ctx.response().end("bounded");
+    }
+
+}
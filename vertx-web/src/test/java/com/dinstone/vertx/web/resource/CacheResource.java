@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.resource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dinstone.vertx.web.annotation.Cacheable;
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.Path;
+import com.dinstone.vertx.web.annotation.PathParam;
+import com.dinstone.vertx.web.annotation.Timeout;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+
+@Path("/cache")
+public class CacheResource {
+
+    public static final AtomicInteger CALLS = new AtomicInteger();
+
+    public static final CompletableFuture<String> GATE = new CompletableFuture<>();
+
+    public static final AtomicInteger STALLS = new AtomicInteger();
+
+    @Get("/items/:id")
+    @Cacheable(varyBy = "id", maxEntries = 2, offHeap = true)
+    public JsonObject item(@PathParam("id") String id) {
+        return new JsonObject().put("id", id).put("call", CALLS.incrementAndGet());
+    }
+
+    @Get("/slow")
+    @Cacheable
+    public CompletionStage<String> slow() {
+        CALLS.incrementAndGet();
+        return GATE;
+    }
+
+    @Get("/stalled")
+    @Cacheable
+    @Timeout(100)
+    public Future<String> stalled() {
+        // the first call never completes
+        Future<String> future = Future.future();
+        if (STALLS.getAndIncrement() > 0) {
+            future.complete("resumed");
+        }
+        return future;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.resource;
+
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.Path;
+import com.dinstone.vertx.web.annotation.Produces;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.web.RoutingContext;
+
+@Path("/cbor")
+@Produces({ "application/json", "application/cbor" })
+public class CborResource {
+
+    public static final int ITEMS = 3;
+
+    @Get("/user")
+    public JsonObject user(RoutingContext ctx) {
+        return new JsonObject().put("name", "ws");
+    }
+
+    @Get("/users")
+    public ReadStream<JsonObject> users(RoutingContext ctx) {
+        return new ItemStream<>(ctx.vertx(), ITEMS, i -> new JsonObject().put("id", i));
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.resource;
+
+import com.dinstone.vertx.web.annotation.Body;
+import com.dinstone.vertx.web.annotation.Consumes;
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.Path;
+import com.dinstone.vertx.web.annotation.PathParam;
+import com.dinstone.vertx.web.annotation.Post;
+import com.dinstone.vertx.web.annotation.Produces;
+
+import io.vertx.core.json.JsonObject;
+
+@Path("/codec")
+@Produces({ "application/json", "application/cbor" })
+public class CodecResource {
+
+    public static class User {
+
+        private int id;
+
+        private String name;
+
+        public User() {
+        }
+
+        public User(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    @Get("/user/:id")
+    public User user(@PathParam("id") int id) {
+        return new User(id, "user" + id);
+    }
+
+    @Post("/user")
+    @Consumes({ "application/json", "application/cbor" })
+    public JsonObject create(@Body User user) {
+        return new JsonObject().put("created", user.getName());
+    }
+}
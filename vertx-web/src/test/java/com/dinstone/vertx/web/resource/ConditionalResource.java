@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.resource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dinstone.vertx.web.Validator;
+import com.dinstone.vertx.web.annotation.Conditional;
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.Path;
+import com.dinstone.vertx.web.annotation.PathParam;
+
+@Path("/conditional")
+public class ConditionalResource {
+
+    public static final AtomicInteger CALLS = new AtomicInteger();
+
+    @Get("/hashed")
+    @Conditional
+    public String hashed() {
+        CALLS.incrementAndGet();
+        return "hashed body";
+    }
+
+    @Get("/versioned/:id")
+    @Conditional(validator = "version")
+    public String versioned(@PathParam("id") String id) {
+        CALLS.incrementAndGet();
+        return "item " + id;
+    }
+
+    public Validator version(@PathParam("id") String id) {
+        return Validator.of("v1-" + id, 1500000000000L);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.resource;
+
+import com.dinstone.vertx.web.RouteFilter;
+import com.dinstone.vertx.web.annotation.Filter;
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.Path;
+
+import io.vertx.ext.web.RoutingContext;
+
+@Path("/filter")
+@Filter(FilterResource.TagFilter.class)
+public class FilterResource {
+
+    @Get("/open")
+    public String open() {
+        return "open";
+    }
+
+    @Get("/secret")
+    @Filter({ FilterResource.TokenFilter.class, FilterResource.TagFilter.class })
+    public String secret() {
+        return "secret";
+    }
+
+    public static class TagFilter implements RouteFilter {
+
+        @Override
+        public void after(RoutingContext ctx) {
+            ctx.response().putHeader("X-Filtered", "true");
+        }
+    }
+
+    public static class TokenFilter implements RouteFilter {
+
+        private final String token;
+
+        public TokenFilter(String token) {
+            this.token = token;
+        }
+
+        @Override
+        public boolean before(RoutingContext ctx) {
+            if (token.equals(ctx.request().getHeader("X-Token"))) {
+                return true;
+            }
+            ctx.response().setStatusCode(401).end();
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dinstone.vertx.web.resource;
+
+import java.util.function.IntFunction;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * Emits generated items on the event loop, honouring pause and resume, until it is closed.
+ */
+public class ItemStream<T> implements ReadStream<T>, AutoCloseable {
+
+    private final Vertx vertx;
+
+    private final int count;
+
+    private final IntFunction<T> factory;
+
+    private int index;
+
+    private boolean paused;
+
+    private volatile boolean closed;
+
+    private Handler<T> handler;
+
+    private Handler<Void> endHandler;
+
+    public ItemStream(Vertx vertx, int count, IntFunction<T> factory) {
+        this.vertx = vertx;
+        this.count = count;
+        this.factory = factory;
+    }
+
+    @Override
+    public ReadStream<T> exceptionHandler(Handler<Throwable> handler) {
+        return this;
+    }
+
+    @Override
+    public ReadStream<T> handler(Handler<T> handler) {
+        this.handler = handler;
+        vertx.runOnContext(v -> emit());
+        return this;
+    }
+
+    @Override
+    public ReadStream<T> pause() {
+        paused = true;
+        return this;
+    }
+
+    @Override
+    public ReadStream<T> resume() {
+        paused = false;
+        vertx.runOnContext(v -> emit());
+        return this;
+    }
+
+    @Override
+    public ReadStream<T> endHandler(Handler<Void> endHandler) {
+        this.endHandler = endHandler;
+        return this;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    public boolean closed() {
+        return closed;
+    }
+
+    private void emit() {
+        while (!paused && !closed && handler != null && index < count) {
+            handler.handle(factory.apply(index++));
+        }
+        if (index == count && !closed && endHandler != null) {
+            index++;
+            endHandler.handle(null);
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.resource;
+
+import java.util.concurrent.TimeUnit;
+
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.MaxConcurrent;
+import com.dinstone.vertx.web.annotation.Path;
+import com.dinstone.vertx.web.annotation.RateLimit;
+
+import io.vertx.core.Future;
+import io.vertx.ext.web.RoutingContext;
+
+@Path("/limit")
+public class LimitResource {
+
+    @Get("/rate")
+    @RateLimit(permits = 1, unit = TimeUnit.MINUTES)
+    public String rate() {
+        return "rate";
+    }
+
+    @Get("/slow")
+    @MaxConcurrent(1)
+    public Future<String> slow(RoutingContext ctx) {
+        Future<String> future = Future.future();
+        ctx.vertx().setTimer(200, id -> future.complete("slow"));
+        return future;
+    }
+
+}
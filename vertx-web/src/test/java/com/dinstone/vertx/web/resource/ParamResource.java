@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dinstone.vertx.web.resource;
+
+import com.dinstone.vertx.web.annotation.Body;
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.HeaderParam;
+import com.dinstone.vertx.web.annotation.Path;
+import com.dinstone.vertx.web.annotation.PathParam;
+import com.dinstone.vertx.web.annotation.Post;
+import com.dinstone.vertx.web.annotation.QueryParam;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+@Path("/param")
+public class ParamResource {
+
+    @Get("/sum/:a/:b")
+    public void sum(RoutingContext ctx, @PathParam("a") int a, @PathParam("b") long b) {
+        ctx.response().end(String.valueOf(a + b));
+    }
+
+    @Get("/echo")
+    public void echo(@QueryParam("text") String text, @HeaderParam("X-Upper") boolean upper, RoutingContext ctx) {
+        ctx.response().end(upper ? text.toUpperCase() : text);
+    }
+
+    @Get("/query/:id")
+    public String query(@QueryParam("id") Integer id) {
+        return id == null ? "none" : String.valueOf(id);
+    }
+
+    @Get("/twice/:a")
+    public Future<String> twice(@PathParam("a") int a) {
+        return Future.succeededFuture(String.valueOf(a * 2));
+    }
+
+    @Post("/json")
+    public void json(RoutingContext ctx, @Body JsonObject body) {
+        ctx.response().end("Hello " + body.getString("content") + "!");
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.resource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dinstone.vertx.web.Resettable;
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.Path;
+import com.dinstone.vertx.web.annotation.PathParam;
+import com.dinstone.vertx.web.annotation.Scope;
+
+@Path("/pooled")
+@Scope(value = Scope.Type.POOLED, poolSize = 2)
+public class PooledResource implements Resettable {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    public PooledResource() {
+        CREATED.incrementAndGet();
+    }
+
+    @Get("/echo/:text")
+    public String echo(@PathParam("text") String text) {
+        return buffer.append(text).toString();
+    }
+
+    @Override
+    public void reset() {
+        buffer.setLength(0);
+    }
+}
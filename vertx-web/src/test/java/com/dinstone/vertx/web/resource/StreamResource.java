@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dinstone.vertx.web.resource;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.Path;
+import com.dinstone.vertx.web.annotation.Produces;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.web.RoutingContext;
+
+@Path("/stream")
+public class StreamResource {
+
+    public static final int ITEMS = 2000;
+
+    public static final AtomicReference<ItemStream<Buffer>> ENDLESS = new AtomicReference<>();
+
+    @Get("/json")
+    @Produces({ "application/json" })
+    public ReadStream<JsonObject> json(RoutingContext ctx) {
+        return new ItemStream<>(ctx.vertx(), ITEMS, i -> new JsonObject().put("id", i));
+    }
+
+    @Get("/ndjson")
+    @Produces({ "application/x-ndjson" })
+    public ReadStream<JsonObject> ndjson(RoutingContext ctx) {
+        return new ItemStream<>(ctx.vertx(), ITEMS, i -> new JsonObject().put("id", i));
+    }
+
+    @Get("/raw")
+    public ReadStream<Buffer> raw(RoutingContext ctx) {
+        return new ItemStream<>(ctx.vertx(), ITEMS, i -> Buffer.buffer("x"));
+    }
+
+    @Get("/endless")
+    public ReadStream<Buffer> endless(RoutingContext ctx) {
+        ItemStream<Buffer> stream = new ItemStream<>(ctx.vertx(), Integer.MAX_VALUE, i -> Buffer.buffer(new byte[1024]));
+        ENDLESS.set(stream);
+        return stream;
+    }
+
+}
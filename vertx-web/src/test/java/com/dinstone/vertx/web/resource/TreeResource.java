@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.resource;
+
+import com.dinstone.vertx.web.annotation.Get;
+import com.dinstone.vertx.web.annotation.Path;
+import com.dinstone.vertx.web.annotation.PathParam;
+
+@Path("/tree")
+public class TreeResource {
+
+    @Get("/users/:id")
+    public String user(@PathParam("id") String id) {
+        return "user " + id;
+    }
+
+    @Get("/users/me")
+    public String me() {
+        return "me";
+    }
+
+    @Get("/users/:id/orders/:order")
+    public String order(@PathParam("id") String id, @PathParam("order") int order) {
+        return "order " + id + "/" + order;
+    }
+
+    @Get("/files/*")
+    public String files() {
+        return "files";
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.resource;
+
+import java.io.File;
+
+import com.dinstone.vertx.web.annotation.Body;
+import com.dinstone.vertx.web.annotation.Path;
+import com.dinstone.vertx.web.annotation.Post;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.web.RoutingContext;
+
+@Path("/upload")
+public class UploadResource {
+
+    @Post("/items")
+    public void items(RoutingContext ctx, @Body(maxSize = 1024 * 1024) ReadStream<JsonObject> items) {
+        long[] sum = new long[2];
+        items.handler(item -> {
+            sum[0]++;
+            sum[1] += item.getInteger("id");
+        });
+        items.endHandler(v -> ctx.response().end(sum[0] + ":" + sum[1]));
+    }
+
+    @Post("/file")
+    public void file(RoutingContext ctx, @Body(maxSize = 64 * 1024) File file) {
+        ctx.response().end(String.valueOf(file.length()));
+    }
+
+    @Post("/small")
+    public void small(RoutingContext ctx, @Body(maxSize = 16) ReadStream<Buffer> body) {
+        Buffer content = Buffer.buffer();
+        body.handler(content::appendBuffer);
+        body.endHandler(v -> ctx.response().end(content));
+    }
+}
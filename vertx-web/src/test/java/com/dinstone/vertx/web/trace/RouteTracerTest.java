@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2016~2017 dinstone<dinstone@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dinstone.vertx.web.trace;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.dinstone.vertx.web.RouterBuilder;
+import com.dinstone.vertx.web.resource.AsyncResource;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.Router;
+
+@RunWith(VertxUnitRunner.class)
+public class RouteTracerTest {
+
+    private static final String PARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+
+    private static Vertx vertx = Vertx.vertx();
+
+    @Test
+    public void testTraceContext() {
+        assertTrue(TraceContext.isSampled(PARENT));
+        assertFalse(TraceContext.isSampled(PARENT.substring(0, 53) + "00"));
+        assertFalse(TraceContext.isSampled("garbage"));
+
+        long[] traceId = TraceContext.traceId(PARENT);
+        assertArrayEquals(new long[] { 0x0af7651916cd43ddL, 0x8448eb211c80319cL }, traceId);
+        assertEquals(0xb7ad6b7169203331L, TraceContext.parentId(PARENT));
+        assertEquals(PARENT, TraceContext.traceparent(traceId[0], traceId[1], 0xb7ad6b7169203331L, true));
+        assertNull(TraceContext.traceId("00-00000000000000000000000000000000-b7ad6b7169203331-01"));
+    }
+
+    @Test
+    public void testRecorderRing() {
+        SpanRecorder recorder = new SpanRecorder(3);
+        for (int i = 0; i < 6; i++) {
+            recorder.record(new Span(null, 0, 1, i + 1, 0));
+        }
+        List<Span> spans = recorder.spans();
+        assertEquals(4, spans.size());
+        assertEquals(TraceContext.spanId(6), spans.get(0).spanId());
+        assertEquals(TraceContext.spanId(3), spans.get(3).spanId());
+    }
+
+    @Test
+    public void testTracedRoutes(TestContext ctx) {
+        final Async async = ctx.async();
+
+        RouteTracer tracer = new RouteTracer(Sampler.never(), new SpanRecorder(16));
+        final Router router = RouterBuilder.create(vertx).interceptor(tracer).handler(new AsyncResource()).build();
+        vertx.createHttpServer().requestHandler(router::accept).listen(8081, server -> {
+            if (server.failed()) {
+                ctx.fail(server.cause());
+                return;
+            }
+
+            HttpClient httpClient = vertx.createHttpClient();
+            httpClient.getNow(8081, "localhost", "/async/string", res -> res.bodyHandler(buff -> {
+                ctx.assertTrue(tracer.recorder().spans().isEmpty());
+
+                httpClient.get(8081, "localhost", "/async/future", fres -> fres.bodyHandler(fbuff -> {
+                    ctx.assertEquals("Hello future!", fbuff.toString());
+
+                    httpClient.get(8081, "localhost", "/async/failed", eres -> eres.bodyHandler(ebuff -> {
+                        List<Span> spans = tracer.recorder().spans();
+                        ctx.assertEquals(2, spans.size());
+
+                        Span failed = spans.get(0);
+                        ctx.assertEquals(500, failed.status());
+                        ctx.assertNotNull(failed.error());
+
+                        Span future = spans.get(1);
+                        ctx.assertEquals(HttpMethod.GET, future.route().method());
+                        ctx.assertEquals("/async/future", future.route().path());
+                        ctx.assertEquals("0af7651916cd43dd8448eb211c80319c", future.traceId());
+                        ctx.assertEquals("b7ad6b7169203331", future.toJson().getString("parentId"));
+                        ctx.assertEquals(200, future.status());
+                        ctx.assertTrue(future.executeNanos() >= 10000000L);
+                        ctx.assertTrue(future.totalNanos() >= future.executeNanos());
+
+                        server.result().close(v -> {
+                            if (v.failed()) {
+                                ctx.fail(v.cause());
+                                return;
+                            }
+                            async.complete();
+                        });
+                    })).putHeader(TraceContext.TRACEPARENT, PARENT).end();
+                })).putHeader(TraceContext.TRACEPARENT, PARENT).end();
+            }));
+        });
+
+        async.await();
+    }
+
+}